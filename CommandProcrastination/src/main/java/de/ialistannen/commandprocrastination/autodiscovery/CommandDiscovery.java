@@ -28,8 +28,32 @@ public class CommandDiscovery {
    * @return the found commands
    */
   public <C extends GlobalContext> CommandNode<C> findCommands(Instantiator<C> instantiator) {
+    return findCommands(instantiator, new ClassGraph());
+  }
+
+  /**
+   * Finds all commands only visible to the given class loader, e.g. the ones in a jar loaded by a
+   * {@link java.net.URLClassLoader}, and orders them like {@link #findCommands(Instantiator)}.
+   * Parents are only looked up among these commands.
+   *
+   * @param instantiator the instance creator for command node classes
+   * @param classLoader the class loader to scan, without its parents
+   * @param <C> the type of the context
+   * @return the found commands
+   * @see CommandModules
+   */
+  public <C extends GlobalContext> CommandNode<C> findCommands(Instantiator<C> instantiator,
+      ClassLoader classLoader) {
+    return findCommands(
+        instantiator,
+        new ClassGraph().overrideClassLoaders(classLoader).ignoreParentClassLoaders()
+    );
+  }
+
+  private <C extends GlobalContext> CommandNode<C> findCommands(Instantiator<C> instantiator,
+      ClassGraph scanner) {
     DiscoveryRootCommand<C> root = new DiscoveryRootCommand<>();
-    List<GraphNode<CommandNode<C>>> nodes = findAllCommands(instantiator);
+    List<GraphNode<CommandNode<C>>> nodes = findAllCommands(instantiator, scanner);
 
     // Connect the graph
     for (GraphNode<CommandNode<C>> node : nodes) {
@@ -46,17 +70,16 @@ public class CommandDiscovery {
   }
 
   private <C extends GlobalContext> List<GraphNode<CommandNode<C>>> findAllCommands(
-      Instantiator<C> instantiator) {
+      Instantiator<C> instantiator, ClassGraph scanner) {
     List<GraphNode<CommandNode<C>>> nodes = new ArrayList<>();
 
-    ScanResult classGraph = new ClassGraph()
-        .enableClassInfo()
-        .enableAnnotationInfo()
-        .scan();
-    List<Class<?>> classes = classGraph.getAllStandardClasses().stream()
-        .filter(it -> it.hasAnnotation(ActiveCommand.class.getCanonicalName()))
-        .map(ClassInfo::loadClass)
-        .collect(Collectors.toList());
+    List<Class<?>> classes;
+    try (ScanResult classGraph = scanner.enableClassInfo().enableAnnotationInfo().scan()) {
+      classes = classGraph.getAllStandardClasses().stream()
+          .filter(it -> it.hasAnnotation(ActiveCommand.class.getCanonicalName()))
+          .map(ClassInfo::loadClass)
+          .collect(Collectors.toList());
+    }
 
     for (Class<?> aClass : classes) {
       if (!aClass.isAnnotationPresent(ActiveCommand.class)) {
@@ -0,0 +1,244 @@
+package de.ialistannen.commandprocrastination.autodiscovery;
+
+import de.ialistannen.commandprocrastination.command.CommandInterceptor;
+import de.ialistannen.commandprocrastination.command.tree.CommandChain;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads groups of commands, e.g. the jar of a plugin, at runtime and replaces them without
+ * restarting.
+ *
+ * <p><br>Every module gets its own class loader, whose {@code @ActiveCommand} classes are
+ * discovered using the usual {@link ActiveCommand#parent() parent} rules. The commands of a module
+ * without a parent in it are added to the mount point. Loading a module again swaps its old
+ * commands for the new ones in a single step, so every request sees either the old or the new
+ * version.</p>
+ *
+ * <p><br>The class loader of a replaced version is closed once all requests that found one of its
+ * commands are done. Requests that are still searching the tree while the swap happens are not
+ * tracked, so a command found that way may run after its loader was closed and fail to load
+ * classes it did not use before.</p>
+ *
+ * @param <C> the type of the context
+ */
+public class CommandModules<C extends GlobalContext> {
+
+  private final CommandNode<C> mountPoint;
+  private final Instantiator<C> instantiator;
+  private final CommandDiscovery discovery;
+  private final Map<String, Module<C>> modules;
+
+  /**
+   * Creates a new module manager.
+   *
+   * @param mountPoint the node the top level commands of all modules are added to
+   * @param instantiator the instance creator for command node classes
+   */
+  public CommandModules(CommandNode<C> mountPoint, Instantiator<C> instantiator) {
+    this.mountPoint = mountPoint;
+    this.instantiator = instantiator;
+    this.discovery = new CommandDiscovery();
+    this.modules = new LinkedHashMap<>();
+  }
+
+  /**
+   * Loads a module from a jar, replacing a previously loaded module with the same name.
+   *
+   * @param name the name of the module
+   * @param jar the path to the jar
+   * @return a future completing once the replaced version was released
+   * @throws IllegalArgumentException if the path can not be converted to a URL
+   * @see #load(String, URL...)
+   */
+  public CompletableFuture<Void> load(String name, Path jar) {
+    try {
+      return load(name, jar.toUri().toURL());
+    } catch (MalformedURLException e) {
+      throw new IllegalArgumentException("Invalid module path " + jar, e);
+    }
+  }
+
+  /**
+   * Loads a module, replacing a previously loaded module with the same name. If discovering or
+   * mounting the commands fails, the old version stays in place.
+   *
+   * @param name the name of the module
+   * @param urls the jars or directories containing the classes of the module
+   * @return a future completing once the replaced version was released. Already completed if
+   *     there was none
+   * @throws CommandDiscovery.CycleException if the commands of the module form a cycle
+   * @throws IllegalArgumentException if a command of the module can not be added to the mount
+   *     point
+   * @see CommandNode#replaceChildren(java.util.Collection, java.util.Collection)
+   */
+  public synchronized CompletableFuture<Void> load(String name, URL... urls) {
+    URLClassLoader classLoader = new URLClassLoader(
+        urls, CommandModules.class.getClassLoader()
+    );
+
+    List<CommandNode<C>> commands;
+    try {
+      commands = discovery.findCommands(instantiator, classLoader).getChildren();
+    } catch (RuntimeException e) {
+      closeQuietly(classLoader, e);
+      throw e;
+    }
+
+    Module<C> module = new Module<>(classLoader, commands);
+    Module<C> old = modules.get(name);
+    try {
+      for (CommandNode<C> command : commands) {
+        command.addInterceptor(module);
+      }
+      mountPoint.replaceChildren(old == null ? List.of() : old.commands, commands);
+    } catch (RuntimeException e) {
+      for (CommandNode<C> command : commands) {
+        command.removeInterceptor(module);
+      }
+      closeQuietly(classLoader, e);
+      throw e;
+    }
+    modules.put(name, module);
+
+    return old == null ? CompletableFuture.completedFuture(null) : old.retire();
+  }
+
+  /**
+   * Removes a module.
+   *
+   * @param name the name of the module
+   * @return a future completing once the module was released. Already completed if no module with
+   *     that name was loaded
+   */
+  public synchronized CompletableFuture<Void> unload(String name) {
+    Module<C> old = modules.remove(name);
+    if (old == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    mountPoint.replaceChildren(old.commands, List.of());
+    return old.retire();
+  }
+
+  /**
+   * Returns the names of all loaded modules.
+   *
+   * @return the names of the modules in the order they were first loaded
+   */
+  public synchronized Set<String> getModuleNames() {
+    return Collections.unmodifiableSet(new LinkedHashSet<>(modules.keySet()));
+  }
+
+  /**
+   * Returns the top level commands of a module.
+   *
+   * @param name the name of the module
+   * @return the commands added to the mount point or an empty list if the module is not loaded
+   */
+  public synchronized List<CommandNode<C>> getCommands(String name) {
+    Module<C> module = modules.get(name);
+    return module == null ? List.of() : module.commands;
+  }
+
+  private static void closeQuietly(URLClassLoader classLoader, Exception cause) {
+    try {
+      classLoader.close();
+    } catch (IOException e) {
+      cause.addSuppressed(e);
+    }
+  }
+
+  /**
+   * A loaded version of a module. Registered as an interceptor on its top level commands to track
+   * the requests using them.
+   *
+   * <p><br>Requests are counted per request context, as a context may be reused or run nested
+   * commands. A request found through the tree is counted once it was found, a prepared one once
+   * it starts executing.</p>
+   */
+  private static class Module<C extends GlobalContext> implements CommandInterceptor<C> {
+
+    private final URLClassLoader classLoader;
+    private final List<CommandNode<C>> commands;
+    private final Map<RequestContext, Integer> inFlight;
+    private final Set<CommandChain<C>> found;
+    private final CompletableFuture<Void> released;
+    private boolean retired;
+
+    Module(URLClassLoader classLoader, List<CommandNode<C>> commands) {
+      this.classLoader = classLoader;
+      this.commands = commands;
+      this.inFlight = new IdentityHashMap<>();
+      this.found = Collections.newSetFromMap(new IdentityHashMap<>());
+      this.released = new CompletableFuture<>();
+    }
+
+    @Override
+    public synchronized void afterFind(CommandChain<C> chain, RequestContext requestContext) {
+      found.add(chain);
+      track(requestContext);
+    }
+
+    @Override
+    public synchronized void beforeExecute(CommandChain<C> chain, RequestContext requestContext) {
+      // prepared commands skip the find phase, found ones were already counted
+      if (!found.remove(chain)) {
+        track(requestContext);
+      }
+    }
+
+    @Override
+    public void afterExecute(CommandChain<C> chain, RequestContext requestContext) {
+      untrack(chain, requestContext);
+    }
+
+    @Override
+    public void onFailure(CommandChain<C> chain, RequestContext requestContext,
+        Exception failure) {
+      untrack(chain, requestContext);
+    }
+
+    private void track(RequestContext requestContext) {
+      inFlight.merge(requestContext, 1, Integer::sum);
+    }
+
+    private synchronized void untrack(CommandChain<C> chain, RequestContext requestContext) {
+      found.remove(chain);
+      inFlight.computeIfPresent(requestContext, (context, count) -> count == 1 ? null : count - 1);
+      releaseIfDrained();
+    }
+
+    synchronized CompletableFuture<Void> retire() {
+      retired = true;
+      releaseIfDrained();
+      return released;
+    }
+
+    private void releaseIfDrained() {
+      if (!retired || !inFlight.isEmpty() || released.isDone()) {
+        return;
+      }
+      try {
+        classLoader.close();
+        released.complete(null);
+      } catch (IOException e) {
+        released.completeExceptionally(new UncheckedIOException(e));
+      }
+    }
+  }
+}
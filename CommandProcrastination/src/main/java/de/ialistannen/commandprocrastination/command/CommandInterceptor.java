@@ -0,0 +1,79 @@
+package de.ialistannen.commandprocrastination.command;
+
+import de.ialistannen.commandprocrastination.command.tree.CommandChain;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+
+/**
+ * Hooks into the phases of finding and executing a command, e.g. for permission checks, logging
+ * or metrics. All methods do nothing by default, so implementations only override the phases they
+ * care about.
+ *
+ * <p><br>Interceptors are registered on an executor, where they see every request, or on a {@link
+ * de.ialistannen.commandprocrastination.command.tree.CommandNode}, where they see the requests of
+ * that node and all its descendants. The find and {@code beforeExecute} phases run outermost
+ * first (executor, then root to final node), {@code afterExecute} and {@code onFailure} in
+ * reverse. Throwing from any phase before the execution aborts the request.</p>
+ * <p><br>The interceptors of a node path are resolved into a flat array once, so nodes without any
+ * interceptors cost nothing per request.</p>
+ *
+ * @param <C> the context type
+ */
+public interface CommandInterceptor<C extends GlobalContext> {
+
+  /**
+   * Called before the command is searched. Only interceptors registered on the executor are
+   * called, as the node is not known yet.
+   *
+   * @param input the input
+   * @param requestContext the request context
+   * @throws ParseException to reject the input
+   */
+  default void beforeFind(StringReader input, RequestContext requestContext)
+      throws ParseException {
+  }
+
+  /**
+   * Called after the command was found, before its declared arguments are parsed.
+   *
+   * @param chain the found command chain
+   * @param requestContext the request context
+   * @throws ParseException to reject the input
+   */
+  default void afterFind(CommandChain<C> chain, RequestContext requestContext)
+      throws ParseException {
+  }
+
+  /**
+   * Called right before the command is executed. The request context is fully populated.
+   *
+   * @param chain the command chain
+   * @param requestContext the request context
+   * @throws ParseException to reject the input
+   */
+  default void beforeExecute(CommandChain<C> chain, RequestContext requestContext)
+      throws ParseException {
+  }
+
+  /**
+   * Called after the command was executed successfully.
+   *
+   * @param chain the command chain
+   * @param requestContext the request context
+   */
+  default void afterExecute(CommandChain<C> chain, RequestContext requestContext) {
+  }
+
+  /**
+   * Called if finding, parsing or executing the command failed. The exception is rethrown
+   * afterwards.
+   *
+   * @param chain the command chain or null if no command was found
+   * @param requestContext the request context
+   * @param failure the exception
+   */
+  default void onFailure(CommandChain<C> chain, RequestContext requestContext, Exception failure) {
+  }
+}
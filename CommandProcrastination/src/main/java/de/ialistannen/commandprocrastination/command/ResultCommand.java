@@ -0,0 +1,103 @@
+package de.ialistannen.commandprocrastination.command;
+
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+
+/**
+ * A command that splits its work into computing a result and delivering it to the requester.
+ *
+ * <p><br>This allows executors to share a single computed result between multiple requests, e.g.
+ * when coalescing identical requests. Executed as a normal {@link Command} it just computes the
+ * result and delivers it right away.</p>
+ *
+ * @param <C> the context type
+ * @param <T> the type of the result
+ */
+public interface ResultCommand<C extends GlobalContext, T> extends Command<C> {
+
+  /**
+   * Computes the result of the command. This should not have any visible side effects, as the
+   * result might be shared with other requests.
+   *
+   * @param context the context to use
+   * @return the result
+   * @throws ParseException if the input data is not correctly formatted
+   */
+  T compute(C context) throws ParseException;
+
+  /**
+   * Delivers the result to the requester, e.g. by sending a message.
+   *
+   * @param context the context of the request to deliver to
+   * @param result the computed result. Might have been computed for a different request
+   * @throws ParseException if the input data is not correctly formatted
+   */
+  void deliver(C context, T result) throws ParseException;
+
+  @Override
+  default void execute(C context) throws ParseException {
+    deliver(context, compute(context));
+  }
+
+  /**
+   * Creates a result command from a computation and a delivery step.
+   *
+   * @param computation the computation
+   * @param delivery the delivery
+   * @param <C> the context type
+   * @param <T> the type of the result
+   * @return the created command
+   */
+  static <C extends GlobalContext, T> ResultCommand<C, T> of(Computation<C, T> computation,
+      Delivery<C, T> delivery) {
+    return new ResultCommand<>() {
+      @Override
+      public T compute(C context) throws ParseException {
+        return computation.compute(context);
+      }
+
+      @Override
+      public void deliver(C context, T result) throws ParseException {
+        delivery.deliver(context, result);
+      }
+    };
+  }
+
+  /**
+   * The computing part of a {@link ResultCommand}.
+   *
+   * @param <C> the context type
+   * @param <T> the type of the result
+   */
+  interface Computation<C extends GlobalContext, T> {
+
+    /**
+     * Computes the result.
+     *
+     * @param context the context to use
+     * @return the result
+     * @throws ParseException if the input data is not correctly formatted
+     * @see ResultCommand#compute(GlobalContext)
+     */
+    T compute(C context) throws ParseException;
+  }
+
+  /**
+   * The delivering part of a {@link ResultCommand}.
+   *
+   * @param <C> the context type
+   * @param <T> the type of the result
+   */
+  interface Delivery<C extends GlobalContext, T> {
+
+    /**
+     * Delivers the result.
+     *
+     * @param context the context of the request to deliver to
+     * @param result the result
+     * @throws ParseException if the input data is not correctly formatted
+     * @see ResultCommand#deliver(GlobalContext, Object)
+     */
+    void deliver(C context, T result) throws ParseException;
+  }
+}
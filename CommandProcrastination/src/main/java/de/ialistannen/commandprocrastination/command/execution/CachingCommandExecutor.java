@@ -0,0 +1,108 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import de.ialistannen.commandprocrastination.command.ResultCommand;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.util.SingleFlight.Computation;
+import de.ialistannen.commandprocrastination.util.cache.BoundedCache;
+import de.ialistannen.commandprocrastination.util.cache.CacheStats;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A command executor that caches the results of idempotent commands.
+ *
+ * <p><br>Results are cached for nodes that are marked as {@link DefaultDataKey#IDEMPOTENT},
+ * have a {@link ResultCommand} and specify a {@link DefaultDataKey#RESULT_CACHE_TTL}. They are
+ * keyed by the final node, the normalized argument text and the {@link
+ * #getResultScope(RequestContext) result scope}. Cache misses are still coalesced like in the
+ * {@link CoalescingCommandExecutor}.</p>
+ * <p><br>Results computed while {@link #invalidateCachedResults()} is called are delivered, but
+ * not cached.</p>
+ *
+ * @param <C> the context type
+ * @param <R> the request context type
+ */
+public abstract class CachingCommandExecutor<C extends GlobalContext, R extends RequestContext>
+    extends CoalescingCommandExecutor<C, R> {
+
+  private final BoundedCache<ResultKey, Object> cache;
+  private final AtomicLong generation;
+
+  /**
+   * Creates a new caching command executor.
+   *
+   * @param finder the command finder
+   * @param commandArgumentSeparator the separator between command and arguments
+   * @param maximumCacheSize the maximum number of cached results
+   */
+  public CachingCommandExecutor(CommandFinder<C> finder, SuccessParser commandArgumentSeparator,
+      int maximumCacheSize) {
+    this(finder, commandArgumentSeparator, maximumCacheSize, System::nanoTime);
+  }
+
+  /**
+   * Creates a new caching command executor.
+   *
+   * @param finder the command finder
+   * @param commandArgumentSeparator the separator between command and arguments
+   * @param maximumCacheSize the maximum number of cached results
+   * @param ticker the time source for expiring results, in nanoseconds
+   */
+  public CachingCommandExecutor(CommandFinder<C> finder, SuccessParser commandArgumentSeparator,
+      int maximumCacheSize, LongSupplier ticker) {
+    super(finder, commandArgumentSeparator);
+    this.cache = new BoundedCache<>(maximumCacheSize, ticker);
+    this.generation = new AtomicLong();
+  }
+
+  @Override
+  protected Object computeResult(ResultKey key, Computation<Object> computation)
+      throws ParseException {
+    Optional<Duration> timeToLive = key.getNode().getOptionalData(DefaultDataKey.RESULT_CACHE_TTL);
+    if (timeToLive.isEmpty()) {
+      return super.computeResult(key, computation);
+    }
+
+    Object cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    long startGeneration = generation.get();
+    Object result = super.computeResult(key, computation);
+    if (result == null || startGeneration != generation.get()) {
+      return result;
+    }
+    cache.put(key, result, timeToLive.get());
+
+    // An invalidation between the check and the put must still win
+    if (startGeneration != generation.get()) {
+      cache.invalidate(key);
+    }
+    return result;
+  }
+
+  /**
+   * Removes all cached results.
+   */
+  public void invalidateCachedResults() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returns the hit and miss statistics of the result cache.
+   *
+   * @return the statistics of the result cache
+   */
+  public CacheStats getCacheStats() {
+    return cache.getStats();
+  }
+}
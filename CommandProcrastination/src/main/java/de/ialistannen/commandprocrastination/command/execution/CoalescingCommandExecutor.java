@@ -0,0 +1,141 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.ResultCommand;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.util.SingleFlight;
+import de.ialistannen.commandprocrastination.util.SingleFlight.Computation;
+import de.ialistannen.commandprocrastination.util.StringReader;
+
+/**
+ * A command executor that coalesces concurrent identical requests.
+ *
+ * <p><br>If the final node is marked as {@link DefaultDataKey#IDEMPOTENT} and its command is a
+ * {@link ResultCommand}, concurrent requests for the same node with the same remaining arguments
+ * share a single {@link ResultCommand#compute(GlobalContext) computation}. Every request still
+ * gets its own {@link ResultCommand#deliver(GlobalContext, Object) delivery}.</p>
+ * <p><br>As the result is computed from all remaining arguments, the reader of every request is
+ * positioned at the end of the input before the delivery, whether the request computed the result
+ * or joined another one.</p>
+ * <p><br>If the computation fails, every request waiting for it rethrows the very same exception
+ * instance.</p>
+ * <p><br>All other commands are executed normally.</p>
+ *
+ * @param <C> the context type
+ * @param <R> the request context type
+ */
+public abstract class CoalescingCommandExecutor<C extends GlobalContext, R extends RequestContext>
+    extends CommandExecutor<C, R> {
+
+  private final SingleFlight<ResultKey, Object> singleFlight;
+
+  /**
+   * Creates a new coalescing command executor.
+   *
+   * @param finder the command finder
+   * @param commandArgumentSeparator the separator between command and arguments
+   */
+  public CoalescingCommandExecutor(CommandFinder<C> finder,
+      SuccessParser commandArgumentSeparator) {
+    super(finder, commandArgumentSeparator);
+    this.singleFlight = new SingleFlight<>();
+  }
+
+  @Override
+  protected void executeImpl(R requestContext) throws ParseException {
+    CommandNode<C> commandNode = requestContext.getFinalNode();
+    Command<C> command = commandNode.getCommand();
+
+    boolean idempotent = commandNode.<Boolean>getOptionalData(DefaultDataKey.IDEMPOTENT)
+        .orElse(false);
+    if (!idempotent || !(command instanceof ResultCommand)) {
+      super.executeImpl(requestContext);
+      return;
+    }
+
+    @SuppressWarnings("unchecked")
+    ResultCommand<C, Object> resultCommand = (ResultCommand<C, Object>) command;
+    C context = createContext(requestContext);
+
+    ResultKey key = new ResultKey(
+        commandNode,
+        normalizeArguments(requestContext.getReader().peekRemaining()),
+        getResultScope(requestContext)
+    );
+    Object result = computeResult(key, () -> resultCommand.compute(context));
+
+    StringReader reader = requestContext.getReader();
+    reader.reset(reader.length());
+    resultCommand.deliver(context, result);
+  }
+
+  /**
+   * Computes the result for an idempotent command, joining a running computation for the same key
+   * if there is one.
+   *
+   * @param key the key of the result
+   * @param computation the computation
+   * @return the result
+   * @throws ParseException if the computation throws one
+   */
+  protected Object computeResult(ResultKey key, Computation<Object> computation)
+      throws ParseException {
+    return singleFlight.run(key, computation);
+  }
+
+  /**
+   * Returns the number of requests waiting for the running computation of a key.
+   *
+   * @param key the key of the result
+   * @return the number of waiting requests, excluding the one computing the result
+   */
+  int getWaitingCount(ResultKey key) {
+    return singleFlight.getWaiterCount(key);
+  }
+
+  /**
+   * Returns the scope of the result for the given request. Requests in different scopes never
+   * share results.
+   *
+   * <p><br>Override this for commands whose result depends on the requester, e.g. by returning
+   * the guild or user. The default implementation returns null, sharing results globally.</p>
+   *
+   * @param requestContext the request context
+   * @return the scope or null if there is none
+   */
+  protected Object getResultScope(R requestContext) {
+    return null;
+  }
+
+  /**
+   * Normalizes the argument text, so insignificant whitespace differences map to the same result.
+   *
+   * @param arguments the remaining argument text
+   * @return the normalized arguments
+   */
+  protected String normalizeArguments(String arguments) {
+    StringBuilder normalized = new StringBuilder(arguments.length());
+    boolean pendingSpace = false;
+
+    for (int i = 0; i < arguments.length(); i++) {
+      char current = arguments.charAt(i);
+      if (Character.isWhitespace(current)) {
+        pendingSpace = normalized.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        normalized.append(' ');
+        pendingSpace = false;
+      }
+      normalized.append(current);
+    }
+
+    return normalized.toString();
+  }
+}
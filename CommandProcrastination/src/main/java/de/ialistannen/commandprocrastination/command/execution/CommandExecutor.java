@@ -1,14 +1,26 @@
 package de.ialistannen.commandprocrastination.command.execution;
 
+import de.ialistannen.commandprocrastination.command.CommandInterceptor;
 import de.ialistannen.commandprocrastination.command.tree.CommandChain;
 import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
 import de.ialistannen.commandprocrastination.command.tree.CommandFinder.FindResult;
 import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.command.tree.CommandTreeView;
+import de.ialistannen.commandprocrastination.command.tree.PermissionViews;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
 import de.ialistannen.commandprocrastination.context.GlobalContext;
 import de.ialistannen.commandprocrastination.context.RequestContext;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
 import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentSchema;
+import de.ialistannen.commandprocrastination.parsing.arguments.ParsedArguments;
 import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.Utf8Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * A command executor.
@@ -19,6 +31,12 @@ public abstract class CommandExecutor<C extends GlobalContext, R extends Request
 
   private CommandFinder<C> finder;
   private SuccessParser commandArgumentSeparator;
+  private volatile boolean tokenizeInput;
+  private volatile boolean reuseReaders;
+  private final ThreadLocal<ReaderSlot> readerSlots = ThreadLocal.withInitial(ReaderSlot::new);
+  private volatile List<CommandInterceptor<C>> interceptors = List.of();
+  private volatile Function<R, Predicate<String>> permissions;
+  private volatile PermissionViews<C> permissionViews;
 
   /**
    * Creates a new command executor.
@@ -31,6 +49,76 @@ public abstract class CommandExecutor<C extends GlobalContext, R extends Request
     this.commandArgumentSeparator = commandArgumentSeparator;
   }
 
+  /**
+   * Adds an interceptor that sees every request of this executor. Interceptors that only concern
+   * a part of the tree are better registered on its root node using {@link
+   * CommandNode#addInterceptor(CommandInterceptor)}.
+   *
+   * @param interceptor the interceptor
+   * @see CommandInterceptor
+   */
+  public synchronized void addInterceptor(CommandInterceptor<C> interceptor) {
+    List<CommandInterceptor<C>> updated = new ArrayList<>(interceptors);
+    updated.add(interceptor);
+    interceptors = List.copyOf(updated);
+  }
+
+  /**
+   * Removes an interceptor added using {@link #addInterceptor(CommandInterceptor)}.
+   *
+   * @param interceptor the interceptor
+   */
+  public synchronized void removeInterceptor(CommandInterceptor<C> interceptor) {
+    List<CommandInterceptor<C>> updated = new ArrayList<>(interceptors);
+    updated.remove(interceptor);
+    interceptors = List.copyOf(updated);
+  }
+
+  /**
+   * Sets whether the input is tokenized once before it is parsed. This speeds up long commands
+   * with many arguments, as skipping whitespace and reading words or phrases no longer scans the
+   * characters again.
+   *
+   * @param tokenizeInput true if the input should be tokenized
+   * @see StringReader#tokenize()
+   */
+  public void setTokenizeInput(boolean tokenizeInput) {
+    this.tokenizeInput = tokenizeInput;
+  }
+
+  /**
+   * Sets whether {@link #execute(String, RequestContext)} reuses one reader per thread instead of
+   * allocating a new one for every input.
+   *
+   * <p><br>The reader is only valid while the command runs: Once {@code execute} returns, it is
+   * removed from the request context and reused for the next input of the thread. Commands must
+   * therefore not hand it to other threads. A command executing another command on the same thread
+   * gets a fresh reader.</p>
+   *
+   * @param reuseReaders true if readers should be reused
+   */
+  public void setReuseReaders(boolean reuseReaders) {
+    this.reuseReaders = reuseReaders;
+  }
+
+  /**
+   * Restricts the commands a request can find to the ones it has the {@link
+   * DefaultDataKey#PERMISSION permission} for. Commands the requester lacks the permission for
+   * are not found at all, as if they did not exist.
+   *
+   * <p><br>The visible tree is precomputed once for every distinct set of permissions used in the
+   * tree, so requesters sharing a role share a view. Prepared commands are checked when they are
+   * executed, as the requester might differ from the one they were prepared for.</p>
+   *
+   * @param permissions returns which permissions the requester of a request holds or null to
+   *     allow all commands again
+   * @see PermissionViews
+   */
+  public void setPermissions(Function<R, Predicate<String>> permissions) {
+    this.permissionViews = permissions == null ? null : new PermissionViews<>(finder.getRoot());
+    this.permissions = permissions;
+  }
+
   /**
    * Finds and executes a command.
    *
@@ -43,9 +131,59 @@ public abstract class CommandExecutor<C extends GlobalContext, R extends Request
    * @throws CommandException if there was an error executing the command
    * @throws ParseException if the input format is wrong
    * @see #execute(StringReader, RequestContext)
+   * @see #setReuseReaders(boolean)
    */
   public void execute(String input, R requestContext) throws ParseException {
-    execute(new StringReader(input), requestContext);
+    ReaderSlot slot = reuseReaders ? readerSlots.get() : null;
+    if (slot == null || slot.inUse) {
+      execute(new StringReader(input), requestContext);
+      return;
+    }
+
+    slot.inUse = true;
+    try {
+      slot.reader.reset(input);
+      execute(slot.reader, requestContext);
+    } finally {
+      if (requestContext.getReader() == slot.reader) {
+        requestContext.setReader(null);
+      }
+      slot.reader.reset("");
+      slot.inUse = false;
+    }
+  }
+
+  /**
+   * Finds and executes a command from UTF-8 encoded input.
+   *
+   * <p><br>The input is only decoded once a parser needs non ASCII characters, so input that does
+   * not start with a command is rejected without creating a string from it.</p>
+   *
+   * @param input the UTF-8 encoded input
+   * @throws AbnormalCommandResultException if the command throws one and no handler is
+   *     registered
+   * @throws CommandNotFoundException if the command was not found
+   * @throws CommandException if there was an error executing the command
+   * @throws ParseException if the input format is wrong
+   * @see Utf8Reader
+   */
+  public void execute(byte[] input, R requestContext) throws ParseException {
+    execute(new Utf8Reader(input), requestContext);
+  }
+
+  /**
+   * Finds and executes a command from the remaining UTF-8 encoded bytes in the buffer.
+   *
+   * @param input the UTF-8 encoded input. Its position is not changed
+   * @throws AbnormalCommandResultException if the command throws one and no handler is
+   *     registered
+   * @throws CommandNotFoundException if the command was not found
+   * @throws CommandException if there was an error executing the command
+   * @throws ParseException if the input format is wrong
+   * @see #execute(byte[], RequestContext)
+   */
+  public void execute(ByteBuffer input, R requestContext) throws ParseException {
+    execute(Utf8Reader.of(input), requestContext);
   }
 
   /**
@@ -59,10 +197,100 @@ public abstract class CommandExecutor<C extends GlobalContext, R extends Request
    * @throws ParseException if the input format is wrong
    */
   public void execute(StringReader input, R requestContext) throws ParseException {
-    FindResult<C> findResult = finder.find(input);
+    if (tokenizeInput) {
+      input.tokenize();
+    }
+
+    CommandChain<C> commandChain = null;
+    ParsedArguments arguments;
+    try {
+      List<CommandInterceptor<C>> global = interceptors;
+      for (int i = 0; i < global.size(); i++) {
+        global.get(i).beforeFind(input, requestContext);
+      }
+
+      commandChain = findCommand(input, requestContext);
+
+      for (int i = 0; i < global.size(); i++) {
+        global.get(i).afterFind(commandChain, requestContext);
+      }
+      CommandInterceptor<C>[] path = commandChain.getFinalNode().getInterceptorChain();
+      for (CommandInterceptor<C> interceptor : path) {
+        interceptor.afterFind(commandChain, requestContext);
+      }
+
+      arguments = parseDeclaredArguments(commandChain.getFinalNode(), input, requestContext);
+    } catch (ParseException | RuntimeException e) {
+      notifyFailure(commandChain, requestContext, e);
+      throw e;
+    }
+
+    execute(commandChain, input, arguments, requestContext);
+  }
+
+  /**
+   * Finds the command for the given input once, so it can be executed many times using {@link
+   * #execute(PreparedCommand, RequestContext)} without searching it again. If the command declares
+   * its arguments, they are parsed once as well.
+   *
+   * @param input the input
+   * @return the prepared command
+   * @throws CommandNotFoundException if the command was not found
+   * @throws ParseException if the input format is wrong
+   */
+  public PreparedCommand<C> prepare(String input) throws ParseException {
+    StringReader reader = new StringReader(input);
+    CommandChain<C> commandChain = findCommand(reader, null);
+    int argumentStart = reader.getPosition();
+    ParsedArguments arguments = parseDeclaredArguments(
+        commandChain.getFinalNode(), reader, null
+    );
+
+    return new PreparedCommand<>(
+        commandChain, input, argumentStart, arguments, reader.getPosition()
+    );
+  }
+
+  /**
+   * Executes a prepared command.
+   *
+   * @param command the prepared command
+   * @param requestContext the request context
+   * @throws AbnormalCommandResultException if the command throws one and no handler is
+   *     registered
+   * @throws CommandException if there was an error executing the command
+   * @throws CommandNotFoundException if the requester lacks the permission for the command
+   * @throws ParseException if the input format is wrong
+   */
+  public void execute(PreparedCommand<C> command, R requestContext) throws ParseException {
+    CommandTreeView<C> view = getPermissionView(requestContext);
+    if (view != null && !view.isVisible(command.getFinalNode())) {
+      StringReader input = new StringReader(command.getInput());
+      CommandNotFoundException exception = new CommandNotFoundException(
+          input, finder.find(view, input)
+      );
+      // Like for unknown commands, the interceptors of the hidden node are not told
+      notifyFailure(null, requestContext, exception);
+      throw exception;
+    }
+
+    execute(
+        command.getChain(),
+        command.createArgumentReader(),
+        command.getParsedArguments(),
+        requestContext
+    );
+  }
+
+  private CommandChain<C> findCommand(StringReader input, R requestContext)
+      throws ParseException {
+    CommandTreeView<C> view = getPermissionView(requestContext);
+    FindResult<C> findResult = view == null ? finder.find(input) : finder.find(view, input);
 
     if (!findResult.isSuccess()) {
-      throw new CommandNotFoundException(input.readRemaining(), findResult);
+      CommandNotFoundException exception = new CommandNotFoundException(input, findResult);
+      input.reset(input.length());
+      throw exception;
     }
 
     boolean parsedSeparator = commandArgumentSeparator.parse(input);
@@ -71,14 +299,74 @@ public abstract class CommandExecutor<C extends GlobalContext, R extends Request
       throw new NoSeparatorException(input);
     }
 
-    CommandChain<C> commandChain = findResult.getChain();
+    return findResult.getChain();
+  }
+
+  private CommandTreeView<C> getPermissionView(R requestContext) {
+    Function<R, Predicate<String>> permissions = this.permissions;
+    PermissionViews<C> views = this.permissionViews;
+    if (permissions == null || views == null || requestContext == null) {
+      return null;
+    }
+    return views.forPermissions(permissions.apply(requestContext));
+  }
+
+  private ParsedArguments parseDeclaredArguments(CommandNode<C> node, StringReader input,
+      R requestContext) throws ParseException {
+    ArgumentSchema schema = node.getData(DefaultDataKey.ARGUMENTS);
+    if (schema == null) {
+      return null;
+    }
+    // Error handlers find the failed argument in the store, like for arguments shifted later
+    return schema.parse(
+        input, requestContext == null ? null : requestContext.getArgumentStore()
+    );
+  }
+
+  private void execute(CommandChain<C> commandChain, StringReader input,
+      ParsedArguments arguments, R requestContext) throws ParseException {
     requestContext.setReader(input);
     requestContext.setFinalNode(commandChain.getFinalNode());
+    requestContext.setArguments(arguments);
 
+    List<CommandInterceptor<C>> global = interceptors;
+    CommandInterceptor<C>[] path = commandChain.getFinalNode().getInterceptorChain();
     try {
-      executeImpl(requestContext);
-    } catch (AbnormalCommandResultException e) {
-      handleAbnormalResult(commandChain, requestContext, e);
+      for (int i = 0; i < global.size(); i++) {
+        global.get(i).beforeExecute(commandChain, requestContext);
+      }
+      for (CommandInterceptor<C> interceptor : path) {
+        interceptor.beforeExecute(commandChain, requestContext);
+      }
+
+      try {
+        executeImpl(requestContext);
+      } catch (AbnormalCommandResultException e) {
+        handleAbnormalResult(commandChain, requestContext, e);
+      }
+
+      for (int i = path.length - 1; i >= 0; i--) {
+        path[i].afterExecute(commandChain, requestContext);
+      }
+      for (int i = global.size() - 1; i >= 0; i--) {
+        global.get(i).afterExecute(commandChain, requestContext);
+      }
+    } catch (ParseException | RuntimeException e) {
+      notifyFailure(commandChain, requestContext, e);
+      throw e;
+    }
+  }
+
+  private void notifyFailure(CommandChain<C> commandChain, R requestContext, Exception failure) {
+    if (commandChain != null) {
+      CommandInterceptor<C>[] path = commandChain.getFinalNode().getInterceptorChain();
+      for (int i = path.length - 1; i >= 0; i--) {
+        path[i].onFailure(commandChain, requestContext, failure);
+      }
+    }
+    List<CommandInterceptor<C>> global = interceptors;
+    for (int i = global.size() - 1; i >= 0; i--) {
+      global.get(i).onFailure(commandChain, requestContext, failure);
     }
   }
 
@@ -115,4 +403,13 @@ public abstract class CommandExecutor<C extends GlobalContext, R extends Request
    * @return a fitting context
    */
   protected abstract C createContext(R requestContext);
+
+  /**
+   * The reader reused by a single thread.
+   */
+  private static class ReaderSlot {
+
+    private final StringReader reader = new StringReader("");
+    private boolean inUse;
+  }
 }
@@ -2,6 +2,7 @@ package de.ialistannen.commandprocrastination.command.execution;
 
 import de.ialistannen.commandprocrastination.command.tree.CommandFinder.FindResult;
 import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.util.StringReader;
 
 /**
  * Indicates that a command was not found.
@@ -9,12 +10,34 @@ import de.ialistannen.commandprocrastination.context.GlobalContext;
 public class CommandNotFoundException extends CommandException {
 
   private FindResult<?> result;
+  private StringReader remaining;
 
   public CommandNotFoundException(String commandName, FindResult<?> result) {
     super("Command for '" + commandName + "' not found!");
     this.result = result;
   }
 
+  /**
+   * Creates a new exception for the remaining input of the reader. The message is only built when
+   * it is requested, as most input not matching a command is never reported.
+   *
+   * @param input the input, positioned where no command matched
+   * @param result the find result
+   */
+  public CommandNotFoundException(StringReader input, FindResult<?> result) {
+    super(null);
+    this.result = result;
+    this.remaining = input.copy();
+  }
+
+  @Override
+  public String getMessage() {
+    if (remaining != null) {
+      return "Command for '" + remaining.peekRemaining() + "' not found!";
+    }
+    return super.getMessage();
+  }
+
   /**
    * Returns the find result.
    *
@@ -0,0 +1,12 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+/**
+ * Indicates that a command was not accepted for execution, e.g. because too many commands are
+ * already waiting.
+ */
+public class CommandRejectedException extends CommandException {
+
+  public CommandRejectedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,279 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Schedules commands fairly between tenants (e.g. guilds or servers).
+ *
+ * <p><br>Every request is assigned to a tenant using a key taken from its {@link
+ * RequestContext}. Each tenant has its own bounded queue and the queues are served using deficit
+ * round robin: On its turn a tenant may run as many commands as its weight, then the next tenant
+ * is served. A single tenant flooding the scheduler therefore only ever delays others by the sum
+ * of the weights of the active tenants, no matter how many commands it queued.</p>
+ *
+ * @param <C> the context type
+ * @param <R> the request context type
+ */
+public class FairCommandScheduler<C extends GlobalContext, R extends RequestContext> {
+
+  private final CommandExecutor<C, R> delegate;
+  private final Function<R, ?> tenantExtractor;
+  private final Executor workers;
+  private final int concurrency;
+  private final int maxQueuedPerTenant;
+  private final Map<Object, Integer> weights;
+  private final int defaultWeight;
+
+  private final Map<Object, Tenant> tenants;
+  private final Queue<Tenant> activeTenants;
+  private int runningWorkers;
+
+  /**
+   * Creates a new fair command scheduler where every tenant has a weight of 1.
+   *
+   * @param delegate the executor that actually finds and executes the commands
+   * @param tenantExtractor extracts the tenant key from a request
+   * @param concurrency the maximum number of commands running in parallel
+   * @param workers the executor the commands are run on
+   * @param maxQueuedPerTenant the maximum number of commands a single tenant may have waiting
+   */
+  public FairCommandScheduler(CommandExecutor<C, R> delegate, Function<R, ?> tenantExtractor,
+      int concurrency, Executor workers, int maxQueuedPerTenant) {
+    this(delegate, tenantExtractor, concurrency, workers, maxQueuedPerTenant, 1);
+  }
+
+  /**
+   * Creates a new fair command scheduler.
+   *
+   * @param delegate the executor that actually finds and executes the commands
+   * @param tenantExtractor extracts the tenant key from a request
+   * @param concurrency the maximum number of commands running in parallel
+   * @param workers the executor the commands are run on
+   * @param maxQueuedPerTenant the maximum number of commands a single tenant may have waiting
+   * @param defaultWeight the weight of tenants without an explicitly set weight
+   */
+  public FairCommandScheduler(CommandExecutor<C, R> delegate, Function<R, ?> tenantExtractor,
+      int concurrency, Executor workers, int maxQueuedPerTenant, int defaultWeight) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("The concurrency must be positive, was " + concurrency);
+    }
+    if (maxQueuedPerTenant <= 0) {
+      throw new IllegalArgumentException(
+          "The queue cap must be positive, was " + maxQueuedPerTenant
+      );
+    }
+    if (defaultWeight <= 0) {
+      throw new IllegalArgumentException("The weight must be positive, was " + defaultWeight);
+    }
+    this.delegate = delegate;
+    this.tenantExtractor = tenantExtractor;
+    this.workers = workers;
+    this.concurrency = concurrency;
+    this.maxQueuedPerTenant = maxQueuedPerTenant;
+    this.defaultWeight = defaultWeight;
+    this.weights = new HashMap<>();
+    this.tenants = new HashMap<>();
+    this.activeTenants = new ArrayDeque<>();
+  }
+
+  /**
+   * Sets the weight of a tenant. A tenant with weight 2 gets twice as many turns as one with
+   * weight 1 when both have commands waiting.
+   *
+   * <p><br>The new weight is used from the next turn of the tenant on.</p>
+   *
+   * @param tenant the tenant key
+   * @param weight the weight. Must be positive
+   */
+  public synchronized void setWeight(Object tenant, int weight) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("The weight must be positive, was " + weight);
+    }
+    weights.put(tenant, weight);
+  }
+
+  /**
+   * Queues a command for execution.
+   *
+   * <p><br>Delegates to {@link #execute(StringReader, RequestContext)}.</p>
+   *
+   * @param input the input
+   * @param requestContext the request context
+   * @return a future that completes once the command ran
+   * @see #execute(StringReader, RequestContext)
+   */
+  public CompletableFuture<Void> execute(String input, R requestContext) {
+    return execute(new StringReader(input), requestContext);
+  }
+
+  /**
+   * Queues a command for execution.
+   *
+   * @param input the input
+   * @param requestContext the request context
+   * @return a future that completes once the command ran. It completes exceptionally with
+   *     whatever {@link CommandExecutor#execute(StringReader, RequestContext)} threw, with a
+   *     {@link CommandRejectedException} if the queue of the tenant is full or with a {@link
+   *     RejectedExecutionException} if the workers rejected running it
+   */
+  public CompletableFuture<Void> execute(StringReader input, R requestContext) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    Object tenantKey = tenantExtractor.apply(requestContext);
+
+    Task task = new Task(
+        () -> {
+          try {
+            delegate.execute(input, requestContext);
+            result.complete(null);
+          } catch (Throwable e) {
+            result.completeExceptionally(e);
+          }
+        },
+        result
+    );
+
+    boolean startWorker;
+    synchronized (this) {
+      Tenant tenant = tenants.computeIfAbsent(tenantKey, Tenant::new);
+
+      if (tenant.queue.size() >= maxQueuedPerTenant) {
+        result.completeExceptionally(new CommandRejectedException(
+            "Too many queued commands for " + tenantKey
+        ));
+        return result;
+      }
+
+      tenant.queue.add(task);
+      if (tenant.queue.size() == 1) {
+        activeTenants.add(tenant);
+      }
+
+      startWorker = runningWorkers < concurrency;
+      if (startWorker) {
+        runningWorkers++;
+      }
+    }
+
+    if (startWorker) {
+      try {
+        workers.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        withdraw(tenantKey, task, e);
+        result.completeExceptionally(e);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Gives back the worker slot of a worker that could not be started and removes the task, unless
+   * a running worker already took it. Tasks queued while the slot was reserved did not start a
+   * worker themselves, so if no worker is left they are failed as well.
+   */
+  private synchronized void withdraw(Object tenantKey, Task task,
+      RejectedExecutionException cause) {
+    runningWorkers--;
+
+    Tenant tenant = tenants.get(tenantKey);
+    if (tenant != null && tenant.queue.remove(task) && tenant.queue.isEmpty()) {
+      activeTenants.remove(tenant);
+      tenants.remove(tenantKey);
+    }
+
+    if (runningWorkers == 0) {
+      rejectQueued(cause);
+    }
+  }
+
+  private void rejectQueued(RejectedExecutionException cause) {
+    Tenant tenant;
+    while ((tenant = activeTenants.poll()) != null) {
+      Task queued;
+      while ((queued = tenant.queue.poll()) != null) {
+        queued.result.completeExceptionally(cause);
+      }
+      tenants.remove(tenant.key);
+    }
+  }
+
+  /**
+   * Returns the number of commands a tenant has waiting.
+   *
+   * @param tenant the tenant key
+   * @return the number of waiting commands
+   */
+  public synchronized int getQueuedCount(Object tenant) {
+    Tenant found = tenants.get(tenant);
+    return found == null ? 0 : found.queue.size();
+  }
+
+  private void drain() {
+    Task task;
+    while ((task = poll()) != null) {
+      task.body.run();
+    }
+  }
+
+  private synchronized Task poll() {
+    Tenant tenant = activeTenants.peek();
+    if (tenant == null) {
+      runningWorkers--;
+      return null;
+    }
+
+    if (tenant.credits == 0) {
+      tenant.credits = weights.getOrDefault(tenant.key, defaultWeight);
+    }
+    Task task = tenant.queue.poll();
+    tenant.credits--;
+
+    if (tenant.queue.isEmpty()) {
+      activeTenants.poll();
+      tenants.remove(tenant.key);
+    } else if (tenant.credits == 0) {
+      activeTenants.add(activeTenants.poll());
+    }
+
+    return task;
+  }
+
+  /**
+   * The queue and round robin state of a single tenant.
+   */
+  private static class Tenant {
+
+    private final Object key;
+    private final Queue<Task> queue;
+    private int credits;
+
+    Tenant(Object key) {
+      this.key = key;
+      this.queue = new ArrayDeque<>();
+    }
+  }
+
+  /**
+   * A queued command along with the future it completes.
+   */
+  private static final class Task {
+
+    private final Runnable body;
+    private final CompletableFuture<Void> result;
+
+    Task(Runnable body, CompletableFuture<Void> result) {
+      this.body = body;
+      this.result = result;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Executes commands on a fixed number of ordered lanes.
+ *
+ * <p><br>Every request is hashed onto a lane using a key taken from its {@link RequestContext}
+ * (e.g. the channel or the user). Commands on the same lane run one after another in the order
+ * they were submitted, while different lanes run in parallel on the given worker {@link
+ * Executor}.</p>
+ * <p><br>Each lane is a lock-free mailbox that occupies at most one worker at a time, so no locks
+ * are taken while dispatching.</p>
+ *
+ * @param <C> the context type
+ * @param <R> the request context type
+ */
+public class OrderedLaneExecutor<C extends GlobalContext, R extends RequestContext> {
+
+  private final CommandExecutor<C, R> delegate;
+  private final Function<R, ?> keyExtractor;
+  private final Lane[] lanes;
+
+  /**
+   * Creates a new ordered lane executor.
+   *
+   * @param delegate the executor that actually finds and executes the commands
+   * @param keyExtractor extracts the ordering key from a request. Requests with equal keys are
+   *     executed in order
+   * @param laneCount the number of lanes. Limits the amount of commands running in parallel
+   * @param workers the executor the lanes are drained on
+   */
+  public OrderedLaneExecutor(CommandExecutor<C, R> delegate, Function<R, ?> keyExtractor,
+      int laneCount, Executor workers) {
+    if (laneCount <= 0) {
+      throw new IllegalArgumentException("The lane count must be positive, was " + laneCount);
+    }
+    this.delegate = delegate;
+    this.keyExtractor = keyExtractor;
+    this.lanes = new Lane[laneCount];
+
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new Lane(workers);
+    }
+  }
+
+  /**
+   * Queues a command for execution on the lane of its request.
+   *
+   * <p><br>Delegates to {@link #execute(StringReader, RequestContext)}.</p>
+   *
+   * @param input the input
+   * @param requestContext the request context
+   * @return a future that completes once the command ran. It completes exceptionally with
+   *     whatever {@link CommandExecutor#execute(StringReader, RequestContext)} threw
+   * @see #execute(StringReader, RequestContext)
+   */
+  public CompletableFuture<Void> execute(String input, R requestContext) {
+    return execute(new StringReader(input), requestContext);
+  }
+
+  /**
+   * Queues a command for execution on the lane of its request.
+   *
+   * @param input the input
+   * @param requestContext the request context
+   * @return a future that completes once the command ran. It completes exceptionally with
+   *     whatever {@link CommandExecutor#execute(StringReader, RequestContext)} threw
+   * @throws RejectedExecutionException if the workers reject draining the lane. All commands
+   *     queued on the lane until then are failed with the same exception
+   */
+  public CompletableFuture<Void> execute(StringReader input, R requestContext) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+
+    laneFor(keyExtractor.apply(requestContext)).submit(new Task(
+        () -> {
+          try {
+            delegate.execute(input, requestContext);
+            result.complete(null);
+          } catch (Throwable e) {
+            result.completeExceptionally(e);
+          }
+        },
+        result
+    ));
+
+    return result;
+  }
+
+  /**
+   * Returns the number of lanes.
+   *
+   * @return the number of lanes
+   */
+  public int getLaneCount() {
+    return lanes.length;
+  }
+
+  /**
+   * Returns the number of commands waiting on or running in the lane the key maps to.
+   *
+   * @param key the ordering key
+   * @return the depth of the lane the key is mapped to
+   */
+  public int getLaneDepth(Object key) {
+    return laneFor(key).depth.get();
+  }
+
+  /**
+   * Returns the number of commands waiting on or running in each lane.
+   *
+   * @return the depth of each lane, indexed by lane
+   */
+  public int[] getLaneDepths() {
+    int[] depths = new int[lanes.length];
+    for (int i = 0; i < lanes.length; i++) {
+      depths[i] = lanes[i].depth.get();
+    }
+    return depths;
+  }
+
+  private Lane laneFor(Object key) {
+    int hash = Objects.hashCode(key);
+    // spread the higher bits, as keys like snowflake IDs often differ only there
+    hash ^= hash >>> 16;
+    return lanes[Math.floorMod(hash, lanes.length)];
+  }
+
+  /**
+   * A single lane. The depth counts every task that was added and has not finished yet, so the
+   * submitter that raises it from zero is the one responsible for scheduling the drain.
+   */
+  private static final class Lane implements Runnable {
+
+    private final Queue<Task> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Executor workers;
+
+    Lane(Executor workers) {
+      this.workers = workers;
+    }
+
+    void submit(Task task) {
+      mailbox.add(task);
+      if (depth.getAndIncrement() == 0) {
+        try {
+          workers.execute(this);
+        } catch (RejectedExecutionException e) {
+          rejectQueued(e);
+          throw e;
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      do {
+        mailbox.poll().body.run();
+      } while (depth.decrementAndGet() != 0);
+    }
+
+    /**
+     * Fails queued tasks in place of the drain that could not be scheduled, until the depth is
+     * back at zero and the next submitter schedules a drain again.
+     */
+    private void rejectQueued(RejectedExecutionException cause) {
+      do {
+        mailbox.poll().result.completeExceptionally(cause);
+      } while (depth.decrementAndGet() != 0);
+    }
+  }
+
+  /**
+   * A queued command and the future it completes.
+   */
+  private static final class Task {
+
+    private final Runnable body;
+    private final CompletableFuture<Void> result;
+
+    Task(Runnable body, CompletableFuture<Void> result) {
+      this.body = body;
+      this.result = result;
+    }
+  }
+}
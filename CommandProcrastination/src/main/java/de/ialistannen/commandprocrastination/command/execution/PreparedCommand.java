@@ -0,0 +1,102 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import de.ialistannen.commandprocrastination.command.tree.CommandChain;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.arguments.ParsedArguments;
+import de.ialistannen.commandprocrastination.util.StringReader;
+
+/**
+ * A command whose input was already resolved to a command node, so it can be executed many times
+ * without searching it again.
+ *
+ * <p><br>If the node declares its {@link
+ * de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey#ARGUMENTS arguments},
+ * they are parsed once as well.</p>
+ *
+ * <p><br>Obtain instances using {@link CommandExecutor#prepare(String)} and run them with {@link
+ * CommandExecutor#execute(PreparedCommand, RequestContext)}.</p>
+ *
+ * @param <C> the type of the context
+ */
+public class PreparedCommand<C extends GlobalContext> {
+
+  private final CommandChain<C> chain;
+  private final String input;
+  private final int argumentStart;
+  private final ParsedArguments parsedArguments;
+  private final int parsedArgumentsEnd;
+
+  /**
+   * Creates a new prepared command.
+   *
+   * @param chain the resolved command chain
+   * @param input the whole input
+   * @param argumentStart the position in the input the arguments start at
+   * @param parsedArguments the declared arguments or null if the node declares none
+   * @param parsedArgumentsEnd the position in the input after the declared arguments
+   */
+  PreparedCommand(CommandChain<C> chain, String input, int argumentStart,
+      ParsedArguments parsedArguments, int parsedArgumentsEnd) {
+    this.chain = chain;
+    this.input = input;
+    this.argumentStart = argumentStart;
+    this.parsedArguments = parsedArguments;
+    this.parsedArgumentsEnd = parsedArgumentsEnd;
+  }
+
+  /**
+   * Returns the resolved command chain.
+   *
+   * @return the command chain
+   */
+  public CommandChain<C> getChain() {
+    return chain;
+  }
+
+  /**
+   * Returns the final node, i.e. the node that will be executed.
+   *
+   * @return the final node
+   */
+  public CommandNode<C> getFinalNode() {
+    return chain.getFinalNode();
+  }
+
+  /**
+   * Returns the input this command was prepared from.
+   *
+   * @return the input
+   */
+  public String getInput() {
+    return input;
+  }
+
+  /**
+   * Returns the argument part of the input.
+   *
+   * @return the arguments
+   */
+  public String getArguments() {
+    return input.substring(argumentStart);
+  }
+
+  /**
+   * Returns the already parsed declared arguments.
+   *
+   * @return the declared arguments or null if the node declares none
+   */
+  public ParsedArguments getParsedArguments() {
+    return parsedArguments;
+  }
+
+  /**
+   * Creates a new reader positioned after the already parsed arguments.
+   *
+   * @return a fresh reader for a single execution
+   */
+  StringReader createArgumentReader() {
+    return new StringReader(input, parsedArgumentsEnd);
+  }
+}
@@ -0,0 +1,25 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import lombok.Data;
+
+/**
+ * Identifies the result of an idempotent command: Requests with equal keys produce equal
+ * results.
+ */
+@Data
+public class ResultKey {
+
+  /**
+   * The final node of the request.
+   */
+  private final CommandNode<?> node;
+  /**
+   * The normalized argument text.
+   */
+  private final String arguments;
+  /**
+   * The requester scope or null, if the result is the same for every requester.
+   */
+  private final Object scope;
+}
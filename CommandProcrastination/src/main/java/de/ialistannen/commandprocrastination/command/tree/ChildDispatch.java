@@ -0,0 +1,134 @@
+package de.ialistannen.commandprocrastination.command.tree;
+
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
+import de.ialistannen.commandprocrastination.parsing.defaults.RegexParser;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.regex.MultiRegexMatcher;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matches the head parsers of the children of a node.
+ *
+ * <p><br>Children whose head is a {@link RegexParser} with a {@link RegexMatcher#isLinear()
+ * linear} matcher are matched together by a single {@link MultiRegexMatcher}, which reads the
+ * input once no matter how many of them there are. All other children use their head parser as
+ * usual, unless its {@link AtomicParser#getFirstChars() first chars} show that it can not match
+ * the next character. Input that matches no command is therefore usually rejected without
+ * running a single parser.</p>
+ *
+ * @param <C> the type of the context
+ */
+class ChildDispatch<C extends GlobalContext> {
+
+  private final List<CommandNode<C>> children;
+  private final int[] patternIndices;
+  private final MultiRegexMatcher matcher;
+
+  /**
+   * Creates a dispatch for the given children.
+   *
+   * @param children the children, in declaration order. Must not be modified afterwards
+   */
+  ChildDispatch(List<CommandNode<C>> children) {
+    this.children = children;
+    this.patternIndices = new int[children.size()];
+
+    List<RegexMatcher> patterns = new ArrayList<>();
+    for (int i = 0; i < children.size(); i++) {
+      RegexMatcher pattern = getLinearPattern(children.get(i));
+      if (pattern == null) {
+        patternIndices[i] = -1;
+      } else {
+        patternIndices[i] = patterns.size();
+        patterns.add(pattern);
+      }
+    }
+
+    // A single pattern gains nothing from combining
+    if (patterns.size() < 2) {
+      Arrays.fill(patternIndices, -1);
+      this.matcher = null;
+    } else {
+      this.matcher = MultiRegexMatcher.of(patterns);
+    }
+  }
+
+  private static RegexMatcher getLinearPattern(CommandNode<?> child) {
+    AtomicParser<?> head = child.getHeadParser().getUnderlying();
+    if (!(head instanceof RegexParser)) {
+      return null;
+    }
+    RegexMatcher matcher = ((RegexParser) head).getMatcher();
+    return matcher.isLinear() ? matcher : null;
+  }
+
+  /**
+   * Returns the children this dispatch was built for.
+   *
+   * @return the list passed to the constructor
+   */
+  List<CommandNode<C>> getChildren() {
+    return children;
+  }
+
+  /**
+   * Matches the children at the current position of the reader.
+   *
+   * @param reader the reader
+   * @return a matching session for the current position
+   */
+  Session startMatching(StringReader reader) {
+    return new Session(reader);
+  }
+
+  /**
+   * Matches the children at one position, running the combined automaton at most once.
+   */
+  class Session {
+
+    private final StringReader reader;
+    private final int start;
+    private int[] patternEnds;
+
+    private Session(StringReader reader) {
+      this.reader = reader;
+      this.start = reader.getPosition();
+    }
+
+    /**
+     * Tries to match the head of a child. The reader is positioned after the head if it matched.
+     *
+     * @param index the index of the child
+     * @return true if the head matched
+     */
+    boolean matches(int index) {
+      int patternIndex = patternIndices[index];
+      if (patternIndex < 0) {
+        // Not cached, as heads like option parsers may still get new alternatives
+        if (!canStartHere(children.get(index).getHeadParser().getFirstChars())) {
+          return false;
+        }
+        return children.get(index).getHeadParser().parse(reader);
+      }
+
+      if (patternEnds == null) {
+        patternEnds = matcher.matchAll(reader.getText(), start);
+      }
+      int end = patternEnds[patternIndex];
+      if (end < 0) {
+        return false;
+      }
+      reader.reset(end);
+      return true;
+    }
+
+    private boolean canStartHere(FirstChars chars) {
+      return chars.isAny() || reader.canRead() && chars.contains(reader.peek());
+    }
+  }
+}
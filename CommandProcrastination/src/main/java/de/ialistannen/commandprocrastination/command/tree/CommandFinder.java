@@ -6,6 +6,7 @@ import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
 import de.ialistannen.commandprocrastination.context.GlobalContext;
 import de.ialistannen.commandprocrastination.parsing.SuccessParser;
 import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.List;
 import lombok.Data;
 
 /**
@@ -59,10 +60,34 @@ public class CommandFinder<C extends GlobalContext> {
    * @return the deepest found command node. Will never be root, but may be descendant of it
    */
   public FindResult<C> find(CommandNode<C> root, StringReader reader) {
-    for (CommandNode<C> child : root.getChildren()) {
+    return find(root, reader, null);
+  }
+
+  /**
+   * Finds the deepest matching command node that is visible in the view, starting at its root.
+   * Commands hidden by the view are treated as if they did not exist.
+   *
+   * @param view the view to search in
+   * @param reader the string reader to use. Will be positioned after the last matching child
+   * @return the deepest found command node. Will never be root, but may be descendant of it
+   * @see PermissionViews
+   */
+  public FindResult<C> find(CommandTreeView<C> view, StringReader reader) {
+    return find(view.getRoot(), reader, view);
+  }
+
+  private FindResult<C> find(CommandNode<C> root, StringReader reader, CommandTreeView<C> view) {
+    ChildDispatch<C> dispatch = view == null
+        ? root.getChildDispatch()
+        : view.getChildDispatch(root);
+    ChildDispatch<C>.Session matching = dispatch.startMatching(reader);
+    List<CommandNode<C>> children = dispatch.getChildren();
+
+    for (int i = 0; i < children.size(); i++) {
+      CommandNode<C> child = children.get(i);
       // the success parser resets the position if parsing fails, so we don't need to
       // save it again
-      boolean childMatches = child.getHeadParser().parse(reader);
+      boolean childMatches = matching.matches(i);
 
       if (!childMatches) {
         continue;
@@ -79,7 +104,7 @@ public class CommandFinder<C extends GlobalContext> {
         return new FindResult<>(chain, true);
       }
 
-      FindResult<C> childResult = find(child, reader);
+      FindResult<C> childResult = find(child, reader, view);
       if (childResult.isSuccess()) {
         chain.append(childResult.getChain());
         return new FindResult<>(chain, true);
@@ -95,6 +120,15 @@ public class CommandFinder<C extends GlobalContext> {
     return new FindResult<C>(new CommandChain<>(root), false);
   }
 
+  /**
+   * Returns the root node commands are searched from.
+   *
+   * @return the root node
+   */
+  public CommandNode<C> getRoot() {
+    return root;
+  }
+
   /**
    * The result of searching for a command.
    *
@@ -3,31 +3,52 @@ package de.ialistannen.commandprocrastination.command.tree;
 import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
 
 import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.CommandInterceptor;
 import de.ialistannen.commandprocrastination.command.tree.data.CommandDataKey;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
 import de.ialistannen.commandprocrastination.context.GlobalContext;
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
 import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentSchema;
+import de.ialistannen.commandprocrastination.parsing.defaults.RegexParser;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
+import de.ialistannen.commandprocrastination.util.regex.RegexSafety;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.stream.Collectors;
 
 /**
  * A command node.
  *
+ * <p><br>Nodes may be modified while other threads search the tree. Children, data and
+ * interceptors are copied on write and published atomically, so readers never lock and always see
+ * a consistent snapshot of a single node. Writers to the same node are serialized.</p>
+ *
  * @param <C> the type of the context
  */
 public class CommandNode<C extends GlobalContext> {
 
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<CommandNode> VERSION = AtomicLongFieldUpdater
+      .newUpdater(CommandNode.class, "version");
+
   private Command<C> command;
   private SuccessParser headParser;
-  private Map<CommandDataKey, Object> userData;
+  private volatile Map<CommandDataKey, Object> userData;
 
-  private List<CommandNode<C>> children;
-  private CommandNode<C> parent;
+  private volatile List<CommandNode<C>> children;
+  private volatile CommandNode<C> parent;
+  private volatile ChildDispatch<C> childDispatch;
+  private volatile List<CommandInterceptor<C>> interceptors;
+  private volatile InterceptorChain<C> interceptorChain;
+  private volatile long version;
 
   /**
    * Creates a new command node.
@@ -38,8 +59,9 @@ public class CommandNode<C extends GlobalContext> {
   public CommandNode(Command<C> command, SuccessParser headParser) {
     this.command = command;
     this.headParser = headParser;
-    this.userData = new HashMap<>();
-    this.children = new ArrayList<>();
+    this.userData = Map.of();
+    this.children = List.of();
+    this.interceptors = List.of();
   }
 
   /**
@@ -131,8 +153,11 @@ public class CommandNode<C extends GlobalContext> {
    * @param <T> the type of the data
    * @return this node
    */
-  public <T> CommandNode<C> setData(CommandDataKey key, T data) {
-    userData.put(key, data);
+  public synchronized <T> CommandNode<C> setData(CommandDataKey key, T data) {
+    Map<CommandDataKey, Object> updated = new HashMap<>(userData);
+    updated.put(key, data);
+    userData = Collections.unmodifiableMap(updated);
+    markModified();
     return this;
   }
 
@@ -173,11 +198,57 @@ public class CommandNode<C extends GlobalContext> {
   /**
    * Adds a child.
    *
+   * <p><br>The children are replaced by an updated copy, so threads currently searching this node
+   * keep seeing the old children and never need a lock.</p>
+   *
+   * <p><br>Children whose head parser is a {@link RegexParser} running on a backtracking engine
+   * are rejected if their pattern has nested quantifiers, as a single hostile message could keep
+   * the matcher busy for a very long time.</p>
+   *
    * @param child the child to add
+   * @throws IllegalArgumentException if the head of the child uses a catastrophic pattern
+   * @see RegexSafety#findCatastrophicConstruct(String)
    */
-  public void addChild(CommandNode<C> child) {
-    children.add(child);
+  public synchronized void addChild(CommandNode<C> child) {
+    validateHeadPattern(child);
+    List<CommandNode<C>> updated = new ArrayList<>(children);
+    updated.add(child);
     child.setParent(this);
+    children = List.copyOf(updated);
+    markModified();
+  }
+
+  /**
+   * Returns the dispatch matching the heads of all children. It is built on first use for the
+   * current children and rebuilt once they were replaced.
+   *
+   * @return the dispatch for the current children
+   */
+  ChildDispatch<C> getChildDispatch() {
+    List<CommandNode<C>> current = children;
+    ChildDispatch<C> dispatch = childDispatch;
+    // a dispatch built for a replaced list is stale, even if it was published after the change
+    if (dispatch == null || dispatch.getChildren() != current) {
+      dispatch = new ChildDispatch<>(current);
+      childDispatch = dispatch;
+    }
+    return dispatch;
+  }
+
+  private static void validateHeadPattern(CommandNode<?> child) {
+    if (!(child.headParser.getUnderlying() instanceof RegexParser)) {
+      return;
+    }
+    RegexMatcher matcher = ((RegexParser) child.headParser.getUnderlying()).getMatcher();
+    if (matcher.isLinear()) {
+      return;
+    }
+
+    RegexSafety.findCatastrophicConstruct(matcher.getPattern()).ifPresent(problem -> {
+      throw new IllegalArgumentException(
+          "Head pattern of " + child + " can backtrack catastrophically: " + problem
+      );
+    });
   }
 
   /**
@@ -185,9 +256,150 @@ public class CommandNode<C extends GlobalContext> {
    *
    * @param child the child to remove
    */
-  public void removeChild(CommandNode<C> child) {
-    children.remove(child);
-    child.setParent(null);
+  public synchronized void removeChild(CommandNode<C> child) {
+    List<CommandNode<C>> updated = new ArrayList<>(children);
+    if (!updated.remove(child)) {
+      return;
+    }
+    children = List.copyOf(updated);
+    if (child.parent == this) {
+      child.setParent(null);
+    }
+    markModified();
+  }
+
+  /**
+   * Removes some children and adds others in a single step, so concurrent searches either see
+   * all of the old or all of the new children. Use it to swap a group of commands.
+   *
+   * @param removed the children to remove
+   * @param added the children to add, after the remaining ones
+   * @throws IllegalArgumentException if the head of an added child uses a catastrophic pattern
+   * @see #addChild(CommandNode)
+   */
+  public synchronized void replaceChildren(Collection<? extends CommandNode<C>> removed,
+      Collection<? extends CommandNode<C>> added) {
+    for (CommandNode<C> child : added) {
+      validateHeadPattern(child);
+    }
+    List<CommandNode<C>> updated = new ArrayList<>(children);
+    updated.removeAll(removed);
+    updated.addAll(added);
+
+    for (CommandNode<C> child : added) {
+      child.setParent(this);
+    }
+    children = List.copyOf(updated);
+    for (CommandNode<C> child : removed) {
+      if (child.parent == this && !added.contains(child)) {
+        child.setParent(null);
+      }
+    }
+    markModified();
+  }
+
+  /**
+   * Returns a counter that changes whenever this node or one of its descendants is modified, i.e.
+   * children are added or removed or data is set. Derived structures like {@link
+   * PermissionViews} use it to notice that they are stale.
+   *
+   * @return the version of the subtree rooted at this node
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  private void markModified() {
+    for (CommandNode<C> node = this; node != null; node = node.parent) {
+      VERSION.incrementAndGet(node);
+    }
+  }
+
+  /**
+   * Adds an interceptor for this node and all its descendants.
+   *
+   * @param interceptor the interceptor
+   * @see CommandInterceptor
+   */
+  public synchronized void addInterceptor(CommandInterceptor<C> interceptor) {
+    List<CommandInterceptor<C>> updated = new ArrayList<>(interceptors);
+    updated.add(interceptor);
+    interceptors = List.copyOf(updated);
+  }
+
+  /**
+   * Removes an interceptor from this node.
+   *
+   * @param interceptor the interceptor
+   */
+  public synchronized void removeInterceptor(CommandInterceptor<C> interceptor) {
+    List<CommandInterceptor<C>> updated = new ArrayList<>(interceptors);
+    if (updated.remove(interceptor)) {
+      interceptors = List.copyOf(updated);
+    }
+  }
+
+  /**
+   * Returns the interceptors of the path from the root to this node, outermost first. The array
+   * is built on first use and rebuilt only after the interceptors of this node or one of its
+   * ancestors, or its position in the tree, changed.
+   *
+   * @return the interceptors. Must not be modified
+   */
+  public CommandInterceptor<C>[] getInterceptorChain() {
+    CommandNode<C> currentParent = parent;
+    CommandInterceptor<C>[] inherited = currentParent == null
+        ? null
+        : currentParent.getInterceptorChain();
+    List<CommandInterceptor<C>> own = interceptors;
+
+    InterceptorChain<C> chain = interceptorChain;
+    if (chain == null || chain.inherited != inherited || chain.own != own) {
+      chain = new InterceptorChain<>(inherited, own, buildInterceptorChain(inherited, own));
+      interceptorChain = chain;
+    }
+    return chain.interceptors;
+  }
+
+  private static <C extends GlobalContext> CommandInterceptor<C>[] buildInterceptorChain(
+      CommandInterceptor<C>[] inherited, List<CommandInterceptor<C>> interceptors) {
+    if (inherited == null) {
+      inherited = newInterceptorArray(0);
+    }
+    if (interceptors.isEmpty()) {
+      return inherited;
+    }
+
+    CommandInterceptor<C>[] chain = Arrays.copyOf(
+        inherited, inherited.length + interceptors.size()
+    );
+    for (int i = 0; i < interceptors.size(); i++) {
+      chain[inherited.length + i] = interceptors.get(i);
+    }
+    return chain;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <C extends GlobalContext> CommandInterceptor<C>[] newInterceptorArray(int size) {
+    return (CommandInterceptor<C>[]) new CommandInterceptor<?>[size];
+  }
+
+  /**
+   * An interceptor chain together with the inputs it was built from, so it can be checked for
+   * staleness without locking.
+   */
+  private static class InterceptorChain<C extends GlobalContext> {
+
+    private final CommandInterceptor<C>[] inherited;
+    private final List<CommandInterceptor<C>> own;
+    private final CommandInterceptor<C>[] interceptors;
+
+    InterceptorChain(CommandInterceptor<C>[] inherited, List<CommandInterceptor<C>> own,
+        CommandInterceptor<C>[] interceptors) {
+      this.inherited = inherited;
+      this.own = own;
+      this.interceptors = interceptors;
+    }
   }
 
   public FluentSubCommand<C> addSubCommand() {
@@ -203,10 +415,10 @@ public class CommandNode<C extends GlobalContext> {
   /**
    * Returns all children.
    *
-   * @return the children
+   * @return an immutable snapshot of the children, unaffected by later changes
    */
   public List<CommandNode<C>> getChildren() {
-    return Collections.unmodifiableList(children);
+    return children;
   }
 
   /**
@@ -235,6 +447,11 @@ public class CommandNode<C extends GlobalContext> {
   public String getUsage() {
     StringBuilder usage = new StringBuilder(headParser.getName().orElse(""));
 
+    this.<ArgumentSchema>getOptionalData(DefaultDataKey.ARGUMENTS)
+        .filter(it -> !it.getSignature().isEmpty())
+        .ifPresent(it -> usage.append(" ").append(it.getSignature()));
+
+    List<CommandNode<C>> children = this.children;
     if (!children.isEmpty()) {
       String childUsages = children.stream()
           .map(CommandNode::getUsage)
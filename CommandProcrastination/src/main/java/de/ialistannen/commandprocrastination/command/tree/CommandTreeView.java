@@ -0,0 +1,119 @@
+package de.ialistannen.commandprocrastination.command.tree;
+
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentSchema;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable view of a command tree that only contains some of its nodes.
+ *
+ * <p><br>The view shares the nodes of the tree, it only decides which children of a node are
+ * visible. It is a snapshot: Changes to the tree after the view was created are not reflected.
+ * Pass it to {@link CommandFinder#find(CommandTreeView, StringReader)} to only find visible
+ * commands.</p>
+ *
+ * @param <C> the type of the context
+ * @see PermissionViews
+ */
+public final class CommandTreeView<C extends GlobalContext> {
+
+  private final CommandNode<C> root;
+  private final Map<CommandNode<C>, ChildDispatch<C>> dispatches;
+  private final ChildDispatch<C> noChildren;
+
+  /**
+   * Creates a view containing all nodes reachable through visible nodes.
+   *
+   * @param root the root of the tree. Always visible
+   * @param visible decides whether a node and its subtree are visible
+   */
+  CommandTreeView(CommandNode<C> root, Predicate<CommandNode<C>> visible) {
+    this.root = root;
+    this.dispatches = new IdentityHashMap<>();
+    this.noChildren = new ChildDispatch<>(List.of());
+    collect(root, visible);
+  }
+
+  private void collect(CommandNode<C> node, Predicate<CommandNode<C>> visible) {
+    List<CommandNode<C>> children = node.getChildren().stream()
+        .filter(visible)
+        .collect(Collectors.toUnmodifiableList());
+    dispatches.put(node, new ChildDispatch<>(children));
+
+    for (CommandNode<C> child : children) {
+      collect(child, visible);
+    }
+  }
+
+  /**
+   * Returns the root of the viewed tree.
+   *
+   * @return the root node
+   */
+  public CommandNode<C> getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns whether a node is part of this view.
+   *
+   * @param node the node
+   * @return true if the node is visible
+   */
+  public boolean isVisible(CommandNode<C> node) {
+    return dispatches.containsKey(node);
+  }
+
+  /**
+   * Returns the visible children of a node.
+   *
+   * @param node the node
+   * @return the visible children or an empty list if the node itself is not visible
+   */
+  public List<CommandNode<C>> getChildren(CommandNode<C> node) {
+    return getChildDispatch(node).getChildren();
+  }
+
+  /**
+   * Returns the usage of all visible commands, in the format of {@link CommandNode#getUsage()}.
+   *
+   * @return the usage of the visible tree
+   */
+  public String getUsage() {
+    return getUsage(root);
+  }
+
+  private String getUsage(CommandNode<C> node) {
+    StringBuilder usage = new StringBuilder(node.getHeadParser().getName().orElse(""));
+
+    node.<ArgumentSchema>getOptionalData(DefaultDataKey.ARGUMENTS)
+        .filter(it -> !it.getSignature().isEmpty())
+        .ifPresent(it -> usage.append(" ").append(it.getSignature()));
+
+    List<CommandNode<C>> children = getChildren(node);
+    if (!children.isEmpty()) {
+      String childUsages = children.stream()
+          .map(this::getUsage)
+          .collect(Collectors.joining("|", "[", "]"));
+      usage.append(" ").append(childUsages);
+    }
+
+    return usage.toString();
+  }
+
+  /**
+   * Returns the dispatch over the visible children of a node.
+   *
+   * @param node the node
+   * @return the dispatch. Matches nothing if the node is not visible
+   */
+  ChildDispatch<C> getChildDispatch(CommandNode<C> node) {
+    return dispatches.getOrDefault(node, noChildren);
+  }
+}
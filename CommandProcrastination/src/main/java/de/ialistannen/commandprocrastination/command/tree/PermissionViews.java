@@ -0,0 +1,143 @@
+package de.ialistannen.commandprocrastination.command.tree;
+
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Memoized {@link CommandTreeView views} of a command tree that only contain the commands a
+ * requester has the {@link DefaultDataKey#PERMISSION permission} for.
+ *
+ * <p><br>A node requiring a permission the requester lacks is pruned along with its subtree. The
+ * permissions used in the tree are numbered and a requester is reduced to the bitset of the ones
+ * it holds, so all requesters with the same relevant permissions share one precomputed view.
+ * Views are rebuilt lazily once the tree is modified. A node whose permission was not numbered yet,
+ * because it was added while a view was built, is treated as forbidden until the view is built
+ * again for the new tree.</p>
+ *
+ * @param <C> the type of the context
+ */
+public final class PermissionViews<C extends GlobalContext> {
+
+  private final CommandNode<C> root;
+  private volatile Snapshot<C> snapshot;
+
+  /**
+   * Creates new permission views for the tree rooted at the given node.
+   *
+   * @param root the root node. Its own permission is ignored
+   */
+  public PermissionViews(CommandNode<C> root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns the view for a requester holding the given permissions.
+   *
+   * @param permissions the permissions of the requester
+   * @return the view containing all commands the requester may use
+   */
+  public CommandTreeView<C> forPermissions(Set<String> permissions) {
+    return forPermissions(permissions::contains);
+  }
+
+  /**
+   * Returns the view for a requester.
+   *
+   * @param hasPermission checks whether the requester holds a permission. Only called for
+   *     permissions used in the tree
+   * @return the view containing all commands the requester may use
+   */
+  public CommandTreeView<C> forPermissions(Predicate<String> hasPermission) {
+    while (true) {
+      Snapshot<C> current = getSnapshot();
+
+      BitSet granted = new BitSet(current.permissions.size());
+      for (int i = 0; i < current.permissions.size(); i++) {
+        if (hasPermission.test(current.permissions.get(i))) {
+          granted.set(i);
+        }
+      }
+
+      CommandTreeView<C> view = current.views.computeIfAbsent(
+          granted, bits -> new CommandTreeView<>(root, node -> current.isGranted(bits, node))
+      );
+
+      // The tree changed while the view was built, so it might hide nodes it should show
+      if (root.getVersion() == current.version) {
+        return view;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of distinct views built for the current tree.
+   *
+   * @return the number of views
+   */
+  public int getViewCount() {
+    return getSnapshot().views.size();
+  }
+
+  private Snapshot<C> getSnapshot() {
+    Snapshot<C> current = snapshot;
+    long version = root.getVersion();
+    if (current == null || current.version != version) {
+      List<String> permissions = new ArrayList<>();
+      collectPermissions(root, new HashSet<>(), permissions);
+      current = new Snapshot<>(version, permissions);
+      snapshot = current;
+    }
+    return current;
+  }
+
+  private static void collectPermissions(CommandNode<?> node, Set<String> seen,
+      List<String> permissions) {
+    for (CommandNode<?> child : node.getChildren()) {
+      String permission = child.getData(DefaultDataKey.PERMISSION);
+      if (permission != null && seen.add(permission)) {
+        permissions.add(permission);
+      }
+      collectPermissions(child, seen, permissions);
+    }
+  }
+
+  /**
+   * The numbered permissions and built views for one version of the tree.
+   */
+  private static class Snapshot<C extends GlobalContext> {
+
+    private final long version;
+    private final List<String> permissions;
+    private final Map<String, Integer> bitOf;
+    private final Map<BitSet, CommandTreeView<C>> views;
+
+    Snapshot(long version, List<String> permissions) {
+      this.version = version;
+      this.permissions = List.copyOf(permissions);
+      this.bitOf = new HashMap<>();
+      this.views = new ConcurrentHashMap<>();
+
+      for (int i = 0; i < permissions.size(); i++) {
+        bitOf.put(permissions.get(i), i);
+      }
+    }
+
+    private boolean isGranted(BitSet granted, CommandNode<C> node) {
+      String permission = node.getData(DefaultDataKey.PERMISSION);
+      if (permission == null) {
+        return true;
+      }
+      Integer bit = bitOf.get(permission);
+      return bit != null && granted.get(bit);
+    }
+  }
+}
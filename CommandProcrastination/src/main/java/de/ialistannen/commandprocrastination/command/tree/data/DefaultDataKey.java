@@ -28,5 +28,20 @@ public enum DefaultDataKey implements CommandDataKey {
    * Indicates that no argument separator is needed behind this command. Parsing continues and does
    * not automatically stop, just because no separator was found.
    */
-  NO_ARGUMENT_SEPARATOR;
+  NO_ARGUMENT_SEPARATOR,
+  /**
+   * Indicates that the command always produces the same result for the same arguments and has no
+   * side effects apart from delivering it. A Boolean.
+   */
+  IDEMPOTENT,
+  /**
+   * How long the result of an {@link #IDEMPOTENT} command may be cached. A {@link
+   * java.time.Duration}.
+   */
+  RESULT_CACHE_TTL,
+  /**
+   * The declared arguments of the command. An {@link
+   * de.ialistannen.commandprocrastination.parsing.arguments.ArgumentSchema}.
+   */
+  ARGUMENTS;
 }
@@ -2,8 +2,12 @@ package de.ialistannen.commandprocrastination.context;
 
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentStore;
+import de.ialistannen.commandprocrastination.parsing.async.AsyncAtomicParser;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The context for command parsing.
@@ -38,6 +42,22 @@ public class GlobalContext {
     return getRequestContext().shift(parser);
   }
 
+  /**
+   * Uses the given parser to extract an argument and records it under the key, so it can be read
+   * again using {@link #getArgument(ArgumentKey)}. Also reads all trailing whitespace, after the
+   * parser is done.
+   *
+   * @param key the key to record the argument under
+   * @param parser the parser to use
+   * @param <T> the type of the resulting argument
+   * @return the parsed argument
+   * @throws ParseException if an error occurred
+   * @see RequestContext#shift(ArgumentKey, AtomicParser)
+   */
+  public <T> T shift(ArgumentKey<T> key, AtomicParser<T> parser) throws ParseException {
+    return getRequestContext().shift(key, parser);
+  }
+
   /**
    * Uses the given parser to extract an argument. Also reads all trailing whitespace, after the
    * parser is done.
@@ -51,6 +71,20 @@ public class GlobalContext {
     return getRequestContext().shiftOptionally(parser);
   }
 
+  /**
+   * Uses the given parser to read an argument that is resolved asynchronously. Also reads all
+   * trailing whitespace, after the input was read.
+   *
+   * @param parser the parser to use
+   * @param <T> the type of the resulting argument
+   * @return a future completing with the resolved argument
+   * @throws ParseException if the input is malformed
+   * @see RequestContext#shiftAsync(AsyncAtomicParser)
+   */
+  public <T> CompletableFuture<T> shiftAsync(AsyncAtomicParser<T> parser) throws ParseException {
+    return getRequestContext().shiftAsync(parser);
+  }
+
   /**
    * Uses the given parsers to extract an argument. All parsers are tried one after the other, in
    * order. Also reads all trailing whitespace, after the parser is done.
@@ -63,4 +97,28 @@ public class GlobalContext {
   public <T> T shiftAny(List<AtomicParser<T>> parser) throws ParseException {
     return getRequestContext().shiftAny(parser);
   }
+
+  /**
+   * Returns an argument that was already parsed. This is either a declared argument, which was
+   * parsed before the command was invoked, or one shifted with a key.
+   *
+   * @param key the key of the argument
+   * @param <T> the type of the argument
+   * @return the value of the argument. Null if it is an optional argument that was not given
+   * @throws IllegalStateException if the command does not declare any arguments and the argument
+   *     was not shifted
+   * @throws java.util.NoSuchElementException if the argument is not declared
+   * @see de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey#ARGUMENTS
+   * @see #shift(ArgumentKey, AtomicParser)
+   */
+  public <T> T getArgument(ArgumentKey<T> key) {
+    ArgumentStore store = getRequestContext().getArgumentStore();
+    if (store.contains(key)) {
+      return store.get(key);
+    }
+    if (getRequestContext().getArguments() == null) {
+      throw new IllegalStateException("The command does not declare any arguments");
+    }
+    return getRequestContext().getArguments().get(key);
+  }
 }
@@ -3,9 +3,14 @@ package de.ialistannen.commandprocrastination.context;
 import de.ialistannen.commandprocrastination.command.tree.CommandNode;
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentStore;
+import de.ialistannen.commandprocrastination.parsing.arguments.ParsedArguments;
+import de.ialistannen.commandprocrastination.parsing.async.AsyncAtomicParser;
 import de.ialistannen.commandprocrastination.util.StringReader;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Some context that is only valid for a single request. E.g. metadata or specific objects like
@@ -15,6 +20,8 @@ public class RequestContext {
 
   private StringReader reader;
   private CommandNode<?> finalNode;
+  private ParsedArguments arguments;
+  private ArgumentStore argumentStore;
 
   public RequestContext() {
   }
@@ -48,6 +55,36 @@ public class RequestContext {
     this.finalNode = finalNode;
   }
 
+  /**
+   * Sets the arguments parsed using the schema of the final node.
+   *
+   * @param arguments the parsed arguments
+   */
+  public void setArguments(ParsedArguments arguments) {
+    this.arguments = arguments;
+    if (argumentStore != null) {
+      argumentStore.clear();
+    }
+    if (arguments != null) {
+      getArgumentStore().putAll(arguments);
+    }
+  }
+
+  /**
+   * Clears all per request state, so this context can be reused for the next request instead of
+   * allocating a new one.
+   *
+   * <p><br>Subclasses with state of their own should override this method and call it.</p>
+   */
+  public void clear() {
+    this.reader = null;
+    this.finalNode = null;
+    this.arguments = null;
+    if (argumentStore != null) {
+      argumentStore.clear();
+    }
+  }
+
   /**
    * Uses the given parser to extract an argument. Also reads all trailing whitespace, after the
    * parser is done.
@@ -58,15 +95,47 @@ public class RequestContext {
    * @throws ParseException if an error occurred
    */
   public <T> T shift(AtomicParser<T> parser) throws ParseException {
-    T parsed = parser.parse(reader);
-    reader.readWhile(Character::isWhitespace);
+    T parsed = parseTraced(null, parser);
+    reader.skipWhitespace();
     return parsed;
   }
 
+  /**
+   * Uses the given parser to extract an argument and records it in the {@link
+   * #getArgumentStore() argument store}, so it can be read again later. Also reads all trailing
+   * whitespace, after the parser is done.
+   *
+   * @param key the key to record the argument under
+   * @param parser the parser to use
+   * @param <T> the type of the resulting argument
+   * @return the parsed argument
+   * @throws ParseException if an error occurred
+   */
+  public <T> T shift(ArgumentKey<T> key, AtomicParser<T> parser) throws ParseException {
+    int start = reader.getPosition();
+    T parsed = parseTraced(key, parser);
+    getArgumentStore().put(key, parsed, start, reader.getPosition());
+    reader.skipWhitespace();
+    return parsed;
+  }
+
+  private <T> T parseTraced(ArgumentKey<T> key, AtomicParser<T> parser) throws ParseException {
+    int start = reader.getPosition();
+    try {
+      return parser.parse(reader);
+    } catch (ParseException e) {
+      getArgumentStore().recordFailure(key, start, reader.getPosition());
+      throw e;
+    }
+  }
+
   /**
    * Uses the given parser to extract an argument. Also reads all trailing whitespace, after the
    * parser is done.
    *
+   * <p><br>A missing argument is not recorded as a failure in the {@link #getArgumentStore()
+   * argument store}, as the request did not fail.</p>
+   *
    * @param parser the parser to use
    * @param <T> the type of the resulting argument
    * @return the parsed argument or an empty optional if an error occurred
@@ -74,12 +143,32 @@ public class RequestContext {
    */
   public <T> Optional<T> shiftOptionally(AtomicParser<T> parser) {
     try {
-      return Optional.ofNullable(shift(parser));
+      T parsed = parser.parse(reader);
+      reader.skipWhitespace();
+      return Optional.ofNullable(parsed);
     } catch (ParseException e) {
       return Optional.empty();
     }
   }
 
+  /**
+   * Uses the given parser to read an argument that is resolved asynchronously. Also reads all
+   * trailing whitespace, after the input was read.
+   *
+   * <p><br>Shift all such arguments before waiting for any of them, so their lookups can be
+   * batched.</p>
+   *
+   * @param parser the parser to use
+   * @param <T> the type of the resulting argument
+   * @return a future completing with the resolved argument
+   * @throws ParseException if the input is malformed
+   */
+  public <T> CompletableFuture<T> shiftAsync(AsyncAtomicParser<T> parser) throws ParseException {
+    CompletableFuture<T> parsed = parser.parseAsync(reader);
+    reader.skipWhitespace();
+    return parsed;
+  }
+
   /**
    * Uses the given parsers to extract an argument. All parsers are tried one after the other, in
    * order. Also reads all trailing whitespace, after the parser is done.
@@ -100,7 +189,7 @@ public class RequestContext {
         T result = atomicParser.parse(reader);
 
         // read trailing whitespace
-        reader.readWhile(Character::isWhitespace);
+        reader.skipWhitespace();
 
         return result;
       } catch (ParseException e) {
@@ -120,6 +209,29 @@ public class RequestContext {
     return reader;
   }
 
+  /**
+   * Returns the store of all arguments parsed for this request so far: those declared in the
+   * schema of the final node and those shifted with a key. It also records where the last parse
+   * failed.
+   *
+   * @return the argument store
+   */
+  public ArgumentStore getArgumentStore() {
+    if (argumentStore == null) {
+      argumentStore = new ArgumentStore();
+    }
+    return argumentStore;
+  }
+
+  /**
+   * Returns the arguments parsed using the schema of the final node.
+   *
+   * @return the parsed arguments or null if the final node declares none
+   */
+  public ParsedArguments getArguments() {
+    return arguments;
+  }
+
   /**
    * Returns the final node.
    *
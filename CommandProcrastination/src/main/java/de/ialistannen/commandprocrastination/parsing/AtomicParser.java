@@ -1,6 +1,7 @@
 package de.ialistannen.commandprocrastination.parsing;
 
 import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.cache.CachePolicy;
 import java.util.Optional;
 
 /**
@@ -27,7 +28,20 @@ public interface AtomicParser<T> {
   }
 
   /**
-   * Creates a named parser.
+   * Returns the characters this parser can start with. If the next character is not part of it,
+   * the parser must fail.
+   *
+   * @return the characters this parser can start with. {@link FirstChars#any()} if unknown
+   */
+  default FirstChars getFirstChars() {
+    return FirstChars.any();
+  }
+
+  /**
+   * Creates a named parser. The first characters are looked up on the parser whenever they are
+   * requested, so they stay current if the parser changes, e.g. an {@link
+   * de.ialistannen.commandprocrastination.parsing.defaults.OptionParser} getting a new
+   * alternative.
    *
    * @param name the name
    * @param parser the parser
@@ -45,9 +59,58 @@ public interface AtomicParser<T> {
       public Optional<String> getName() {
         return Optional.ofNullable(name);
       }
+
+      @Override
+      public FirstChars getFirstChars() {
+        return parser.getFirstChars();
+      }
+    };
+  }
+
+  /**
+   * Creates a named parser that advertises the characters it can start with.
+   *
+   * @param name the name
+   * @param firstChars the characters the parser can start with
+   * @param parser the parser
+   * @param <T> the type of the parser
+   * @return a named parser
+   * @see #getFirstChars()
+   */
+  static <T> AtomicParser<T> named(String name, FirstChars firstChars, AtomicParser<T> parser) {
+    return new AtomicParser<T>() {
+      @Override
+      public T parse(StringReader input) throws ParseException {
+        return parser.parse(input);
+      }
+
+      @Override
+      public Optional<String> getName() {
+        return Optional.ofNullable(name);
+      }
+
+      @Override
+      public FirstChars getFirstChars() {
+        return firstChars;
+      }
     };
   }
 
+  /**
+   * Creates a parser that reads a key and resolves it to an entity, caching resolved entities.
+   *
+   * @param keyParser the parser reading the key, e.g. the id in a mention
+   * @param loader resolves a key to its entity or null if there is none
+   * @param policy the cache policy
+   * @param <K> the type of the keys
+   * @param <T> the type of the entities
+   * @return the caching parser, which also allows invalidating entries
+   */
+  static <K, T> CachedParser<K, T> cached(AtomicParser<K> keyParser,
+      CachedParser.Loader<K, T> loader, CachePolicy policy) {
+    return new CachedParser<>(keyParser, loader, policy);
+  }
+
   /**
    * Returns a parser that never succeeds and always throws an exception.
    *
@@ -0,0 +1,188 @@
+package de.ialistannen.commandprocrastination.parsing;
+
+import de.ialistannen.commandprocrastination.util.SingleFlight;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.cache.BoundedCache;
+import de.ialistannen.commandprocrastination.util.cache.CachePolicy;
+import de.ialistannen.commandprocrastination.util.cache.CacheStats;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A parser that reads a key and resolves it to an entity, caching the resolved entities.
+ *
+ * <p><br>Concurrent misses for the same key share a single load. If the policy refreshes ahead,
+ * a hit on an entry older than the refresh age returns the cached entity and reloads it in the
+ * background.</p>
+ *
+ * <p><br>Loads that were started before an invalidation return their entity to the waiting
+ * requests, but do not add it to the cache.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <T> the type of the entities
+ * @see AtomicParser#cached(AtomicParser, Loader, CachePolicy)
+ */
+public class CachedParser<K, T> implements AtomicParser<T> {
+
+  private final AtomicParser<K> keyParser;
+  private final Loader<K, T> loader;
+  private final CachePolicy policy;
+  private final BoundedCache<K, Loaded<T>> cache;
+  private final SingleFlight<K, T> loads;
+  private final Set<K> refreshing;
+  private final AtomicLong generation;
+
+  /**
+   * Creates a new cached parser.
+   *
+   * @param keyParser the parser reading the key
+   * @param loader resolves a key to its entity
+   * @param policy the cache policy
+   */
+  public CachedParser(AtomicParser<K> keyParser, Loader<K, T> loader, CachePolicy policy) {
+    this.keyParser = keyParser;
+    this.loader = loader;
+    this.policy = policy;
+    this.cache = new BoundedCache<>(policy.getMaximumSize(), policy.getTicker());
+    this.loads = new SingleFlight<>();
+    this.refreshing = ConcurrentHashMap.newKeySet();
+    this.generation = new AtomicLong();
+  }
+
+  @Override
+  public T parse(StringReader input) throws ParseException {
+    StringReader start = input.copy();
+    K key = keyParser.parse(input);
+
+    Loaded<T> cached = cache.getIfPresent(key);
+    if (cached != null) {
+      refreshIfStale(key, cached);
+      return cached.value;
+    }
+
+    T value = loads.run(key, () -> load(key));
+    if (value == null) {
+      throw new ParseException(
+          start, "Unknown " + getName().orElse("value") + " '" + key + "'"
+      );
+    }
+    return value;
+  }
+
+  private T load(K key) throws ParseException {
+    long startGeneration = generation.get();
+    T value = loader.load(key);
+    if (value == null || startGeneration != generation.get()) {
+      return value;
+    }
+    cache.put(key, new Loaded<>(value, policy.getTicker().getAsLong()), policy.getTimeToLive());
+
+    // An invalidation between the check and the put must still win
+    if (startGeneration != generation.get()) {
+      cache.invalidate(key);
+    }
+    return value;
+  }
+
+  private void refreshIfStale(K key, Loaded<T> cached) {
+    if (policy.getRefreshAfter() == null) {
+      return;
+    }
+    long age = policy.getTicker().getAsLong() - cached.loadedAt;
+    if (age < policy.getRefreshAfter().toNanos() || !refreshing.add(key)) {
+      return;
+    }
+
+    try {
+      policy.getRefreshExecutor().execute(() -> {
+        try {
+          if (load(key) == null) {
+            cache.invalidate(key);
+          }
+        } catch (ParseException | RuntimeException ignored) {
+          // Keep serving the old value until it expires
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Keep serving the old value and try again on the next hit
+      refreshing.remove(key);
+    }
+  }
+
+  /**
+   * Removes an entity from the cache, e.g. because it changed.
+   *
+   * @param key the key of the entity
+   */
+  public void invalidate(K key) {
+    generation.incrementAndGet();
+    cache.invalidate(key);
+  }
+
+  /**
+   * Removes all entities from the cache.
+   */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /**
+   * Returns the statistics of the cache.
+   *
+   * @return the statistics of the cache
+   */
+  public CacheStats getStats() {
+    return cache.getStats();
+  }
+
+  @Override
+  public Optional<String> getName() {
+    return keyParser.getName();
+  }
+
+  @Override
+  public FirstChars getFirstChars() {
+    return keyParser.getFirstChars();
+  }
+
+  /**
+   * Resolves a key to its entity.
+   *
+   * @param <K> the type of the keys
+   * @param <T> the type of the entities
+   */
+  @FunctionalInterface
+  public interface Loader<K, T> {
+
+    /**
+     * Loads the entity for a key.
+     *
+     * @param key the key
+     * @return the entity or null if there is none
+     * @throws ParseException if the entity could not be loaded
+     */
+    T load(K key) throws ParseException;
+  }
+
+  /**
+   * A cached entity with its load time.
+   *
+   * @param <T> the type of the entity
+   */
+  private static class Loaded<T> {
+
+    private final T value;
+    private final long loadedAt;
+
+    Loaded(T value, long loadedAt) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
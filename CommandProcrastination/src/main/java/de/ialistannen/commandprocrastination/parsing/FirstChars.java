@@ -0,0 +1,155 @@
+package de.ialistannen.commandprocrastination.parsing;
+
+import java.util.Arrays;
+
+/**
+ * The set of characters a parser can start with.
+ *
+ * <p><br>A parser advertising a set other than {@link #any()} promises to fail if the next
+ * character is not part of it or if there is no input left. Combinators like {@link
+ * de.ialistannen.commandprocrastination.parsing.defaults.OptionParser} use this to skip
+ * alternatives that can not match.</p>
+ */
+public final class FirstChars {
+
+  private static final FirstChars ANY = new FirstChars(null, "");
+
+  private final boolean[] ascii;
+  private final String others;
+
+  private FirstChars(boolean[] ascii, String others) {
+    this.ascii = ascii;
+    this.others = others;
+  }
+
+  /**
+   * Returns a set that matches every character, i.e. the parser makes no promises.
+   *
+   * @return a set matching every character
+   */
+  public static FirstChars any() {
+    return ANY;
+  }
+
+  /**
+   * Returns a set containing exactly the given characters.
+   *
+   * @param chars the characters
+   * @return a set containing the characters
+   */
+  public static FirstChars of(String chars) {
+    boolean[] ascii = new boolean[128];
+    StringBuilder others = new StringBuilder();
+
+    for (int i = 0; i < chars.length(); i++) {
+      char c = chars.charAt(i);
+      if (c < 128) {
+        ascii[c] = true;
+      } else if (others.indexOf(String.valueOf(c)) < 0) {
+        others.append(c);
+      }
+    }
+
+    return new FirstChars(ascii, others.toString());
+  }
+
+  /**
+   * Returns whether this set matches every character.
+   *
+   * @return true if this set matches every character
+   */
+  public boolean isAny() {
+    return ascii == null;
+  }
+
+  /**
+   * Returns whether a parser with this set can start with the given character.
+   *
+   * @param c the character
+   * @return true if the character is part of this set
+   */
+  public boolean contains(char c) {
+    if (ascii == null) {
+      return true;
+    }
+    if (c < 128) {
+      return ascii[c];
+    }
+    return others.indexOf(c) >= 0;
+  }
+
+  /**
+   * Returns a set containing the characters of this and the other set.
+   *
+   * @param other the other set
+   * @return the union of both sets
+   */
+  public FirstChars union(FirstChars other) {
+    if (isAny() || other.isAny()) {
+      return ANY;
+    }
+    boolean[] unionAscii = Arrays.copyOf(ascii, ascii.length);
+    for (int i = 0; i < unionAscii.length; i++) {
+      unionAscii[i] |= other.ascii[i];
+    }
+
+    StringBuilder unionOthers = new StringBuilder(others);
+    for (int i = 0; i < other.others.length(); i++) {
+      char c = other.others.charAt(i);
+      if (others.indexOf(c) < 0) {
+        unionOthers.append(c);
+      }
+    }
+
+    return new FirstChars(unionAscii, unionOthers.toString());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FirstChars that = (FirstChars) o;
+    if (isAny() || that.isAny()) {
+      return false;
+    }
+    if (!Arrays.equals(ascii, that.ascii) || others.length() != that.others.length()) {
+      return false;
+    }
+    for (int i = 0; i < others.length(); i++) {
+      if (that.others.indexOf(others.charAt(i)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    if (isAny()) {
+      return 0;
+    }
+    int hash = Arrays.hashCode(ascii);
+    for (int i = 0; i < others.length(); i++) {
+      hash += others.charAt(i);
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    if (isAny()) {
+      return "FirstChars{any}";
+    }
+    StringBuilder chars = new StringBuilder();
+    for (int i = 0; i < ascii.length; i++) {
+      if (ascii[i]) {
+        chars.append((char) i);
+      }
+    }
+    return "FirstChars{" + chars + others + '}';
+  }
+}
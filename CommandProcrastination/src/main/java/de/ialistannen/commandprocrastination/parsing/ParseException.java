@@ -40,7 +40,7 @@ public class ParseException extends Exception {
   private static String getContext(StringReader input, String detail) {
     int start = input.getPosition();
     start = Math.max(start - CONTEXT_LENGTH, 0);
-    String contextString = input.getUnderlying().substring(start, input.getPosition());
+    String contextString = input.substring(start, input.getPosition());
 
     if (!detail.isBlank()) {
       return detail + " at " + contextString + "<---[HERE]";
@@ -34,6 +34,20 @@ public class SuccessParser implements AtomicParser<Boolean> {
     return underlying.getName();
   }
 
+  @Override
+  public FirstChars getFirstChars() {
+    return underlying.getFirstChars();
+  }
+
+  /**
+   * Returns the wrapped parser.
+   *
+   * @return the wrapped parser
+   */
+  public AtomicParser<?> getUnderlying() {
+    return underlying;
+  }
+
   /**
    * Creates a head parser that returns true if the given parser completes without error.
    *
@@ -0,0 +1,43 @@
+package de.ialistannen.commandprocrastination.parsing.arguments;
+
+/**
+ * A typed key identifying a declared argument.
+ *
+ * <p><br>Keys are compared by identity, so declare them once, e.g. as constants of the command
+ * using them.</p>
+ *
+ * @param <T> the type of the argument value
+ */
+public final class ArgumentKey<T> {
+
+  private final String name;
+
+  private ArgumentKey(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Creates a new argument key.
+   *
+   * @param name the name of the argument. Used for usages and error messages
+   * @param <T> the type of the argument value
+   * @return the created key
+   */
+  public static <T> ArgumentKey<T> named(String name) {
+    return new ArgumentKey<>(name);
+  }
+
+  /**
+   * Returns the name of the argument.
+   *
+   * @return the name of the argument
+   */
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return "ArgumentKey{" + name + '}';
+  }
+}
@@ -0,0 +1,295 @@
+package de.ialistannen.commandprocrastination.parsing.arguments;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.Data;
+
+/**
+ * The ordered, typed arguments of a command.
+ *
+ * <p><br>A schema is itself a parser: It parses all declared arguments in a single pass, skipping
+ * whitespace in between, and returns them as {@link ParsedArguments}. Input after the last
+ * declared argument is left in the reader.</p>
+ * <p><br>Use {@link #builder()} to create one and store it on a node using {@link
+ * de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey#ARGUMENTS}.</p>
+ */
+public final class ArgumentSchema implements AtomicParser<ParsedArguments> {
+
+  private final Argument<?>[] arguments;
+  private final ArgumentKey<?>[] keys;
+  private final String signature;
+
+  private ArgumentSchema(List<Argument<?>> arguments) {
+    this.arguments = arguments.toArray(new Argument<?>[0]);
+    this.keys = new ArgumentKey<?>[this.arguments.length];
+    for (int i = 0; i < this.arguments.length; i++) {
+      keys[i] = this.arguments[i].getKey();
+    }
+    this.signature = arguments.stream()
+        .map(Argument::toSignature)
+        .collect(Collectors.joining(" "));
+  }
+
+  @Override
+  public ParsedArguments parse(StringReader input) throws ParseException {
+    return parse(input, null);
+  }
+
+  /**
+   * Parses all declared arguments, recording the argument that could not be parsed.
+   *
+   * @param input the input
+   * @param failures the store to record the failed argument and its span in or null
+   * @return the parsed arguments
+   * @throws ParseException if an argument could not be parsed
+   * @see ArgumentStore#recordFailure(ArgumentKey, int, int)
+   */
+  public ParsedArguments parse(StringReader input, ArgumentStore failures)
+      throws ParseException {
+    Object[] values = new Object[arguments.length];
+    int[] spans = new int[arguments.length * 2];
+
+    for (int i = 0; i < arguments.length; i++) {
+      Argument<?> argument = arguments[i];
+      int start = input.getPosition();
+
+      try {
+        values[i] = parseArgument(argument, input);
+      } catch (ParseException | RuntimeException e) {
+        if (failures != null) {
+          failures.recordFailure(argument.getKey(), start, input.getPosition());
+        }
+        throw e;
+      }
+
+      boolean missing = argument.getArity() == Arity.OPTIONAL && values[i] == null;
+      spans[i * 2] = missing ? -1 : start;
+      spans[i * 2 + 1] = missing ? -1 : input.getPosition();
+
+      input.skipWhitespace();
+    }
+
+    return new ParsedArguments(this, values, spans);
+  }
+
+  private Object parseArgument(Argument<?> argument, StringReader input) throws ParseException {
+    switch (argument.getArity()) {
+      case REQUIRED:
+        return argument.getParser().parse(input);
+      case OPTIONAL:
+        return parseOptionally(argument.getParser(), input);
+      case REPEATED:
+        return parseRepeatedly(argument.getParser(), input);
+      default:
+        throw new AssertionError("Unknown arity " + argument.getArity());
+    }
+  }
+
+  private Object parseOptionally(AtomicParser<?> parser, StringReader input) {
+    int start = input.getPosition();
+    try {
+      return parser.parse(input);
+    } catch (ParseException e) {
+      input.reset(start);
+      return null;
+    }
+  }
+
+  private List<Object> parseRepeatedly(AtomicParser<?> parser, StringReader input) {
+    List<Object> values = new ArrayList<>();
+
+    while (input.canRead()) {
+      int start = input.getPosition();
+      try {
+        values.add(parser.parse(input));
+      } catch (ParseException e) {
+        input.reset(start);
+        break;
+      }
+      // Parsers that consume nothing would loop forever
+      if (input.getPosition() == start) {
+        break;
+      }
+      input.skipWhitespace();
+    }
+
+    return Collections.unmodifiableList(values);
+  }
+
+  /**
+   * Returns the slot of the key in parsed arguments.
+   *
+   * @param key the key
+   * @return the index of the key or -1 if it is not part of this schema
+   */
+  int indexOf(ArgumentKey<?> key) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the keys of the declared arguments in order.
+   *
+   * @return the keys. Must not be modified
+   */
+  ArgumentKey<?>[] getKeys() {
+    return keys;
+  }
+
+  /**
+   * Returns the declared arguments in order.
+   *
+   * @return the declared arguments
+   */
+  public List<Argument<?>> getArguments() {
+    return List.of(arguments);
+  }
+
+  /**
+   * Returns the signature of this schema, e.g. {@code <name> [amount] [targets...]}.
+   *
+   * @return the signature
+   */
+  public String getSignature() {
+    return signature;
+  }
+
+  @Override
+  public Optional<String> getName() {
+    return Optional.of(signature);
+  }
+
+  @Override
+  public String toString() {
+    return "ArgumentSchema{" + Arrays.toString(arguments) + '}';
+  }
+
+  /**
+   * Creates a new builder for a schema.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * How often an argument may occur.
+   */
+  public enum Arity {
+    /**
+     * Exactly once.
+     */
+    REQUIRED,
+    /**
+     * At most once. The value is null if it is missing.
+     */
+    OPTIONAL,
+    /**
+     * Any number of times. The value is a (possibly empty) list.
+     */
+    REPEATED
+  }
+
+  /**
+   * A single declared argument.
+   *
+   * @param <T> the type of the parsed value
+   */
+  @Data
+  public static final class Argument<T> {
+
+    private final ArgumentKey<?> key;
+    private final AtomicParser<T> parser;
+    private final Arity arity;
+
+    private String toSignature() {
+      switch (arity) {
+        case OPTIONAL:
+          return "[" + key.getName() + "]";
+        case REPEATED:
+          return "[" + key.getName() + "...]";
+        default:
+          return "<" + key.getName() + ">";
+      }
+    }
+  }
+
+  /**
+   * A builder for {@link ArgumentSchema}s.
+   */
+  public static final class Builder {
+
+    private final List<Argument<?>> arguments;
+
+    private Builder() {
+      this.arguments = new ArrayList<>();
+    }
+
+    /**
+     * Adds an argument that must be present.
+     *
+     * @param key the key
+     * @param parser the parser
+     * @param <T> the type of the argument
+     * @return this builder
+     */
+    public <T> Builder required(ArgumentKey<T> key, AtomicParser<T> parser) {
+      return add(new Argument<>(key, parser, Arity.REQUIRED));
+    }
+
+    /**
+     * Adds an argument that may be missing.
+     *
+     * @param key the key
+     * @param parser the parser
+     * @param <T> the type of the argument
+     * @return this builder
+     */
+    public <T> Builder optional(ArgumentKey<T> key, AtomicParser<T> parser) {
+      return add(new Argument<>(key, parser, Arity.OPTIONAL));
+    }
+
+    /**
+     * Adds an argument that is parsed as often as possible.
+     *
+     * @param key the key
+     * @param parser the parser for a single element
+     * @param <T> the type of a single element
+     * @return this builder
+     */
+    public <T> Builder repeated(ArgumentKey<List<T>> key, AtomicParser<T> parser) {
+      return add(new Argument<>(key, parser, Arity.REPEATED));
+    }
+
+    private Builder add(Argument<?> argument) {
+      for (Argument<?> existing : arguments) {
+        if (existing.getKey() == argument.getKey()) {
+          throw new IllegalArgumentException("Duplicated argument " + argument.getKey());
+        }
+      }
+      arguments.add(argument);
+      return this;
+    }
+
+    /**
+     * Builds the schema.
+     *
+     * @return the built schema
+     */
+    public ArgumentSchema build() {
+      return new ArgumentSchema(arguments);
+    }
+  }
+}
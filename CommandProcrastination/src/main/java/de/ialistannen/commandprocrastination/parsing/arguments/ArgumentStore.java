@@ -0,0 +1,241 @@
+package de.ialistannen.commandprocrastination.parsing.arguments;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * The arguments parsed during a single request, along with where they were found in the input.
+ *
+ * <p><br>Values are kept in a slot array. Arguments declared in an {@link ArgumentSchema} occupy
+ * the first slots in declaration order, arguments shifted with a key by the command itself are
+ * appended. Keys are compared by identity, so finding a slot scans a handful of references and
+ * reading an argument again never parses it a second time.</p>
+ * <p><br>The store also remembers the last parse that failed, so error handlers can point at the
+ * offending input.</p>
+ */
+public final class ArgumentStore {
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private ArgumentKey<?>[] keys;
+  private Object[] values;
+  private int[] spans;
+  private int size;
+
+  private ArgumentKey<?> failedKey;
+  private int failureStart;
+  private int failureEnd;
+
+  /**
+   * Creates a new, empty argument store.
+   */
+  public ArgumentStore() {
+    this.keys = new ArgumentKey<?>[INITIAL_CAPACITY];
+    this.values = new Object[INITIAL_CAPACITY];
+    this.spans = new int[INITIAL_CAPACITY * 2];
+    this.failureStart = -1;
+    this.failureEnd = -1;
+  }
+
+  /**
+   * Records a parsed argument, replacing any previous value for the key.
+   *
+   * @param key the key of the argument
+   * @param value the value
+   * @param start the start of the argument in the input
+   * @param end the end of the argument in the input, exclusive
+   * @param <T> the type of the argument
+   */
+  public <T> void put(ArgumentKey<T> key, T value, int start, int end) {
+    int slot = claimSlot(key);
+    values[slot] = value;
+    spans[slot * 2] = start;
+    spans[slot * 2 + 1] = end;
+  }
+
+  /**
+   * Records all arguments parsed by a schema.
+   *
+   * @param arguments the parsed arguments
+   */
+  public void putAll(ParsedArguments arguments) {
+    ArgumentKey<?>[] parsedKeys = arguments.getSchema().getKeys();
+    Object[] parsedValues = arguments.getValues();
+    int[] parsedSpans = arguments.getSpans();
+
+    for (int i = 0; i < parsedKeys.length; i++) {
+      int slot = claimSlot(parsedKeys[i]);
+      values[slot] = parsedValues[i];
+      spans[slot * 2] = parsedSpans[i * 2];
+      spans[slot * 2 + 1] = parsedSpans[i * 2 + 1];
+    }
+  }
+
+  /**
+   * Returns whether an argument was recorded.
+   *
+   * @param key the key of the argument
+   * @return true if the argument was recorded, even if its value is null
+   */
+  public boolean contains(ArgumentKey<?> key) {
+    return slotOf(key) >= 0;
+  }
+
+  /**
+   * Returns the value of an argument.
+   *
+   * @param key the key of the argument
+   * @param <T> the type of the argument
+   * @return the value. Null if it is an optional argument that was not given
+   * @throws NoSuchElementException if the argument was not recorded
+   */
+  public <T> T get(ArgumentKey<T> key) {
+    @SuppressWarnings("unchecked")
+    T t = (T) values[requireSlot(key)];
+    return t;
+  }
+
+  /**
+   * Returns the value of an argument.
+   *
+   * @param key the key of the argument
+   * @param <T> the type of the argument
+   * @return the value or an empty optional if it was not recorded or not given
+   */
+  public <T> Optional<T> getOptional(ArgumentKey<T> key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return Optional.empty();
+    }
+    @SuppressWarnings("unchecked")
+    T t = (T) values[slot];
+    return Optional.ofNullable(t);
+  }
+
+  /**
+   * Returns where an argument starts in the input.
+   *
+   * @param key the key of the argument
+   * @return the start of the argument or -1 if it is an optional argument that was not given
+   * @throws NoSuchElementException if the argument was not recorded
+   */
+  public int getStart(ArgumentKey<?> key) {
+    return spans[requireSlot(key) * 2];
+  }
+
+  /**
+   * Returns where an argument ends in the input.
+   *
+   * @param key the key of the argument
+   * @return the end of the argument (exclusive) or -1 if it is an optional argument that was not
+   *     given
+   * @throws NoSuchElementException if the argument was not recorded
+   */
+  public int getEnd(ArgumentKey<?> key) {
+    return spans[requireSlot(key) * 2 + 1];
+  }
+
+  /**
+   * Returns the keys of all recorded arguments, in the order they were first recorded.
+   *
+   * @return the keys
+   */
+  public List<ArgumentKey<?>> getKeys() {
+    return List.of(Arrays.copyOf(keys, size));
+  }
+
+  /**
+   * Records a failed parse.
+   *
+   * @param key the key of the argument or null if it was parsed without one
+   * @param start where the parser started
+   * @param end where the parser gave up
+   */
+  public void recordFailure(ArgumentKey<?> key, int start, int end) {
+    this.failedKey = key;
+    this.failureStart = start;
+    this.failureEnd = end;
+  }
+
+  /**
+   * Returns whether a parse failed since the store was last cleared.
+   *
+   * @return true if a parse failed
+   */
+  public boolean hasFailure() {
+    return failureStart >= 0;
+  }
+
+  /**
+   * Returns the key of the argument whose parse failed last.
+   *
+   * @return the key or an empty optional if there was no failure or it was parsed without a key
+   */
+  public Optional<ArgumentKey<?>> getFailedKey() {
+    return Optional.ofNullable(failedKey);
+  }
+
+  /**
+   * Returns where the last failed parse started.
+   *
+   * @return the start or -1 if no parse failed
+   */
+  public int getFailureStart() {
+    return failureStart;
+  }
+
+  /**
+   * Returns where the last failed parse gave up.
+   *
+   * @return the position or -1 if no parse failed
+   */
+  public int getFailureEnd() {
+    return failureEnd;
+  }
+
+  /**
+   * Removes all arguments and failures. The slots are kept, so a reused store does not allocate
+   * again.
+   */
+  public void clear() {
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+    failedKey = null;
+    failureStart = -1;
+    failureEnd = -1;
+  }
+
+  private int requireSlot(ArgumentKey<?> key) {
+    int slot = slotOf(key);
+    if (slot < 0) {
+      throw new NoSuchElementException("Argument " + key.getName() + " was not parsed");
+    }
+    return slot;
+  }
+
+  private int slotOf(ArgumentKey<?> key) {
+    for (int i = 0; i < size; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int claimSlot(ArgumentKey<?> key) {
+    int slot = slotOf(key);
+    if (slot >= 0) {
+      return slot;
+    }
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+      spans = Arrays.copyOf(spans, size * 4);
+    }
+    keys[size] = key;
+    return size++;
+  }
+}
@@ -0,0 +1,104 @@
+package de.ialistannen.commandprocrastination.parsing.arguments;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * The arguments parsed by an {@link ArgumentSchema}.
+ */
+public final class ParsedArguments {
+
+  private final ArgumentSchema schema;
+  private final Object[] values;
+  private final int[] spans;
+
+  ParsedArguments(ArgumentSchema schema, Object[] values, int[] spans) {
+    this.schema = schema;
+    this.values = values;
+    this.spans = spans;
+  }
+
+  /**
+   * Returns the value of an argument.
+   *
+   * @param key the key of the argument
+   * @param <T> the type of the argument
+   * @return the value. Null if it is an optional argument that was not given
+   * @throws NoSuchElementException if the argument is not declared in the schema
+   */
+  public <T> T get(ArgumentKey<T> key) {
+    @SuppressWarnings("unchecked")
+    T t = (T) values[slotOf(key)];
+    return t;
+  }
+
+  /**
+   * Returns where an argument starts in the input.
+   *
+   * @param key the key of the argument
+   * @return the start of the argument or -1 if it is an optional argument that was not given
+   * @throws NoSuchElementException if the argument is not declared in the schema
+   */
+  public int getStart(ArgumentKey<?> key) {
+    return spans[slotOf(key) * 2];
+  }
+
+  /**
+   * Returns where an argument ends in the input.
+   *
+   * @param key the key of the argument
+   * @return the end of the argument (exclusive) or -1 if it is an optional argument that was not
+   *     given
+   * @throws NoSuchElementException if the argument is not declared in the schema
+   */
+  public int getEnd(ArgumentKey<?> key) {
+    return spans[slotOf(key) * 2 + 1];
+  }
+
+  private int slotOf(ArgumentKey<?> key) {
+    int index = schema.indexOf(key);
+    if (index < 0) {
+      throw new NoSuchElementException("Argument " + key.getName() + " is not declared");
+    }
+    return index;
+  }
+
+  /**
+   * Returns the values in declaration order.
+   *
+   * @return the values. Must not be modified
+   */
+  Object[] getValues() {
+    return values;
+  }
+
+  /**
+   * Returns the start and end of every value, in declaration order.
+   *
+   * @return the spans. Must not be modified
+   */
+  int[] getSpans() {
+    return spans;
+  }
+
+  /**
+   * Returns the value of an argument.
+   *
+   * @param key the key of the argument
+   * @param <T> the type of the argument
+   * @return the value or an empty optional if it was not given
+   * @throws NoSuchElementException if the argument is not declared in the schema
+   */
+  public <T> Optional<T> getOptional(ArgumentKey<T> key) {
+    return Optional.ofNullable(get(key));
+  }
+
+  /**
+   * Returns the schema these arguments were parsed with.
+   *
+   * @return the schema
+   */
+  public ArgumentSchema getSchema() {
+    return schema;
+  }
+}
@@ -0,0 +1,75 @@
+package de.ialistannen.commandprocrastination.parsing.async;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Parses a single structure whose value is resolved asynchronously, e.g. a user mention that is
+ * looked up using a remote API.
+ *
+ * <p><br>The input itself is read synchronously, so the reader is positioned after the structure
+ * once {@link #parseAsync(StringReader)} returns. Only the resolution completes later, which
+ * allows a command to request many entities before waiting for any of them.</p>
+ */
+public interface AsyncAtomicParser<T> {
+
+  /**
+   * Reads a single structure and starts resolving it.
+   *
+   * @param input the input
+   * @return a future completing with the resolved value. It completes exceptionally with a
+   *     {@link ParseException} if the value could not be resolved
+   * @throws ParseException if the input is malformed
+   */
+  CompletableFuture<T> parseAsync(StringReader input) throws ParseException;
+
+  /**
+   * Returns the name of the parser.
+   *
+   * @return the name of the parser or empty if none
+   */
+  default Optional<String> getName() {
+    return Optional.empty();
+  }
+
+  /**
+   * Creates a parser that reads a key and resolves it to an entity, e.g. using a {@link
+   * DataLoader}.
+   *
+   * @param keyParser the parser for the key
+   * @param resolver resolves the key, completing with null if no entity exists
+   * @param <K> the type of the key
+   * @param <V> the type of the entity
+   * @return a parser resolving the entities
+   */
+  static <K, V> AsyncAtomicParser<V> resolving(AtomicParser<K> keyParser,
+      Function<? super K, CompletableFuture<V>> resolver) {
+    return new AsyncAtomicParser<V>() {
+      @Override
+      public CompletableFuture<V> parseAsync(StringReader input) throws ParseException {
+        StringReader start = input.copy();
+        K key = keyParser.parse(input);
+
+        return resolver.apply(key).thenApply(value -> {
+          if (value == null) {
+            String name = getName().orElse("value");
+            throw new CompletionException(
+                new ParseException(start, "Unknown " + name + " '" + key + "'")
+            );
+          }
+          return value;
+        });
+      }
+
+      @Override
+      public Optional<String> getName() {
+        return keyParser.getName();
+      }
+    };
+  }
+}
@@ -0,0 +1,23 @@
+package de.ialistannen.commandprocrastination.parsing.async;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetches many entities at once, e.g. using a bulk endpoint of a remote API.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the entities
+ */
+@FunctionalInterface
+public interface BatchLoader<K, V> {
+
+  /**
+   * Loads all entities for the given keys.
+   *
+   * @param keys the keys. Contains no duplicates
+   * @return a future completing with the found entities. Keys that were not found may be missing
+   */
+  CompletableFuture<Map<K, V>> loadAll(List<K> keys);
+}
@@ -0,0 +1,157 @@
+package de.ialistannen.commandprocrastination.parsing.async;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges single entity lookups into bulk fetches.
+ *
+ * <p><br>The first key requested opens a batch, which is dispatched to the {@link BatchLoader}
+ * once the batch window has passed or it reached its maximum size, whatever happens first. Every
+ * key requested in between, from the same command or from concurrent ones, is part of it. A key
+ * requested twice in one batch is fetched only once.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the entities
+ */
+public class DataLoader<K, V> {
+
+  private final BatchLoader<K, V> batchLoader;
+  private final long batchWindowNanos;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService scheduler;
+
+  private Map<K, CompletableFuture<V>> pending;
+
+  /**
+   * Creates a new data loader.
+   *
+   * @param batchLoader the loader fetching whole batches
+   * @param batchWindow how long a batch collects keys before it is dispatched
+   * @param maxBatchSize the maximum amount of keys in a single batch
+   * @param scheduler the scheduler dispatching batches after their window has passed
+   */
+  public DataLoader(BatchLoader<K, V> batchLoader, Duration batchWindow, int maxBatchSize,
+      ScheduledExecutorService scheduler) {
+    if (batchWindow.isNegative()) {
+      throw new IllegalArgumentException("The batch window must not be negative");
+    }
+    if (maxBatchSize <= 0) {
+      throw new IllegalArgumentException(
+          "The batch size must be positive, was " + maxBatchSize
+      );
+    }
+    this.batchLoader = batchLoader;
+    this.batchWindowNanos = batchWindow.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Requests a single entity.
+   *
+   * @param key the key of the entity
+   * @return a future completing with the entity or null if it was not found. It fails with a
+   *     {@link RejectedExecutionException} if the scheduler refused to open a new batch.
+   */
+  public CompletableFuture<V> load(K key) {
+    Map<K, CompletableFuture<V>> fullBatch = null;
+    CompletableFuture<V> result;
+
+    synchronized (this) {
+      if (pending == null) {
+        Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>();
+        try {
+          scheduler.schedule(() -> dispatch(batch), batchWindowNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+          // Nothing would ever dispatch the batch, so it must not collect keys
+          return CompletableFuture.failedFuture(e);
+        }
+        pending = batch;
+      }
+
+      result = pending.computeIfAbsent(key, ignored -> new CompletableFuture<>());
+
+      if (pending.size() >= maxBatchSize) {
+        fullBatch = pending;
+        pending = null;
+      }
+    }
+
+    if (fullBatch != null) {
+      fetch(fullBatch);
+    }
+
+    return result;
+  }
+
+  /**
+   * Dispatches the current batch right away, without waiting for its window to pass.
+   */
+  public void dispatch() {
+    Map<K, CompletableFuture<V>> batch;
+    synchronized (this) {
+      batch = pending;
+      pending = null;
+    }
+    if (batch != null) {
+      fetch(batch);
+    }
+  }
+
+  private void dispatch(Map<K, CompletableFuture<V>> batch) {
+    synchronized (this) {
+      // The batch was dispatched early because it was full
+      if (pending != batch) {
+        return;
+      }
+      pending = null;
+    }
+    fetch(batch);
+  }
+
+  private void fetch(Map<K, CompletableFuture<V>> batch) {
+    CompletableFuture<Map<K, V>> fetched;
+    try {
+      fetched = batchLoader.loadAll(new ArrayList<>(batch.keySet()));
+      if (fetched == null) {
+        fetched = CompletableFuture.failedFuture(
+            new NullPointerException("The batch loader returned no future")
+        );
+      }
+    } catch (RuntimeException e) {
+      fetched = CompletableFuture.failedFuture(e);
+    }
+
+    fetched.whenComplete((entities, error) -> {
+      Throwable failure = error;
+      if (failure == null && entities == null) {
+        failure = new NullPointerException("The batch loader completed without a map");
+      }
+      try {
+        if (failure == null) {
+          for (Map.Entry<K, CompletableFuture<V>> entry : batch.entrySet()) {
+            entry.getValue().complete(entities.get(entry.getKey()));
+          }
+        }
+      } catch (RuntimeException e) {
+        failure = e;
+      } finally {
+        // No key of the batch may wait forever, whatever went wrong above
+        for (CompletableFuture<V> future : batch.values()) {
+          if (!future.isDone()) {
+            future.completeExceptionally(
+                failure != null ? failure : new IllegalStateException("Batch not completed")
+            );
+          }
+        }
+      }
+    });
+  }
+}
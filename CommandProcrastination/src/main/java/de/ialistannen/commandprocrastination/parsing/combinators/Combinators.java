@@ -0,0 +1,243 @@
+package de.ialistannen.commandprocrastination.parsing.combinators;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.defaults.OptionParser;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+/**
+ * Combinators building larger parsers out of smaller ones.
+ *
+ * <p><br>Grammars with many alternatives sharing a prefix re-parse that prefix after every
+ * backtrack, which takes exponential time in the worst case. Wrapping the shared rules in {@link
+ * #memoized(AtomicParser)} and the whole grammar in {@link #packrat(AtomicParser)} remembers the
+ * outcome of every memoized rule per input position, so each rule runs at most once per position
+ * and parsing takes linear time. Left recursive rules are not supported.</p>
+ */
+public final class Combinators {
+
+  /**
+   * A parser that applies the given parsers one after another and collects their results.
+   *
+   * @param parsers the parsers
+   * @param <T> the common type of the results
+   * @return a parser returning the results of all parsers in order
+   */
+  @SafeVarargs
+  public static <T> AtomicParser<List<T>> sequence(AtomicParser<? extends T>... parsers) {
+    List<AtomicParser<? extends T>> elements = List.of(parsers);
+    FirstChars firstChars = elements.isEmpty() ? FirstChars.any() : parsers[0].getFirstChars();
+
+    return AtomicParser.named(null, firstChars, input -> {
+      List<T> results = new ArrayList<>(elements.size());
+      for (AtomicParser<? extends T> parser : elements) {
+        results.add(parser.parse(input));
+      }
+      return results;
+    });
+  }
+
+  /**
+   * A parser that applies two parsers one after another and combines their results.
+   *
+   * @param first the first parser
+   * @param second the second parser
+   * @param combiner combines both results
+   * @param <A> the type of the first result
+   * @param <B> the type of the second result
+   * @param <R> the type of the combined result
+   * @return a parser returning the combined result
+   */
+  public static <A, B, R> AtomicParser<R> sequence(AtomicParser<A> first, AtomicParser<B> second,
+      BiFunction<? super A, ? super B, ? extends R> combiner) {
+    return AtomicParser.named(null, first.getFirstChars(), input -> {
+      A firstResult = first.parse(input);
+      B secondResult = second.parse(input);
+      return combiner.apply(firstResult, secondResult);
+    });
+  }
+
+  /**
+   * A parser trying the given parsers in order and returning the result of the first successful
+   * one.
+   *
+   * @param alternatives the alternatives
+   * @param <T> the common type of the results
+   * @return a parser returning the result of the first matching alternative
+   * @see OptionParser
+   */
+  @SafeVarargs
+  public static <T> AtomicParser<T> choice(AtomicParser<? extends T>... alternatives) {
+    OptionParser<T> parser = new OptionParser<>();
+    for (AtomicParser<? extends T> alternative : alternatives) {
+      parser.or(widen(alternative));
+    }
+    return parser;
+  }
+
+  /**
+   * A parser that returns an empty optional instead of failing.
+   *
+   * @param parser the underlying parser
+   * @param <T> the type of the result
+   * @return a parser that never fails
+   */
+  public static <T> AtomicParser<Optional<T>> optional(AtomicParser<T> parser) {
+    return input -> {
+      int start = input.getPosition();
+      try {
+        return Optional.ofNullable(parser.parse(input));
+      } catch (ParseException e) {
+        input.reset(start);
+        return Optional.empty();
+      }
+    };
+  }
+
+  /**
+   * A parser applying the given parser as often as possible.
+   *
+   * @param parser the parser for a single element
+   * @param <T> the type of a single element
+   * @return a parser returning all parsed elements. Never fails
+   */
+  public static <T> AtomicParser<List<T>> many(AtomicParser<T> parser) {
+    return input -> {
+      List<T> results = new ArrayList<>();
+
+      while (true) {
+        int start = input.getPosition();
+        try {
+          results.add(parser.parse(input));
+        } catch (ParseException e) {
+          input.reset(start);
+          return results;
+        }
+        // an element that consumes nothing would match forever
+        if (input.getPosition() == start) {
+          return results;
+        }
+      }
+    };
+  }
+
+  /**
+   * A parser reading zero or more elements separated by the given separator. A trailing separator
+   * is not consumed.
+   *
+   * @param element the parser for a single element
+   * @param separator the separator
+   * @param <T> the type of a single element
+   * @return a parser returning all parsed elements. Never fails
+   */
+  public static <T> AtomicParser<List<T>> separatedBy(AtomicParser<T> element,
+      AtomicParser<?> separator) {
+    return input -> {
+      int start = input.getPosition();
+      List<T> results = new ArrayList<>();
+
+      try {
+        results.add(element.parse(input));
+      } catch (ParseException e) {
+        input.reset(start);
+        return Collections.emptyList();
+      }
+
+      while (true) {
+        int beforeSeparator = input.getPosition();
+        try {
+          separator.parse(input);
+          results.add(element.parse(input));
+        } catch (ParseException e) {
+          input.reset(beforeSeparator);
+          return results;
+        }
+        if (input.getPosition() == beforeSeparator) {
+          return results;
+        }
+      }
+    };
+  }
+
+  /**
+   * Marks a rule whose outcome is remembered per input position while a {@link
+   * #packrat(AtomicParser)} parser runs. Outside of one it behaves like the given parser.
+   *
+   * <p><br>Use the returned instance for every reference to the rule, as outcomes are keyed by
+   * parser identity.</p>
+   *
+   * @param parser the rule
+   * @param <T> the type of the result
+   * @return the memoized rule
+   */
+  public static <T> AtomicParser<T> memoized(AtomicParser<T> parser) {
+    return new AtomicParser<>() {
+      @Override
+      public T parse(StringReader input) throws ParseException {
+        return MemoTable.parseMemoized(this, parser, input);
+      }
+
+      @Override
+      public Optional<String> getName() {
+        return parser.getName();
+      }
+
+      @Override
+      public FirstChars getFirstChars() {
+        return parser.getFirstChars();
+      }
+    };
+  }
+
+  /**
+   * Runs the given grammar with a fresh memo table for every parse, so all {@link
+   * #memoized(AtomicParser) memoized} rules in it are evaluated at most once per position.
+   *
+   * @param grammar the grammar
+   * @param <T> the type of the result
+   * @return a parser running the grammar with memoization
+   */
+  public static <T> AtomicParser<T> packrat(AtomicParser<T> grammar) {
+    return new AtomicParser<>() {
+      @Override
+      public T parse(StringReader input) throws ParseException {
+        return MemoTable.runWithTable(grammar, input);
+      }
+
+      @Override
+      public Optional<String> getName() {
+        return grammar.getName();
+      }
+
+      @Override
+      public FirstChars getFirstChars() {
+        return grammar.getFirstChars();
+      }
+    };
+  }
+
+  private static <T> AtomicParser<T> widen(AtomicParser<? extends T> parser) {
+    return new AtomicParser<>() {
+      @Override
+      public T parse(StringReader input) throws ParseException {
+        return parser.parse(input);
+      }
+
+      @Override
+      public Optional<String> getName() {
+        return parser.getName();
+      }
+
+      @Override
+      public FirstChars getFirstChars() {
+        return parser.getFirstChars();
+      }
+    };
+  }
+}
@@ -0,0 +1,110 @@
+package de.ialistannen.commandprocrastination.parsing.combinators;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the outcome of memoized parsers per input position for a single parse.
+ */
+class MemoTable {
+
+  private static final ThreadLocal<MemoTable> CURRENT = new ThreadLocal<>();
+
+  private final StringReader reader;
+  private final Map<AtomicParser<?>, Map<Integer, Outcome>> outcomes;
+
+  private MemoTable(StringReader reader) {
+    this.reader = reader;
+    this.outcomes = new IdentityHashMap<>();
+  }
+
+  /**
+   * Runs a parser with a fresh memo table for the given reader, unless one is already active for
+   * it.
+   *
+   * @param parser the parser to run
+   * @param input the input
+   * @param <T> the type of the result
+   * @return the parsed result
+   * @throws ParseException if the parser fails
+   */
+  static <T> T runWithTable(AtomicParser<T> parser, StringReader input) throws ParseException {
+    MemoTable previous = CURRENT.get();
+    if (previous != null && previous.reader == input) {
+      return parser.parse(input);
+    }
+
+    CURRENT.set(new MemoTable(input));
+    try {
+      return parser.parse(input);
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Parses using the memo table active for the reader, if any.
+   *
+   * @param key the identity the outcomes are remembered under
+   * @param parser the parser
+   * @param input the input
+   * @param <T> the type of the result
+   * @return the parsed result
+   * @throws ParseException if the parser fails now or failed before at this position
+   */
+  static <T> T parseMemoized(AtomicParser<?> key, AtomicParser<T> parser, StringReader input)
+      throws ParseException {
+    MemoTable table = CURRENT.get();
+    if (table == null || table.reader != input) {
+      return parser.parse(input);
+    }
+
+    Map<Integer, Outcome> byPosition = table.outcomes
+        .computeIfAbsent(key, ignored -> new HashMap<>());
+    int start = input.getPosition();
+    Outcome known = byPosition.get(start);
+
+    if (known != null) {
+      input.reset(known.end);
+      if (known.failure != null) {
+        throw known.failure;
+      }
+      @SuppressWarnings("unchecked")
+      T value = (T) known.value;
+      return value;
+    }
+
+    try {
+      T value = parser.parse(input);
+      byPosition.put(start, new Outcome(value, null, input.getPosition()));
+      return value;
+    } catch (ParseException e) {
+      byPosition.put(start, new Outcome(null, e, input.getPosition()));
+      throw e;
+    }
+  }
+
+  /**
+   * The outcome of a single parser invocation.
+   */
+  private static class Outcome {
+
+    private final Object value;
+    private final ParseException failure;
+    private final int end;
+
+    Outcome(Object value, ParseException failure, int end) {
+      this.value = value;
+      this.failure = failure;
+      this.end = end;
+    }
+  }
+}
@@ -1,24 +1,26 @@
 package de.ialistannen.commandprocrastination.parsing.defaults;
 
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
-import java.util.regex.Pattern;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
 
 /**
  * Parsers for doubles.
  */
 public class DoubleParsers {
 
+  private static final FirstChars DECIMAL_START = FirstChars.of("+-_,.0123456789");
+  private static final RegexMatcher PATTERN = RegexMatcher.linear("[+\\-]?(\\d|[_,.])+");
+
   /**
    * A parser that reads a double.
    *
    * @return a parser that reads a double
    */
   public static AtomicParser<Double> decimal() {
-    Pattern pattern = Pattern.compile("[+\\-]?(\\d|[_,.])+");
-
-    return input -> {
-      String read = input.readRegex(pattern);
+    return AtomicParser.named(null, DECIMAL_START, input -> {
+      String read = input.readRegex(PATTERN);
       if (read.isEmpty()) {
         throw new ParseException(input, "I expected a double, but I got nothing!");
       }
@@ -27,7 +29,7 @@ public class DoubleParsers {
       } catch (NumberFormatException e) {
         throw new ParseException(input, "Invalid decimal value. Maybe too large/small?", e);
       }
-    };
+    });
   }
 
   /**
@@ -92,6 +94,6 @@ public class DoubleParsers {
       name = "Decimal value";
     }
 
-    return AtomicParser.named(name, parser);
+    return AtomicParser.named(name, DECIMAL_START, parser);
   }
 }
@@ -0,0 +1,265 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import de.ialistannen.commandprocrastination.util.CharTrie;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Parses POSIX-ish flags like {@code --limit 10 --sort desc -v} in any order.
+ *
+ * <p><br>Flag names are resolved through a trie, so every token is looked up in time proportional
+ * to its length. Values may be separated from their flag by whitespace or by an equals sign
+ * ({@code --limit=10}). Parsing stops at the first token that is no flag or after a lone {@code
+ * --}, leaving the rest of the input for other parsers. Tokens starting with a dash followed by a
+ * digit, like {@code -5}, are negative numbers and no flags.</p>
+ * <p><br>Use {@link #builder()} to create one.</p>
+ */
+public final class FlagParser implements AtomicParser<Flags> {
+
+  private final Flag[] flags;
+  private final CharTrie<Integer> names;
+  private final String usage;
+
+  private FlagParser(List<Flag> flags) {
+    this.flags = flags.toArray(new Flag[0]);
+    this.names = new CharTrie<>(false);
+    for (int i = 0; i < this.flags.length; i++) {
+      for (String name : this.flags[i].names) {
+        names.put(name, i);
+      }
+    }
+    this.usage = flags.stream()
+        .map(Flag::toUsage)
+        .collect(Collectors.joining(" "));
+  }
+
+  @Override
+  public Flags parse(StringReader input) throws ParseException {
+    Object[] values = new Object[flags.length];
+    BitSet present = new BitSet(flags.length);
+    for (int i = 0; i < flags.length; i++) {
+      if (flags[i].isSwitch()) {
+        values[i] = false;
+      }
+    }
+
+    CharSequence text = input.getText();
+    int end = input.getPosition();
+
+    while (true) {
+      input.skipWhitespace();
+      int nameStart = input.getPosition();
+      if (!isFlagStart(text, nameStart)) {
+        break;
+      }
+
+      int nameEnd = nameStart;
+      while (nameEnd < text.length()
+          && !Character.isWhitespace(text.charAt(nameEnd))
+          && text.charAt(nameEnd) != '=') {
+        nameEnd++;
+      }
+
+      if (nameEnd - nameStart == 2 && text.charAt(nameStart + 1) == '-') {
+        // "--" ends the flags
+        end = nameEnd;
+        break;
+      }
+
+      Integer index = names.get(text, nameStart, nameEnd);
+      if (index == null) {
+        throw new ParseException(
+            input, "Unknown flag '" + input.substring(nameStart, nameEnd) + "'"
+        );
+      }
+      Flag flag = flags[index];
+      if (present.get(index)) {
+        throw new ParseException(input, "Flag '" + flag.getPrimaryName() + "' given twice");
+      }
+      present.set(index);
+      input.reset(nameEnd);
+
+      boolean explicitValue = nameEnd < text.length() && text.charAt(nameEnd) == '=';
+      if (flag.isSwitch()) {
+        if (explicitValue) {
+          throw new ParseException(input, "Flag '" + flag.getPrimaryName() + "' takes no value");
+        }
+        values[index] = true;
+      } else {
+        if (explicitValue) {
+          input.readChar();
+        } else {
+          input.skipWhitespace();
+        }
+        try {
+          values[index] = flag.parser.parse(input);
+        } catch (ParseException e) {
+          throw new ParseException(
+              input, "Invalid value for '" + flag.getPrimaryName() + "'", e
+          );
+        }
+      }
+
+      end = input.getPosition();
+    }
+
+    input.reset(end);
+    return new Flags(this, values, present);
+  }
+
+  private static boolean isFlagStart(CharSequence text, int start) {
+    if (start >= text.length() || text.charAt(start) != '-') {
+      return false;
+    }
+    return start + 1 >= text.length() || !Character.isDigit(text.charAt(start + 1));
+  }
+
+  /**
+   * Returns the slot of the key in parsed flags.
+   *
+   * @param key the key
+   * @return the index of the key or -1 if it is not declared
+   */
+  int indexOf(ArgumentKey<?> key) {
+    for (int i = 0; i < flags.length; i++) {
+      if (flags[i].key == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the usage of this parser, e.g. {@code [--limit <Integer>] [-v|--verbose]}.
+   *
+   * @return the usage
+   */
+  public String getUsage() {
+    return usage;
+  }
+
+  @Override
+  public Optional<String> getName() {
+    return Optional.of(usage);
+  }
+
+  /**
+   * Creates a new builder for a flag parser.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * A single declared flag.
+   */
+  private static final class Flag {
+
+    private final ArgumentKey<?> key;
+    private final AtomicParser<?> parser;
+    private final List<String> names;
+
+    Flag(ArgumentKey<?> key, AtomicParser<?> parser, List<String> names) {
+      this.key = key;
+      this.parser = parser;
+      this.names = names;
+    }
+
+    boolean isSwitch() {
+      return parser == null;
+    }
+
+    String getPrimaryName() {
+      return names.get(0);
+    }
+
+    String toUsage() {
+      String joinedNames = String.join("|", names);
+      if (isSwitch()) {
+        return "[" + joinedNames + "]";
+      }
+      String valueName = parser.getName().orElse(key.getName());
+      return "[" + joinedNames + " <" + valueName + ">]";
+    }
+  }
+
+  /**
+   * A builder for {@link FlagParser}s.
+   */
+  public static final class Builder {
+
+    private final List<Flag> flags;
+
+    private Builder() {
+      this.flags = new ArrayList<>();
+    }
+
+    /**
+     * Adds a flag without a value. Its value is true if it is given and false otherwise.
+     *
+     * @param key the key
+     * @param names the names including the dashes, e.g. {@code "-v", "--verbose"}
+     * @return this builder
+     */
+    public Builder flag(ArgumentKey<Boolean> key, String... names) {
+      return add(new Flag(key, null, List.of(names)));
+    }
+
+    /**
+     * Adds a flag followed by a value.
+     *
+     * @param key the key
+     * @param parser the parser for the value
+     * @param names the names including the dashes, e.g. {@code "-l", "--limit"}
+     * @param <T> the type of the value
+     * @return this builder
+     */
+    public <T> Builder option(ArgumentKey<T> key, AtomicParser<T> parser, String... names) {
+      return add(new Flag(key, parser, List.of(names)));
+    }
+
+    private Builder add(Flag flag) {
+      if (flag.names.isEmpty()) {
+        throw new IllegalArgumentException("Flag " + flag.key + " has no names");
+      }
+      for (String name : flag.names) {
+        if (name.length() < 2 || !isFlagStart(name, 0) || name.equals("--")) {
+          throw new IllegalArgumentException("Invalid flag name '" + name + "'");
+        }
+        if (name.chars().anyMatch(c -> c == '=' || Character.isWhitespace(c))) {
+          throw new IllegalArgumentException("Invalid flag name '" + name + "'");
+        }
+      }
+      for (Flag existing : flags) {
+        if (existing.key == flag.key) {
+          throw new IllegalArgumentException("Duplicated flag " + flag.key);
+        }
+        for (String name : flag.names) {
+          if (existing.names.contains(name)) {
+            throw new IllegalArgumentException("Duplicated flag name '" + name + "'");
+          }
+        }
+      }
+      flags.add(flag);
+      return this;
+    }
+
+    /**
+     * Builds the parser.
+     *
+     * @return the built parser
+     */
+    public FlagParser build() {
+      return new FlagParser(flags);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * The flags parsed by a {@link FlagParser}.
+ */
+public final class Flags {
+
+  private final FlagParser parser;
+  private final Object[] values;
+  private final BitSet present;
+
+  Flags(FlagParser parser, Object[] values, BitSet present) {
+    this.parser = parser;
+    this.values = values;
+    this.present = present;
+  }
+
+  /**
+   * Returns the value of a flag.
+   *
+   * @param key the key of the flag
+   * @param <T> the type of the value
+   * @return the value. False for flags without a value that were not given, null for other flags
+   *     that were not given
+   * @throws NoSuchElementException if the flag is not declared
+   */
+  public <T> T get(ArgumentKey<T> key) {
+    @SuppressWarnings("unchecked")
+    T t = (T) values[indexOf(key)];
+    return t;
+  }
+
+  /**
+   * Returns the value of a flag.
+   *
+   * @param key the key of the flag
+   * @param <T> the type of the value
+   * @return the value or an empty optional if the flag was not given
+   * @throws NoSuchElementException if the flag is not declared
+   */
+  public <T> Optional<T> getOptional(ArgumentKey<T> key) {
+    if (!isPresent(key)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(get(key));
+  }
+
+  /**
+   * Returns whether a flag was given.
+   *
+   * @param key the key of the flag
+   * @return true if the flag was given
+   * @throws NoSuchElementException if the flag is not declared
+   */
+  public boolean isPresent(ArgumentKey<?> key) {
+    return present.get(indexOf(key));
+  }
+
+  private int indexOf(ArgumentKey<?> key) {
+    int index = parser.indexOf(key);
+    if (index < 0) {
+      throw new NoSuchElementException("Flag " + key.getName() + " is not declared");
+    }
+    return index;
+  }
+}
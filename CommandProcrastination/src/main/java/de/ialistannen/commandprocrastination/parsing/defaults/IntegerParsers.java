@@ -1,21 +1,23 @@
 package de.ialistannen.commandprocrastination.parsing.defaults;
 
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
-import java.util.regex.Pattern;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
 
 public class IntegerParsers {
 
+  private static final FirstChars INTEGER_START = FirstChars.of("+-_0123456789");
+  private static final RegexMatcher PATTERN = RegexMatcher.linear("[+\\-]?(\\d|[_])+");
+
   /**
    * A parser that reads an integer.
    *
    * @return a parser that reads an integer
    */
   public static AtomicParser<Integer> integer() {
-    Pattern pattern = Pattern.compile("[+\\-]?(\\d|[_])+");
-
-    return input -> {
-      String read = input.readRegex(pattern);
+    return AtomicParser.named(null, INTEGER_START, input -> {
+      String read = input.readRegex(PATTERN);
       if (read.isEmpty()) {
         throw new ParseException(input, "I expected an integer, but I got nothing!");
       }
@@ -24,7 +26,7 @@ public class IntegerParsers {
       } catch (NumberFormatException e) {
         throw new ParseException(input, "Invalid integer. Maybe too large/small?", e);
       }
-    };
+    });
   }
 
   /**
@@ -89,6 +91,6 @@ public class IntegerParsers {
       name = "Decimal value";
     }
 
-    return AtomicParser.named(name, parser);
+    return AtomicParser.named(name, INTEGER_START, parser);
   }
 }
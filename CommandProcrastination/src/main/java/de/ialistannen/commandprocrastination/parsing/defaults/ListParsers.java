@@ -0,0 +1,241 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsers reading a variable number of elements, e.g. for {@code "!roll 3 6 10 12"}.
+ *
+ * <p><br>The list ends at the first element that does not match. That element and the separator
+ * before it are left unread, so the next parser can pick them up.</p>
+ */
+public class ListParsers {
+
+  private static final FirstChars INTEGER_START = FirstChars.of("+-_0123456789");
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * A parser that reads between {@code min} and {@code max} elements divided by a separator.
+   *
+   * <p><br>Elements whose {@link AtomicParser#getFirstChars() first chars} exclude the next
+   * character are not tried at all, so the end of the list usually costs no exception.</p>
+   *
+   * @param element the parser for a single element
+   * @param separator the parser for the separator
+   * @param min the minimum amount of elements. Inclusive.
+   * @param max the maximum amount of elements. Inclusive.
+   * @param <T> the type of the elements
+   * @return a parser that reads a list of elements
+   */
+  public static <T> AtomicParser<List<T>> listOf(AtomicParser<T> element,
+      AtomicParser<?> separator, int min, int max) {
+    checkBounds(min, max);
+
+    AtomicParser<List<T>> parser = input -> {
+      List<T> result = new ArrayList<>();
+
+      while (result.size() < max) {
+        int start = input.getPosition();
+        try {
+          if (!result.isEmpty()) {
+            separator.parse(input);
+          }
+          if (!canStartHere(element.getFirstChars(), input)) {
+            input.reset(start);
+            break;
+          }
+          result.add(element.parse(input));
+        } catch (ParseException e) {
+          input.reset(start);
+          break;
+        }
+      }
+
+      if (result.size() < min) {
+        throw new ParseException(input, "Expected at least " + min + " elements");
+      }
+      return result;
+    };
+
+    return AtomicParser.named(
+        element.getName().map(it -> "[" + it + "...]").orElse(null),
+        min == 0 ? FirstChars.any() : element.getFirstChars(),
+        parser
+    );
+  }
+
+  /**
+   * A parser that reads between {@code min} and {@code max} integers divided by whitespace.
+   *
+   * <p><br>All integers are read in a single pass into one growing buffer, without boxing them.
+   * Integers use the same syntax as {@link IntegerParsers#integer()}.</p>
+   *
+   * @param min the minimum amount of integers. Inclusive.
+   * @param max the maximum amount of integers. Inclusive.
+   * @return a parser that reads the integers
+   */
+  public static AtomicParser<int[]> intArray(int min, int max) {
+    checkBounds(min, max);
+
+    AtomicParser<int[]> parser = input -> {
+      NumberScanner scanner = new NumberScanner(input, Integer.MIN_VALUE, Integer.MAX_VALUE);
+      int[] buffer = new int[Math.min(max, INITIAL_CAPACITY)];
+      int count = 0;
+
+      while (count < max && scanner.next(count == 0)) {
+        if (count == buffer.length) {
+          buffer = Arrays.copyOf(buffer, (int) Math.min(max, buffer.length * 2L));
+        }
+        buffer[count++] = (int) scanner.value;
+      }
+
+      if (count < min) {
+        throw new ParseException(input, "Expected at least " + min + " integers");
+      }
+      return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    };
+
+    return AtomicParser.named(
+        "[Integer...]", min == 0 ? FirstChars.any() : INTEGER_START, parser
+    );
+  }
+
+  /**
+   * A parser that reads between {@code min} and {@code max} longs divided by whitespace, e.g. a
+   * list of IDs.
+   *
+   * <p><br>All longs are read in a single pass into one growing buffer, without boxing them.</p>
+   *
+   * @param min the minimum amount of longs. Inclusive.
+   * @param max the maximum amount of longs. Inclusive.
+   * @return a parser that reads the longs
+   * @see #intArray(int, int)
+   */
+  public static AtomicParser<long[]> longArray(int min, int max) {
+    checkBounds(min, max);
+
+    AtomicParser<long[]> parser = input -> {
+      NumberScanner scanner = new NumberScanner(input, Long.MIN_VALUE, Long.MAX_VALUE);
+      long[] buffer = new long[Math.min(max, INITIAL_CAPACITY)];
+      int count = 0;
+
+      while (count < max && scanner.next(count == 0)) {
+        if (count == buffer.length) {
+          buffer = Arrays.copyOf(buffer, (int) Math.min(max, buffer.length * 2L));
+        }
+        buffer[count++] = scanner.value;
+      }
+
+      if (count < min) {
+        throw new ParseException(input, "Expected at least " + min + " integers");
+      }
+      return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    };
+
+    return AtomicParser.named(
+        "[Long...]", min == 0 ? FirstChars.any() : INTEGER_START, parser
+    );
+  }
+
+  private static void checkBounds(int min, int max) {
+    if (min < 0 || max < min) {
+      throw new IllegalArgumentException("Invalid bounds: min " + min + ", max " + max);
+    }
+  }
+
+  private static boolean canStartHere(FirstChars chars, StringReader input) {
+    if (chars.isAny()) {
+      return true;
+    }
+    return input.canRead() && chars.contains(input.peek());
+  }
+
+  /**
+   * Reads whitespace separated integers straight from the underlying string.
+   */
+  private static class NumberScanner {
+
+    private final StringReader input;
+    private final CharSequence text;
+    private final long minValue;
+    private final long maxValue;
+    private long value;
+
+    NumberScanner(StringReader input, long minValue, long maxValue) {
+      this.input = input;
+      this.text = input.getText();
+      this.minValue = minValue;
+      this.maxValue = maxValue;
+    }
+
+    /**
+     * Reads the next number and stores it in {@link #value}. If no number follows, the reader is
+     * left untouched.
+     *
+     * @param first whether this is the first number, which is not preceded by whitespace
+     * @return true if a number was read
+     * @throws ParseException if the number does not fit
+     */
+    boolean next(boolean first) throws ParseException {
+      int position = input.getPosition();
+
+      if (!first) {
+        int afterWhitespace = position;
+        while (afterWhitespace < text.length()
+            && Character.isWhitespace(text.charAt(afterWhitespace))) {
+          afterWhitespace++;
+        }
+        if (afterWhitespace == position) {
+          return false;
+        }
+        position = afterWhitespace;
+      }
+
+      if (position >= text.length()) {
+        return false;
+      }
+
+      boolean negative = false;
+      char sign = text.charAt(position);
+      if (sign == '-' || sign == '+') {
+        negative = sign == '-';
+        position++;
+      }
+
+      // Accumulate negatively, so the minimum value fits as well
+      long limit = negative ? minValue : -maxValue;
+      long multiplyLimit = limit / 10;
+      long result = 0;
+      boolean sawDigit = false;
+
+      for (; position < text.length(); position++) {
+        char c = text.charAt(position);
+        if (c == '_') {
+          continue;
+        }
+        if (c < '0' || c > '9') {
+          break;
+        }
+        int digit = c - '0';
+        if (result < multiplyLimit || result * 10 < limit + digit) {
+          throw new ParseException(input, "Invalid integer. Maybe too large/small?");
+        }
+        result = result * 10 - digit;
+        sawDigit = true;
+      }
+
+      if (!sawDigit) {
+        return false;
+      }
+
+      value = negative ? result : -result;
+      input.reset(position);
+      return true;
+    }
+  }
+}
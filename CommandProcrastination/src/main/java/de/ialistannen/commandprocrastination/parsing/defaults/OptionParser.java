@@ -1,6 +1,7 @@
 package de.ialistannen.commandprocrastination.parsing.defaults;
 
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
 import de.ialistannen.commandprocrastination.util.StringReader;
 import java.util.ArrayList;
@@ -10,16 +11,29 @@ import java.util.stream.Collectors;
 
 /**
  * Tries a list of parsers until one matches, then returns the result of that parser.
+ *
+ * <p><br>Parsers are always tried in the order they were added, but parsers whose {@link
+ * AtomicParser#getFirstChars() first characters} exclude the next input character are skipped
+ * without invoking them. For this a dispatch table for ASCII characters is precomputed whenever a
+ * parser is added, and rebuilt once the first characters of an alternative change, e.g. because
+ * a nested option parser got a new alternative.</p>
+ * <p><br>The table is published as an immutable snapshot, so a parser can be shared by many
+ * threads while alternatives are added.</p>
  */
 public class OptionParser<T> implements AtomicParser<T> {
 
+  private static final int TABLE_SIZE = 128;
+
   private List<AtomicParser<T>> underlying;
+  private int version;
+  private volatile Snapshot<T> snapshot;
 
   /**
    * Creates a new option parser.
    */
   public OptionParser() {
-    this.underlying = new ArrayList<>();
+    this.underlying = List.of();
+    rebuild();
   }
 
   /**
@@ -28,38 +42,172 @@ public class OptionParser<T> implements AtomicParser<T> {
    * @param other the parser
    * @return this parser
    */
-  public OptionParser<T> or(AtomicParser<T> other) {
-    underlying.add(other);
+  public synchronized OptionParser<T> or(AtomicParser<T> other) {
+    List<AtomicParser<T>> parsers = new ArrayList<>(underlying);
+    parsers.add(other);
+    underlying = List.copyOf(parsers);
+    rebuild();
     return this;
   }
 
   @Override
   public T parse(StringReader input) throws ParseException {
-    if (underlying.isEmpty()) {
+    Snapshot<T> current = getSnapshot();
+    if (current.alternatives.isEmpty()) {
       throw new ParseException(input, "No option given");
     }
 
-    for (AtomicParser<T> parser : underlying) {
-      int before = input.getPosition();
+    if (input.canRead() && input.peek() < TABLE_SIZE) {
+      for (AtomicParser<T> parser : current.dispatchTable[input.peek()]) {
+        int before = input.getPosition();
+
+        try {
+          return parser.parse(input);
+        } catch (ParseException e) {
+          input.reset(before);
+        }
+      }
+    } else {
+      for (int i = 0; i < current.alternatives.size(); i++) {
+        if (!canStartHere(current.alternativeChars[i], input)) {
+          continue;
+        }
+        int before = input.getPosition();
 
-      try {
-        return parser.parse(input);
-      } catch (ParseException e) {
-        input.reset(before);
+        try {
+          return current.alternatives.get(i).parse(input);
+        } catch (ParseException e) {
+          input.reset(before);
+        }
       }
     }
 
-    throw new ParseException(input, "Expected one of " + generateUsageNames());
+    throw new ParseException(input, "Expected one of " + current.usageNames);
+  }
+
+  private boolean canStartHere(FirstChars chars, StringReader input) {
+    if (chars.isAny()) {
+      return true;
+    }
+    return input.canRead() && chars.contains(input.peek());
   }
 
-  private String generateUsageNames() {
-    return underlying.stream()
+  /**
+   * Returns the current snapshot, rebuilding it if the first characters of an alternative or a
+   * nested option parser changed since it was built.
+   */
+  private Snapshot<T> getSnapshot() {
+    Snapshot<T> current = snapshot;
+    if (current.isCurrent()) {
+      return current;
+    }
+    rebuild();
+    return snapshot;
+  }
+
+  private synchronized void rebuild() {
+    List<AtomicParser<T>> parsers = underlying;
+    FirstChars[] chars = new FirstChars[parsers.size()];
+    List<OptionParser<?>> nested = new ArrayList<>();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = parsers.get(i).getFirstChars();
+      if (parsers.get(i) instanceof OptionParser) {
+        nested.add((OptionParser<?>) parsers.get(i));
+      }
+    }
+    int[] nestedVersions = new int[nested.size()];
+    for (int i = 0; i < nestedVersions.length; i++) {
+      nestedVersions[i] = nested.get(i).getSnapshot().version;
+    }
+
+    @SuppressWarnings("unchecked")
+    AtomicParser<T>[][] table = (AtomicParser<T>[][]) new AtomicParser<?>[TABLE_SIZE][];
+    List<AtomicParser<T>> candidates = new ArrayList<>();
+
+    for (char c = 0; c < TABLE_SIZE; c++) {
+      candidates.clear();
+      for (int i = 0; i < chars.length; i++) {
+        if (chars[i].contains(c)) {
+          candidates.add(parsers.get(i));
+        }
+      }
+      @SuppressWarnings("unchecked")
+      AtomicParser<T>[] row = candidates.toArray(new AtomicParser[0]);
+      table[c] = row;
+    }
+
+    FirstChars union = parsers.isEmpty() ? FirstChars.any() : FirstChars.of("");
+    for (FirstChars alternative : chars) {
+      union = union.union(alternative);
+    }
+
+    String usageNames = parsers.stream()
         .flatMap(it -> it.getName().stream())
         .collect(Collectors.joining("|", "<", ">"));
+
+    version++;
+    snapshot = new Snapshot<>(
+        version, parsers, chars, table, union, usageNames, nested, nestedVersions
+    );
   }
 
   @Override
   public Optional<String> getName() {
-    return Optional.of(generateUsageNames());
+    return Optional.of(getSnapshot().usageNames);
+  }
+
+  @Override
+  public FirstChars getFirstChars() {
+    return getSnapshot().firstChars;
+  }
+
+  /**
+   * The dispatch table and derived data for one list of alternatives.
+   *
+   * @param <T> the type of the result
+   */
+  private static class Snapshot<T> {
+
+    private final int version;
+    private final List<AtomicParser<T>> alternatives;
+    private final FirstChars[] alternativeChars;
+    private final AtomicParser<T>[][] dispatchTable;
+    private final FirstChars firstChars;
+    private final String usageNames;
+    private final List<OptionParser<?>> nested;
+    private final int[] nestedVersions;
+
+    Snapshot(int version, List<AtomicParser<T>> alternatives, FirstChars[] alternativeChars,
+        AtomicParser<T>[][] dispatchTable, FirstChars firstChars, String usageNames,
+        List<OptionParser<?>> nested, int[] nestedVersions) {
+      this.version = version;
+      this.alternatives = alternatives;
+      this.alternativeChars = alternativeChars;
+      this.dispatchTable = dispatchTable;
+      this.firstChars = firstChars;
+      this.usageNames = usageNames;
+      this.nested = nested;
+      this.nestedVersions = nestedVersions;
+    }
+
+    /**
+     * Returns whether no alternative changed its first characters and no nested option parser
+     * got new alternatives. Parsers usually return the same instance while they do not change, so
+     * the comparison by identity is cheap.
+     */
+    private boolean isCurrent() {
+      for (int i = 0; i < alternativeChars.length; i++) {
+        FirstChars chars = alternatives.get(i).getFirstChars();
+        if (chars != alternativeChars[i] && !chars.equals(alternativeChars[i])) {
+          return false;
+        }
+      }
+      for (int i = 0; i < nested.size(); i++) {
+        if (nested.get(i).snapshot.version != nestedVersions[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
   }
 }
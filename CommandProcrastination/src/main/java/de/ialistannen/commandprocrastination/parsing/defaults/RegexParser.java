@@ -0,0 +1,49 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
+import java.util.Optional;
+
+/**
+ * A parser that reads the text matched by a regular expression.
+ *
+ * <p><br>Use {@link StringParsers#regex(String)} to get an instance.</p>
+ */
+public class RegexParser implements AtomicParser<String> {
+
+  private final RegexMatcher matcher;
+
+  /**
+   * Creates a new regex parser.
+   *
+   * @param matcher the matcher to use
+   */
+  public RegexParser(RegexMatcher matcher) {
+    this.matcher = matcher;
+  }
+
+  @Override
+  public String parse(StringReader input) throws ParseException {
+    int end = matcher.matchAt(input.getText(), input.getPosition());
+    if (end < 0) {
+      throw new ParseException(input, "Expected input matching '" + matcher.getPattern() + "'");
+    }
+    return input.readChars(end - input.getPosition());
+  }
+
+  /**
+   * Returns the matcher used by this parser.
+   *
+   * @return the matcher
+   */
+  public RegexMatcher getMatcher() {
+    return matcher;
+  }
+
+  @Override
+  public Optional<String> getName() {
+    return Optional.of(matcher.getPattern());
+  }
+}
@@ -1,9 +1,15 @@
 package de.ialistannen.commandprocrastination.parsing.defaults;
 
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.CharTrie;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.TokenIndex;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * Common string parsers.
@@ -12,6 +18,16 @@ public class StringParsers {
 
   private static Set<Character> QUOTE_CHARS = Set.of('"', '\'');
 
+  private static final AtomicParser<String> WORD = AtomicParser.named(
+      "A single word",
+      StringParsers::readWord
+  );
+
+  private static final AtomicParser<String> PHRASE = AtomicParser.named(
+      "A (quoted) phrase",
+      StringParsers::readPhrase
+  );
+
   /**
    * A parser that only matches the given literal. Everything else throws an exception.
    *
@@ -21,7 +37,11 @@ public class StringParsers {
   public static AtomicParser<Void> literal(String expected) {
     int length = expected.length();
     AtomicParser<Void> parser = input -> {
-      if (!input.canRead(length) || !expected.equals(input.readChars(length))) {
+      boolean matches = input.startsWith(expected);
+      if (input.canRead(length)) {
+        input.reset(input.getPosition() + length);
+      }
+      if (!matches) {
         throw new ParseException(input, "Expected '" + expected + "'");
       }
       return null;
@@ -29,60 +49,225 @@ public class StringParsers {
 
     return AtomicParser.named(
         expected,
+        expected.isEmpty() ? FirstChars.any() : FirstChars.of(expected.substring(0, 1)),
         parser
     );
   }
 
   /**
-   * A parser that reads a single word (i.e. until a space character).
+   * A parser that reads the text matched by a regular expression, starting at the current
+   * position.
    *
-   * @return a parser that reads a single word
+   * <p><br>Patterns supported by the linear time engine are matched using it, so hostile input
+   * can not make them backtrack. All others fall back to {@link java.util.regex}.</p>
+   *
+   * @param regex the pattern
+   * @return a parser that reads the matched text
+   * @see RegexMatcher#compile(String)
    */
-  public static AtomicParser<String> word() {
-    final Pattern pattern = Pattern.compile("[\\S]*");
+  public static RegexParser regex(String regex) {
+    return new RegexParser(RegexMatcher.compile(regex));
+  }
+
+  /**
+   * A parser that reads a single word and maps it to a value. Use it instead of an {@link
+   * OptionParser} of {@link #literal(String)}s, e.g. for choices like {@code on|off|toggle}.
+   *
+   * <p><br>The word is read once and resolved in time proportional to its length using a trie. In
+   * contrast to {@link #literal(String)} the whole word must match, so {@code "onward"} is not
+   * matched by a choice {@code "on"}. Aliases are just additional keys with the same value.</p>
+   *
+   * @param values the possible words and their values
+   * @param caseInsensitive whether words are matched ignoring their case
+   * @param <T> the type of the values
+   * @return a parser returning the value of the read word
+   * @throws IllegalArgumentException if a word is empty, a value is null or two words only
+   *     differing in case map to different values in a case insensitive parser
+   */
+  public static <T> AtomicParser<T> oneOf(Map<String, ? extends T> values,
+      boolean caseInsensitive) {
+    CharTrie<T> trie = new CharTrie<>(caseInsensitive);
+
+    for (Map.Entry<String, ? extends T> entry : values.entrySet()) {
+      String key = entry.getKey();
+      if (key.isEmpty()) {
+        throw new IllegalArgumentException("Choices must not be empty");
+      }
+      if (entry.getValue() == null) {
+        throw new IllegalArgumentException("The value for '" + key + "' is null");
+      }
+      T previous = trie.put(key, entry.getValue());
+      if (previous != null && !previous.equals(entry.getValue())) {
+        throw new IllegalArgumentException("The choice '" + key + "' is ambiguous");
+      }
+    }
+
+    String usage = String.join("|", values.keySet());
 
     return AtomicParser.named(
-        "A single word",
-        input -> input.readRegex(pattern)
+        usage,
+        FirstChars.of(trie.getFirstChars()),
+        input -> {
+          CharSequence text = input.getText();
+          int start = input.getPosition();
+          int end = start;
+          while (end < text.length() && !isWordSeparator(text.charAt(end))) {
+            end++;
+          }
+
+          T value = trie.get(text, start, end);
+          if (value == null) {
+            throw new ParseException(input, "Expected one of <" + usage + ">");
+          }
+          input.reset(end);
+          return value;
+        }
     );
   }
 
+  /**
+   * A parser that reads a single word and maps it to a value, respecting the case.
+   *
+   * @param values the possible words and their values
+   * @param <T> the type of the values
+   * @return a parser returning the value of the read word
+   * @see #oneOf(Map, boolean)
+   */
+  public static <T> AtomicParser<T> oneOf(Map<String, ? extends T> values) {
+    return oneOf(values, false);
+  }
+
+  /**
+   * A parser that reads the name of an enum constant, ignoring its case.
+   *
+   * @param type the enum class
+   * @param <E> the type of the enum
+   * @return a parser returning the read constant
+   * @see #oneOf(Map, boolean)
+   */
+  public static <E extends Enum<E>> AtomicParser<E> enumValue(Class<E> type) {
+    Map<String, E> values = new LinkedHashMap<>();
+    for (E constant : type.getEnumConstants()) {
+      values.put(constant.name(), constant);
+    }
+    return oneOf(values, true);
+  }
+
+  /**
+   * A parser that reads a single word (i.e. until a space character).
+   *
+   * @return a parser that reads a single word
+   */
+  public static AtomicParser<String> word() {
+    return WORD;
+  }
+
   /**
    * A parser that reads a single word or a quoted phrase.
    *
    * @return a parser that reads a single word or a quoted phrase
    */
   public static AtomicParser<String> phrase() {
-    AtomicParser<String> parser = input -> {
-      if (!QUOTE_CHARS.contains(input.peek())) {
-        return word().parse(input);
-      }
+    return PHRASE;
+  }
 
-      char quoteChar = input.readChar();
+  private static String readWord(StringReader input) {
+    CharSequence text = input.getText();
+    int start = input.getPosition();
+    int end = findWordEndInTokens(input);
+    if (end >= 0) {
+      input.reset(end);
+      return input.substring(start, end);
+    }
+    end = start;
+    while (end < text.length() && !isWordSeparator(text.charAt(end))) {
+      end++;
+    }
+    input.reset(end);
+    return input.substring(start, end);
+  }
 
-      StringBuilder readString = new StringBuilder();
+  /**
+   * Looks up where the word at the current position ends, if the input was tokenized. A token
+   * can only be used if it is not quoted and ends at a word separator, as tokens are also split at
+   * other unicode whitespace.
+   *
+   * @return the end of the word or -1 if it needs to be scanned
+   */
+  private static int findWordEndInTokens(StringReader input) {
+    TokenIndex tokens = input.getTokens();
+    if (tokens == null) {
+      return -1;
+    }
+    int token = tokens.getTokenStartingAt(input.getPosition());
+    if (token < 0 || QUOTE_CHARS.contains(input.peek())) {
+      return -1;
+    }
+    CharSequence text = input.getText();
+    int end = tokens.getEnd(token);
+    return end == text.length() || isWordSeparator(text.charAt(end)) ? end : -1;
+  }
+
+  /**
+   * Matches the characters of the {@code \s} regex class, which delimited words historically.
+   */
+  private static boolean isWordSeparator(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
 
-      boolean escaped = false;
-      while (input.canRead()) {
-        char read = input.readChar();
+  private static String readPhrase(StringReader input) {
+    if (!QUOTE_CHARS.contains(input.peek())) {
+      return readWord(input);
+    }
 
-        if (escaped) {
-          escaped = false;
-          readString.append(read);
-          continue;
-        }
+    TokenIndex tokens = input.getTokens();
+    int token = tokens == null ? -1 : tokens.getTokenStartingAt(input.getPosition());
+    char quoteChar = input.readChar();
+    int start = input.getPosition();
 
-        if (read == '\\') {
-          escaped = true;
-        } else if (read == quoteChar) {
-          break;
-        } else {
-          readString.append(read);
-        }
+    if (token >= 0 && !tokens.isEscaped(token)) {
+      int end = tokens.getEnd(token);
+      input.reset(end);
+      boolean terminated = end - start >= 1 && input.getText().charAt(end - 1) == quoteChar;
+      return input.substring(start, terminated ? end - 1 : end);
+    }
+
+    // Most phrases contain no escapes and can be returned as a slice of the input
+    int stop = input.indexOfEither(quoteChar, '\\');
+    if (stop < 0) {
+      return input.readRemaining();
+    }
+    input.reset(stop);
+    if (input.peek() == quoteChar) {
+      input.readChar();
+      return input.substring(start, stop);
+    }
+    return readEscapedPhrase(
+        input, quoteChar, new StringBuilder().append(input.getText(), start, stop)
+    );
+  }
+
+  private static String readEscapedPhrase(StringReader input, char quoteChar,
+      StringBuilder readString) {
+    boolean escaped = false;
+    while (input.canRead()) {
+      char read = input.readChar();
+
+      if (escaped) {
+        escaped = false;
+        readString.append(read);
+        continue;
       }
-      return readString.toString();
-    };
-    return AtomicParser.named("A (quoted) phrase", parser);
+
+      if (read == '\\') {
+        escaped = true;
+      } else if (read == quoteChar) {
+        break;
+      } else {
+        readString.append(read);
+      }
+    }
+    return readString.toString();
   }
 
   /**
@@ -97,7 +282,7 @@ public class StringParsers {
           if (!input.canRead()) {
             throw new ParseException(input, "Expected one or more characters");
           }
-          return input.readWhile(it -> true);
+          return input.readRemaining();
         }
     );
   }
@@ -110,7 +295,7 @@ public class StringParsers {
   public static AtomicParser<String> greedyOptionalPhrase() {
     return AtomicParser.named(
         "Zero or more characters",
-        input -> input.readWhile(it -> true)
+        StringReader::readRemaining
     );
   }
 }
@@ -0,0 +1,106 @@
+package de.ialistannen.commandprocrastination.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Scans byte arrays for ASCII characters eight bytes at a time.
+ *
+ * <p><br>Eight bytes are loaded as a single {@code long} and tested with bit tricks ("SIMD within
+ * a register"), so long stretches without a match cost one comparison per eight bytes. The last
+ * few bytes of a range are checked one by one.</p>
+ */
+public final class ByteScanner {
+
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(
+      long[].class, ByteOrder.LITTLE_ENDIAN
+  );
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+  private static final long SPACES = ONES * ' ';
+
+  /**
+   * Finds the first occurrence of one of two bytes.
+   *
+   * @param bytes the bytes to search in
+   * @param from the start of the range, inclusive
+   * @param to the end of the range, exclusive
+   * @param first the first byte to look for
+   * @param second the second byte to look for
+   * @return the index of the first occurrence or -1 if neither byte occurs in the range
+   */
+  public static int indexOfEither(byte[] bytes, int from, int to, byte first, byte second) {
+    long firstPattern = ONES * (first & 0xFF);
+    long secondPattern = ONES * (second & 0xFF);
+
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      long word = (long) LONGS.get(bytes, i);
+      long matches = zeroBytes(word ^ firstPattern) | zeroBytes(word ^ secondPattern);
+      if (matches != 0) {
+        return i + firstByte(matches);
+      }
+    }
+    for (; i < to; i++) {
+      if (bytes[i] == first || bytes[i] == second) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the first byte that is not ASCII whitespace as defined by {@link
+   * Character#isWhitespace(char)}. Bytes of multi-byte UTF-8 sequences are never whitespace.
+   *
+   * @param bytes the bytes to search in
+   * @param from the start of the range, inclusive
+   * @param to the end of the range, exclusive
+   * @return the index of the first non whitespace byte or {@code to} if there is none
+   */
+  public static int indexOfNonWhitespace(byte[] bytes, int from, int to) {
+    int i = from;
+    while (i < to) {
+      // Runs of spaces are skipped in one go, other whitespace is rare enough to check on its own
+      if (i + Long.BYTES <= to) {
+        long nonSpaces = ~zeroBytes((long) LONGS.get(bytes, i) ^ SPACES) & ~LOW_SEVEN_BITS;
+        if (nonSpaces == 0) {
+          i += Long.BYTES;
+          continue;
+        }
+        i += firstByte(nonSpaces);
+      }
+      if (!isWhitespace(bytes[i])) {
+        return i;
+      }
+      i++;
+    }
+    return to;
+  }
+
+  /**
+   * Returns whether the byte is an ASCII whitespace character.
+   *
+   * @param b the byte
+   * @return true if it is whitespace
+   */
+  public static boolean isWhitespace(byte b) {
+    return b >= 0 && Character.isWhitespace((char) b);
+  }
+
+  /**
+   * Sets the highest bit of every byte that is zero and clears all others. Unlike the shorter
+   * {@code (x - 0x01..) & ~x & 0x80..} this never reports bytes after the first zero byte wrongly.
+   */
+  private static long zeroBytes(long word) {
+    return ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS);
+  }
+
+  /**
+   * Returns the offset of the lowest byte with its highest bit set.
+   */
+  private static int firstByte(long highBits) {
+    return Long.numberOfTrailingZeros(highBits) >>> 3;
+  }
+}
@@ -0,0 +1,166 @@
+package de.ialistannen.commandprocrastination.util;
+
+import java.util.Arrays;
+
+/**
+ * A trie mapping strings to values, which can look up ranges of a string without copying them.
+ *
+ * <p><br>Children are stored in sorted arrays and found using a binary search, so a lookup takes
+ * time proportional to the length of the key.</p>
+ *
+ * @param <V> the type of the values
+ */
+public final class CharTrie<V> {
+
+  private final boolean caseInsensitive;
+  private final Node<V> root;
+  private int size;
+
+  /**
+   * Creates a new, empty trie.
+   *
+   * @param caseInsensitive whether keys are matched ignoring their case
+   */
+  public CharTrie(boolean caseInsensitive) {
+    this.caseInsensitive = caseInsensitive;
+    this.root = new Node<>();
+  }
+
+  /**
+   * Adds a new key to the trie.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the previous value for the key or null if there was none
+   */
+  public V put(String key, V value) {
+    Node<V> current = root;
+    for (int i = 0; i < key.length(); i++) {
+      current = current.getOrCreateChild(normalize(key.charAt(i)));
+    }
+
+    V previous = current.value;
+    if (!current.terminal) {
+      size++;
+    }
+    current.terminal = true;
+    current.value = value;
+    return previous;
+  }
+
+  /**
+   * Looks up a key.
+   *
+   * @param key the key
+   * @return the value or null if the key is unknown
+   */
+  public V get(String key) {
+    return get(key, 0, key.length());
+  }
+
+  /**
+   * Looks up the key {@code text.substring(start, end)} without creating that substring.
+   *
+   * @param text the text containing the key
+   * @param start the start of the key, inclusive
+   * @param end the end of the key, exclusive
+   * @return the value or null if the key is unknown
+   */
+  public V get(CharSequence text, int start, int end) {
+    Node<V> current = root;
+    for (int i = start; i < end && current != null; i++) {
+      current = current.getChild(normalize(text.charAt(i)));
+    }
+
+    if (current == null || !current.terminal) {
+      return null;
+    }
+    return current.value;
+  }
+
+  /**
+   * Returns all characters a key in this trie can start with. For case insensitive tries this
+   * includes every character folding to the same one, e.g. the long s for an {@code s}.
+   *
+   * @return all characters a key can start with
+   */
+  public String getFirstChars() {
+    StringBuilder result = new StringBuilder();
+    if (!caseInsensitive) {
+      result.append(root.childChars, 0, root.childCount);
+      return result.toString();
+    }
+    // Folding is not a simple upper/lower pair, so find every char mapping to a first char
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+      if (root.getChild(normalize((char) c)) != null) {
+        result.append((char) c);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns the number of keys in this trie.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return size;
+  }
+
+  private char normalize(char c) {
+    if (!caseInsensitive) {
+      return c;
+    }
+    // Same folding as String#equalsIgnoreCase
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  /**
+   * A single node in the trie.
+   *
+   * @param <V> the type of the values
+   */
+  private static class Node<V> {
+
+    private char[] childChars = new char[0];
+    private Node<V>[] children = newArray(0);
+    private int childCount;
+    private boolean terminal;
+    private V value;
+
+    Node<V> getChild(char c) {
+      int index = Arrays.binarySearch(childChars, 0, childCount, c);
+      return index < 0 ? null : children[index];
+    }
+
+    Node<V> getOrCreateChild(char c) {
+      int index = Arrays.binarySearch(childChars, 0, childCount, c);
+      if (index >= 0) {
+        return children[index];
+      }
+
+      int insertionPoint = -index - 1;
+      if (childCount == childChars.length) {
+        int newLength = Math.max(2, childCount * 2);
+        childChars = Arrays.copyOf(childChars, newLength);
+        children = Arrays.copyOf(children, newLength);
+      }
+      System.arraycopy(childChars, insertionPoint, childChars, insertionPoint + 1,
+          childCount - insertionPoint);
+      System.arraycopy(children, insertionPoint, children, insertionPoint + 1,
+          childCount - insertionPoint);
+
+      Node<V> child = new Node<>();
+      childChars[insertionPoint] = c;
+      children[insertionPoint] = child;
+      childCount++;
+      return child;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newArray(int length) {
+      return (Node<V>[]) new Node<?>[length];
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package de.ialistannen.commandprocrastination.util;
+
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent computations for the same key: While a computation for a key is running,
+ * every other caller with an equal key waits for it and receives the same result (or exception)
+ * instead of computing it again.
+ *
+ * <p><br>A failed computation is not wrapped per caller: Every waiting caller rethrows the exact
+ * exception instance the computation threw, as a {@link ParseException} can not be recreated
+ * without the reader it was thrown for. Callers must therefore treat it as shared and not modify
+ * it, e.g. by adding suppressed exceptions or replacing its stack trace.</p>
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the result
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight;
+
+  /**
+   * Creates a new single flight group.
+   */
+  public SingleFlight() {
+    this.inFlight = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Runs the computation or joins a running one for the same key.
+   *
+   * @param key the key
+   * @param computation the computation to run if none is in flight
+   * @return the result of the computation
+   * @throws ParseException if the computation threw one. Waiting callers receive the same
+   *     instance.
+   */
+  public V run(K key, Computation<V> computation) throws ParseException {
+    CompletableFuture<V> ours = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, ours);
+
+    if (running != null) {
+      return await(running);
+    }
+
+    try {
+      V result = computation.compute();
+      ours.complete(result);
+      return result;
+    } catch (ParseException | RuntimeException | Error e) {
+      ours.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, ours);
+    }
+  }
+
+  /**
+   * Returns the number of computations currently in flight.
+   *
+   * @return the number of computations currently in flight
+   */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Returns the number of callers waiting for the running computation of a key.
+   *
+   * @param key the key
+   * @return the number of waiting callers, excluding the one computing the result
+   */
+  public int getWaiterCount(K key) {
+    CompletableFuture<V> running = inFlight.get(key);
+    return running == null ? 0 : running.getNumberOfDependents();
+  }
+
+  private V await(CompletableFuture<V> future) throws ParseException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof ParseException) {
+        throw (ParseException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * A computation that can be coalesced.
+   *
+   * @param <V> the type of the result
+   */
+  public interface Computation<V> {
+
+    /**
+     * Computes the result.
+     *
+     * @return the result
+     * @throws ParseException if an error occurs
+     */
+    V compute() throws ParseException;
+  }
+}
@@ -1,6 +1,7 @@
 package de.ialistannen.commandprocrastination.util;
 
 
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -12,8 +13,10 @@ import lombok.ToString;
 @ToString
 public class StringReader {
 
-  private final String underlying;
+  private String underlying;
   private int position;
+  @ToString.Exclude
+  private TokenIndex tokens;
 
   /**
    * Creates a new string reader.
@@ -41,7 +44,7 @@ public class StringReader {
    * @return true if there is more to read
    */
   public boolean canRead() {
-    return position < underlying.length();
+    return position < length();
   }
 
   /**
@@ -51,7 +54,7 @@ public class StringReader {
    * @return true if there is more to read
    */
   public boolean canRead(int amount) {
-    return position + amount <= underlying.length();
+    return position + amount <= length();
   }
 
   /**
@@ -60,7 +63,7 @@ public class StringReader {
    * @return the char
    */
   public char peek() {
-    return underlying.charAt(position);
+    return charAt(position);
   }
 
   /**
@@ -70,7 +73,26 @@ public class StringReader {
    * @return the read text
    */
   public String peek(int amount) {
-    return underlying.substring(position, Math.min(underlying.length(), position + amount));
+    return substring(position, Math.min(length(), position + amount));
+  }
+
+  /**
+   * Returns the remaining input without consuming it.
+   *
+   * @return the remaining input
+   */
+  public String peekRemaining() {
+    return substring(position, length());
+  }
+
+  /**
+   * Returns whether the remaining input starts with the given text, without consuming it.
+   *
+   * @param prefix the text
+   * @return true if the remaining input starts with the text
+   */
+  public boolean startsWith(String prefix) {
+    return underlying.startsWith(prefix, position);
   }
 
   /**
@@ -79,7 +101,7 @@ public class StringReader {
    * @return the read char
    */
   public char readChar() {
-    return underlying.charAt(position++);
+    return charAt(position++);
   }
 
   /**
@@ -92,7 +114,7 @@ public class StringReader {
     int oldPos = this.position;
     position = this.position + count;
 
-    return underlying.substring(oldPos, position);
+    return substring(oldPos, position);
   }
 
   /**
@@ -109,7 +131,23 @@ public class StringReader {
       readChar();
     }
 
-    return underlying.substring(start, position);
+    return substring(start, position);
+  }
+
+  /**
+   * Skips all whitespace characters, placing the cursor at the next non-whitespace char.
+   */
+  public void skipWhitespace() {
+    if (tokens != null) {
+      int nextToken = tokens.skipGap(position);
+      if (nextToken >= 0) {
+        position = nextToken;
+        return;
+      }
+    }
+    while (position < length() && Character.isWhitespace(charAt(position))) {
+      position++;
+    }
   }
 
   /**
@@ -119,7 +157,7 @@ public class StringReader {
    * @return the read string or an empty String, if the regex didn't match
    */
   public String readRegex(Pattern pattern) {
-    Matcher matcher = pattern.matcher(getUnderlying());
+    Matcher matcher = pattern.matcher(getText());
     boolean resultFound = matcher.find(position);
 
     if (!resultFound) {
@@ -134,7 +172,26 @@ public class StringReader {
     int start = position;
     position = matcher.end();
 
-    return underlying.substring(start, position);
+    return substring(start, position);
+  }
+
+  /**
+   * Reads the whole string matched by the matcher.
+   *
+   * @param matcher the matcher to use
+   * @return the read string or an empty String, if the matcher didn't match
+   * @see RegexMatcher#linear(String)
+   */
+  public String readRegex(RegexMatcher matcher) {
+    int end = matcher.matchAt(getText(), position);
+    if (end < 0) {
+      return "";
+    }
+
+    int start = position;
+    position = end;
+
+    return substring(start, position);
   }
 
   /**
@@ -143,7 +200,68 @@ public class StringReader {
    * @return the reamining string
    */
   public String readRemaining() {
-    return readWhile(it -> true);
+    int start = position;
+    position = length();
+    return substring(start, position);
+  }
+
+  /**
+   * Finds the next occurrence of one of two chars, starting at the current position. Does not
+   * consume anything.
+   *
+   * @param first the first char to look for
+   * @param second the second char to look for
+   * @return the index of the first occurrence or -1 if neither char occurs in the remaining input
+   */
+  public int indexOfEither(char first, char second) {
+    for (int i = position; i < length(); i++) {
+      char c = charAt(i);
+      if (c == first || c == second) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Tokenizes the whole input once and attaches the result to this reader. Afterwards whitespace
+   * is skipped by jumping to the next token and token oriented parsers can look up where the
+   * current token ends.
+   *
+   * @return this reader
+   * @see TokenIndex
+   */
+  public StringReader tokenize() {
+    if (tokens == null) {
+      tokens = TokenIndex.of(getUnderlying());
+    }
+    return this;
+  }
+
+  /**
+   * Returns the token index attached to this reader.
+   *
+   * @return the token index or null if the input was not tokenized
+   * @see #tokenize()
+   */
+  public TokenIndex getTokens() {
+    return tokens;
+  }
+
+  /**
+   * Attaches a token index to this reader, e.g. one shared with the reader it was copied from.
+   *
+   * @param tokens the token index of the input
+   */
+  protected void setTokens(TokenIndex tokens) {
+    this.tokens = tokens;
+  }
+
+  /**
+   * Drops the token index, e.g. because the input changed.
+   */
+  protected void clearTokens() {
+    this.tokens = null;
   }
 
   /**
@@ -155,6 +273,47 @@ public class StringReader {
     return underlying;
   }
 
+  /**
+   * Returns the length of the whole input.
+   *
+   * @return the length of the input
+   */
+  public int length() {
+    return underlying.length();
+  }
+
+  /**
+   * Returns a part of the input.
+   *
+   * @param start the start, inclusive
+   * @param end the end, exclusive
+   * @return the text between start and end
+   */
+  public String substring(int start, int end) {
+    return underlying.substring(start, end);
+  }
+
+  /**
+   * Returns a single char of the input.
+   *
+   * @param index the index of the char
+   * @return the char
+   */
+  protected char charAt(int index) {
+    return underlying.charAt(index);
+  }
+
+  /**
+   * Returns the input as a char sequence regular expressions can be matched against. Unlike
+   * {@link #getUnderlying()} this does not force readers over other representations to convert
+   * the whole input to a string.
+   *
+   * @return the input
+   */
+  public CharSequence getText() {
+    return underlying;
+  }
+
   /**
    * Returns the current position of this reader.
    *
@@ -173,12 +332,26 @@ public class StringReader {
     this.position = position;
   }
 
+  /**
+   * Starts reading a new input, so the reader can be reused instead of allocating a new one. The
+   * position is set to the start and the token index is dropped.
+   *
+   * @param input the new input
+   */
+  public void reset(String input) {
+    this.underlying = input;
+    this.position = 0;
+    this.tokens = null;
+  }
+
   /**
    * Returns a copy of this reader which is at the same position.
    *
    * @return a copy of this reader   *
    */
   public StringReader copy() {
-    return new StringReader(underlying, position);
+    StringReader copy = new StringReader(underlying, position);
+    copy.tokens = tokens;
+    return copy;
   }
 }
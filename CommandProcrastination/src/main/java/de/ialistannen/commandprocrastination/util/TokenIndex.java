@@ -0,0 +1,175 @@
+package de.ialistannen.commandprocrastination.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The offsets of all whitespace separated tokens of an input, computed in a single pass.
+ *
+ * <p><br>A token starting with a quote ({@code "} or {@code '}) extends to the matching closing
+ * quote, so it may contain whitespace. A backslash escapes the next character inside quotes.
+ * Unterminated quotes extend to the end of the input.</p>
+ * <p><br>Attach an index to a {@link StringReader} using {@link StringReader#tokenize()} to let
+ * whitespace skipping and token oriented parsers jump between tokens instead of scanning.</p>
+ */
+public final class TokenIndex {
+
+  private final int[] offsets;
+  private final int count;
+  private final BitSet escaped;
+  private final int inputLength;
+  private int hint;
+
+  private TokenIndex(int[] offsets, int count, BitSet escaped, int inputLength) {
+    this.offsets = offsets;
+    this.count = count;
+    this.escaped = escaped;
+    this.inputLength = inputLength;
+  }
+
+  /**
+   * Tokenizes the input.
+   *
+   * @param input the input
+   * @return the token index
+   */
+  public static TokenIndex of(String input) {
+    int[] offsets = new int[16];
+    int count = 0;
+    BitSet escaped = new BitSet();
+
+    int position = 0;
+    while (position < input.length()) {
+      char c = input.charAt(position);
+      if (Character.isWhitespace(c)) {
+        position++;
+        continue;
+      }
+
+      int start = position;
+      if (c == '"' || c == '\'') {
+        position++;
+        while (position < input.length() && input.charAt(position) != c) {
+          if (input.charAt(position) == '\\') {
+            escaped.set(count);
+            position++;
+          }
+          position++;
+        }
+        position = Math.min(position + 1, input.length());
+      } else {
+        while (position < input.length() && !Character.isWhitespace(input.charAt(position))) {
+          position++;
+        }
+      }
+
+      if (count * 2 == offsets.length) {
+        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+      }
+      offsets[count * 2] = start;
+      offsets[count * 2 + 1] = position;
+      count++;
+    }
+
+    return new TokenIndex(offsets, count, escaped, input.length());
+  }
+
+  /**
+   * Returns the number of tokens.
+   *
+   * @return the number of tokens
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Returns the start of a token.
+   *
+   * @param index the index of the token
+   * @return the start of the token, inclusive
+   */
+  public int getStart(int index) {
+    return offsets[index * 2];
+  }
+
+  /**
+   * Returns the end of a token.
+   *
+   * @param index the index of the token
+   * @return the end of the token, exclusive
+   */
+  public int getEnd(int index) {
+    return offsets[index * 2 + 1];
+  }
+
+  /**
+   * Returns whether a quoted token contains escape sequences.
+   *
+   * @param index the index of the token
+   * @return true if the token contains a backslash escape
+   */
+  public boolean isEscaped(int index) {
+    return escaped.get(index);
+  }
+
+  /**
+   * Returns the token starting exactly at the given position.
+   *
+   * @param position the position
+   * @return the index of the token or -1 if no token starts there
+   */
+  public int getTokenStartingAt(int position) {
+    int index = findFirstStartingAtOrAfter(position);
+    return index < count && getStart(index) == position ? index : -1;
+  }
+
+  /**
+   * Returns the start of the next token if the position is between two tokens, i.e. not inside
+   * one.
+   *
+   * @param position the position
+   * @return the start of the next token, the input length if no token follows or -1 if the
+   *     position is inside a token
+   */
+  public int skipGap(int position) {
+    int index = findFirstStartingAtOrAfter(position);
+    if (index > 0 && getEnd(index - 1) > position) {
+      return -1;
+    }
+    return index < count ? getStart(index) : Math.max(position, inputLength);
+  }
+
+  /**
+   * Finds the first token starting at or after the position. Parsers mostly move forward by one
+   * token, so the previous result is checked before searching.
+   */
+  private int findFirstStartingAtOrAfter(int position) {
+    int candidate = hint;
+    for (int i = 0; i < 2 && candidate <= count; i++, candidate++) {
+      if (isFirstStartingAtOrAfter(candidate, position)) {
+        hint = candidate;
+        return candidate;
+      }
+    }
+
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getStart(middle) < position) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    hint = low;
+    return low;
+  }
+
+  private boolean isFirstStartingAtOrAfter(int index, int position) {
+    boolean startsAfter = index == count || getStart(index) >= position;
+    boolean previousBefore = index == 0 || getStart(index - 1) < position;
+    return startsAfter && previousBefore;
+  }
+}
@@ -0,0 +1,293 @@
+package de.ialistannen.commandprocrastination.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link StringReader} over UTF-8 encoded bytes, which only decodes them once it has to.
+ *
+ * <p><br>As long as the parsers only look at ASCII characters, they are read from the bytes
+ * directly and searches use the word-at-a-time {@link ByteScanner}. Checking a literal prefix or
+ * reading a number therefore never allocates the {@link String} of the whole input. The first
+ * access to a non ASCII part of the input (or to {@link #getUnderlying()}) decodes it once and
+ * from then on the reader behaves like a normal string reader.</p>
+ * <p><br>Positions are always char indices into the decoded input, just like for a {@link
+ * StringReader}.</p>
+ */
+public class Utf8Reader extends StringReader {
+
+  private static final byte[] NO_BYTES = new byte[0];
+
+  private byte[] bytes;
+  private int offset;
+  private int byteLength;
+  /**
+   * The number of leading bytes known to be ASCII. Stops at the first non ASCII byte.
+   */
+  private int asciiChecked;
+  private String decoded;
+
+  /**
+   * Creates a new reader over the given bytes.
+   *
+   * @param bytes the UTF-8 encoded input. Must not be modified afterwards
+   */
+  public Utf8Reader(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Creates a new reader over a part of the given bytes.
+   *
+   * @param bytes the UTF-8 encoded input. Must not be modified afterwards
+   * @param offset the offset of the input in the array
+   * @param length the length of the input in bytes
+   */
+  public Utf8Reader(byte[] bytes, int offset, int length) {
+    super(null, 0);
+    reset(bytes, offset, length);
+  }
+
+  /**
+   * Starts reading new bytes, so the reader can be reused instead of allocating a new one. The
+   * position is set to the start and the token index is dropped.
+   *
+   * @param bytes the UTF-8 encoded input. Must not be modified afterwards
+   * @param offset the offset of the input in the array
+   * @param length the length of the input in bytes
+   */
+  public void reset(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException(
+          "Range [" + offset + ", " + (offset + length) + ") out of bounds for " + bytes.length
+      );
+    }
+    this.bytes = bytes;
+    this.offset = offset;
+    this.byteLength = length;
+    this.asciiChecked = 0;
+    this.decoded = null;
+    clearTokens();
+    reset(0);
+  }
+
+  /**
+   * Starts reading a string. The reader then behaves like a normal string reader.
+   *
+   * @param input the new input
+   */
+  @Override
+  public void reset(String input) {
+    this.bytes = NO_BYTES;
+    this.offset = 0;
+    this.byteLength = 0;
+    this.asciiChecked = 0;
+    this.decoded = input;
+    clearTokens();
+    reset(0);
+  }
+
+  /**
+   * Creates a new reader over the remaining bytes of the buffer. The position of the buffer is
+   * not changed. Buffers not backed by an array are copied.
+   *
+   * @param buffer the UTF-8 encoded input. Must not be modified afterwards
+   * @return the reader
+   */
+  public static Utf8Reader of(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return new Utf8Reader(
+          buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()
+      );
+    }
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return new Utf8Reader(bytes);
+  }
+
+  private Utf8Reader(Utf8Reader other) {
+    this(other.bytes, other.offset, other.byteLength);
+    this.asciiChecked = other.asciiChecked;
+    this.decoded = other.decoded;
+    setTokens(other.getTokens());
+    reset(other.getPosition());
+  }
+
+  /**
+   * Returns whether the first {@code end} chars of the input are ASCII and can be read from the
+   * bytes directly.
+   */
+  private boolean isAsciiUpTo(int end) {
+    while (asciiChecked < end && asciiChecked < byteLength && bytes[offset + asciiChecked] >= 0) {
+      asciiChecked++;
+    }
+    return asciiChecked >= end;
+  }
+
+  private boolean isAllAscii() {
+    return isAsciiUpTo(byteLength);
+  }
+
+  @Override
+  public boolean canRead() {
+    return canRead(1);
+  }
+
+  @Override
+  public boolean canRead(int amount) {
+    int end = getPosition() + amount;
+    if (decoded == null && isAsciiUpTo(end)) {
+      return true;
+    }
+    return end <= length();
+  }
+
+  @Override
+  public boolean startsWith(String prefix) {
+    int start = getPosition();
+    int end = start + prefix.length();
+    if (decoded != null || !isAsciiUpTo(end)) {
+      if (decoded == null && isAllAscii()) {
+        // The input is too short
+        return false;
+      }
+      return getUnderlying().startsWith(prefix, start);
+    }
+
+    for (int i = 0; i < prefix.length(); i++) {
+      if (bytes[offset + start + i] != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void skipWhitespace() {
+    int start = getPosition();
+    if (getTokens() == null && decoded == null && isAsciiUpTo(start)) {
+      int end = ByteScanner.indexOfNonWhitespace(bytes, offset + start, offset + byteLength);
+      // A non ASCII char might still be whitespace, so those are left to the string reader
+      if (end == offset + byteLength || bytes[end] >= 0) {
+        reset(end - offset);
+        return;
+      }
+    }
+    super.skipWhitespace();
+  }
+
+  @Override
+  public int indexOfEither(char first, char second) {
+    int start = getPosition();
+    if (decoded == null && first < 128 && second < 128 && isAsciiUpTo(start)) {
+      int found = ByteScanner.indexOfEither(
+          bytes, offset + start, offset + byteLength, (byte) first, (byte) second
+      );
+      int end = found < 0 ? byteLength : found - offset;
+      // Positions past non ASCII bytes are not byte offsets anymore
+      if (isAsciiUpTo(end)) {
+        return found < 0 ? -1 : end;
+      }
+    }
+    return super.indexOfEither(first, second);
+  }
+
+  @Override
+  public int length() {
+    if (decoded == null && isAllAscii()) {
+      return byteLength;
+    }
+    return getUnderlying().length();
+  }
+
+  @Override
+  public String substring(int start, int end) {
+    if (decoded == null && isAsciiUpTo(end) && start >= 0 && start <= end) {
+      return new String(bytes, offset + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+    return getUnderlying().substring(start, end);
+  }
+
+  @Override
+  protected char charAt(int index) {
+    if (decoded == null && index >= 0 && isAsciiUpTo(index + 1)) {
+      return (char) bytes[offset + index];
+    }
+    return getUnderlying().charAt(index);
+  }
+
+  @Override
+  public CharSequence getText() {
+    if (decoded == null && isAllAscii()) {
+      return new AsciiSequence(0, byteLength);
+    }
+    return getUnderlying();
+  }
+
+  /**
+   * Returns the decoded input.
+   *
+   * @return the decoded input
+   */
+  @Override
+  public String getUnderlying() {
+    if (decoded == null) {
+      decoded = new String(bytes, offset, byteLength, StandardCharsets.UTF_8);
+    }
+    return decoded;
+  }
+
+  /**
+   * Returns whether the input was decoded to a string.
+   *
+   * @return true if the input was decoded
+   */
+  public boolean isDecoded() {
+    return decoded != null;
+  }
+
+  @Override
+  public Utf8Reader copy() {
+    return new Utf8Reader(this);
+  }
+
+  /**
+   * A view on a range of the bytes, if they are all ASCII.
+   */
+  private class AsciiSequence implements CharSequence {
+
+    private final int start;
+    private final int end;
+
+    AsciiSequence(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length()) {
+        throw new IndexOutOfBoundsException("Index " + index + " for length " + length());
+      }
+      return (char) bytes[offset + start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      if (from < 0 || from > to || to > length()) {
+        throw new IndexOutOfBoundsException("[" + from + ", " + to + ") for " + length());
+      }
+      return new AsciiSequence(start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      return new String(bytes, offset + start, length(), StandardCharsets.ISO_8859_1);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package de.ialistannen.commandprocrastination.util.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.LongSupplier;
+
+/**
+ * A thread safe, size-bounded cache with per-entry expiry.
+ *
+ * <p><br>Eviction follows the W-TinyLFU idea: New entries land in a small LRU window. When the
+ * window overflows, its oldest entry only replaces the least recently used entry of the main
+ * region if it was requested more often recently, as estimated by a {@link FrequencySketch}. This
+ * keeps popular entries cached even when many one-off keys pass through.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class BoundedCache<K, V> {
+
+  private final LinkedHashMap<K, CacheEntry<V>> window;
+  private final LinkedHashMap<K, CacheEntry<V>> main;
+  private final int maxWindowSize;
+  private final int maxMainSize;
+  private final FrequencySketch sketch;
+  private final LongSupplier ticker;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Creates a new bounded cache.
+   *
+   * @param maximumSize the maximum number of entries
+   */
+  public BoundedCache(int maximumSize) {
+    this(maximumSize, System::nanoTime);
+  }
+
+  /**
+   * Creates a new bounded cache.
+   *
+   * @param maximumSize the maximum number of entries
+   * @param ticker the time source in nanoseconds
+   */
+  public BoundedCache(int maximumSize, LongSupplier ticker) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("The maximum size must be positive, was " + maximumSize);
+    }
+    this.maxWindowSize = Math.max(1, maximumSize / 100);
+    this.maxMainSize = maximumSize - maxWindowSize;
+    this.window = new LinkedHashMap<>(16, 0.75f, true);
+    this.main = new LinkedHashMap<>(16, 0.75f, true);
+    this.sketch = new FrequencySketch(maximumSize);
+    this.ticker = ticker;
+  }
+
+  /**
+   * Returns the cached value for a key.
+   *
+   * @param key the key
+   * @return the value or null if it is not cached or expired
+   */
+  public synchronized V getIfPresent(K key) {
+    sketch.increment(key);
+
+    CacheEntry<V> entry = getLiveEntry(key);
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+
+    hitCount++;
+    return entry.value;
+  }
+
+  /**
+   * Caches a value.
+   *
+   * @param key the key
+   * @param value the value
+   * @param timeToLive how long the value should be cached
+   */
+  public synchronized void put(K key, V value, Duration timeToLive) {
+    CacheEntry<V> entry = new CacheEntry<>(value, ticker.getAsLong() + timeToLive.toNanos());
+
+    if (main.containsKey(key)) {
+      main.put(key, entry);
+      return;
+    }
+
+    window.put(key, entry);
+    if (window.size() > maxWindowSize) {
+      Iterator<Entry<K, CacheEntry<V>>> iterator = window.entrySet().iterator();
+      Entry<K, CacheEntry<V>> candidate = iterator.next();
+      iterator.remove();
+      admit(candidate.getKey(), candidate.getValue());
+    }
+  }
+
+  /**
+   * Removes a key from the cache.
+   *
+   * @param key the key
+   */
+  public synchronized void invalidate(K key) {
+    window.remove(key);
+    main.remove(key);
+  }
+
+  /**
+   * Removes all entries from the cache.
+   */
+  public synchronized void invalidateAll() {
+    window.clear();
+    main.clear();
+  }
+
+  /**
+   * Returns the number of cached entries, including expired ones that were not cleaned up yet.
+   *
+   * @return the number of cached entries
+   */
+  public synchronized int size() {
+    return window.size() + main.size();
+  }
+
+  /**
+   * Returns the current statistics.
+   *
+   * @return the current statistics
+   */
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hitCount, missCount, evictionCount);
+  }
+
+  private CacheEntry<V> getLiveEntry(K key) {
+    Map<K, CacheEntry<V>> region = window;
+    CacheEntry<V> entry = window.get(key);
+    if (entry == null) {
+      region = main;
+      entry = main.get(key);
+    }
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.expiresAt - ticker.getAsLong() <= 0) {
+      region.remove(key);
+      return null;
+    }
+
+    return entry;
+  }
+
+  private void admit(K candidateKey, CacheEntry<V> candidate) {
+    if (main.size() < maxMainSize) {
+      main.put(candidateKey, candidate);
+      return;
+    }
+
+    evictionCount++;
+    if (maxMainSize == 0) {
+      return;
+    }
+
+    Iterator<Entry<K, CacheEntry<V>>> iterator = main.entrySet().iterator();
+    Entry<K, CacheEntry<V>> victim = iterator.next();
+    boolean victimExpired = victim.getValue().expiresAt - ticker.getAsLong() <= 0;
+
+    if (victimExpired || sketch.frequency(candidateKey) > sketch.frequency(victim.getKey())) {
+      iterator.remove();
+      main.put(candidateKey, candidate);
+    }
+  }
+
+  /**
+   * A cached value with its expiry time.
+   *
+   * @param <V> the type of the value
+   */
+  private static class CacheEntry<V> {
+
+    private final V value;
+    private final long expiresAt;
+
+    CacheEntry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package de.ialistannen.commandprocrastination.util.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * Describes how a cache bounds, expires and refreshes its entries.
+ *
+ * <p><br>Use {@link #builder()} to create one.</p>
+ */
+public final class CachePolicy {
+
+  private final int maximumSize;
+  private final Duration timeToLive;
+  private final Duration refreshAfter;
+  private final Executor refreshExecutor;
+  private final LongSupplier ticker;
+
+  private CachePolicy(Builder builder) {
+    this.maximumSize = builder.maximumSize;
+    this.timeToLive = builder.timeToLive;
+    this.refreshAfter = builder.refreshAfter;
+    this.refreshExecutor = builder.refreshExecutor;
+    this.ticker = builder.ticker;
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   *
+   * @return the maximum number of entries
+   */
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Returns how long an entry is cached after it was loaded.
+   *
+   * @return the time to live
+   */
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * Returns the age after which an entry is reloaded in the background when it is requested.
+   *
+   * @return the refresh age or null if entries are not refreshed ahead of their expiry
+   */
+  public Duration getRefreshAfter() {
+    return refreshAfter;
+  }
+
+  /**
+   * Returns the executor background refreshes are run on.
+   *
+   * @return the executor used for refreshes
+   */
+  public Executor getRefreshExecutor() {
+    return refreshExecutor;
+  }
+
+  /**
+   * Returns the time source in nanoseconds.
+   *
+   * @return the time source
+   */
+  public LongSupplier getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Creates a new builder for a policy.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder for {@link CachePolicy}s.
+   */
+  public static final class Builder {
+
+    private int maximumSize = 1000;
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Duration refreshAfter;
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+    private LongSupplier ticker = System::nanoTime;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the maximum number of entries. Defaults to 1000.
+     *
+     * @param maximumSize the maximum number of entries
+     * @return this builder
+     */
+    public Builder maximumSize(int maximumSize) {
+      if (maximumSize <= 0) {
+        throw new IllegalArgumentException(
+            "The maximum size must be positive, was " + maximumSize
+        );
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Sets how long an entry is cached after it was loaded. Defaults to five minutes.
+     *
+     * @param timeToLive the time to live
+     * @return this builder
+     */
+    public Builder timeToLive(Duration timeToLive) {
+      if (timeToLive.isNegative() || timeToLive.isZero()) {
+        throw new IllegalArgumentException("The time to live must be positive, was " + timeToLive);
+      }
+      this.timeToLive = timeToLive;
+      return this;
+    }
+
+    /**
+     * Reloads entries older than the given age in the background when they are requested, so
+     * popular entries are replaced before they expire. The stale value is returned meanwhile.
+     *
+     * @param refreshAfter the age after which entries are refreshed
+     * @param refreshExecutor the executor to run refreshes on
+     * @return this builder
+     */
+    public Builder refreshAfter(Duration refreshAfter, Executor refreshExecutor) {
+      if (refreshAfter.isNegative()) {
+        throw new IllegalArgumentException("The refresh age must not be negative");
+      }
+      this.refreshAfter = refreshAfter;
+      this.refreshExecutor = refreshExecutor;
+      return this;
+    }
+
+    /**
+     * Sets the time source. Defaults to {@link System#nanoTime()}.
+     *
+     * @param ticker the time source in nanoseconds
+     * @return this builder
+     */
+    public Builder ticker(LongSupplier ticker) {
+      this.ticker = ticker;
+      return this;
+    }
+
+    /**
+     * Builds the policy.
+     *
+     * @return the built policy
+     */
+    public CachePolicy build() {
+      return new CachePolicy(this);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package de.ialistannen.commandprocrastination.util.cache;
+
+import lombok.Data;
+
+/**
+ * A snapshot of the statistics of a {@link BoundedCache}.
+ */
+@Data
+public class CacheStats {
+
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+
+  /**
+   * Returns the ratio of lookups that were hits.
+   *
+   * @return the hit rate between 0 and 1. 1 if there were no lookups yet
+   */
+  public double getHitRate() {
+    long lookups = hitCount + missCount;
+    return lookups == 0 ? 1 : (double) hitCount / lookups;
+  }
+}
@@ -0,0 +1,90 @@
+package de.ialistannen.commandprocrastination.util.cache;
+
+/**
+ * A count-min sketch estimating how often a key was seen recently.
+ *
+ * <p><br>Counters saturate at 15 and are halved periodically, so the estimate favours recent
+ * popularity over all-time popularity.</p>
+ */
+class FrequencySketch {
+
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0x7b8a62c1, 0x1b873593, 0xcc9e2d51};
+
+  private final int[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * Creates a new sketch.
+   *
+   * @param expectedSize the number of distinct keys the sketch should be able to distinguish
+   */
+  FrequencySketch(int expectedSize) {
+    int width = Integer.highestOneBit(Math.max(expectedSize, 8) - 1) << 1;
+    this.table = new int[width * DEPTH];
+    this.mask = width - 1;
+    this.sampleSize = Math.max(10 * expectedSize, 100);
+  }
+
+  /**
+   * Records an occurrence of the key.
+   *
+   * @param key the key
+   */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+
+    for (int row = 0; row < DEPTH; row++) {
+      int index = indexOf(hash, row);
+      if (table[index] < MAX_COUNT) {
+        table[index]++;
+        added = true;
+      }
+    }
+
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * Returns the estimated frequency of the key.
+   *
+   * @param key the key
+   * @return the estimated frequency
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+
+    for (int row = 0; row < DEPTH; row++) {
+      frequency = Math.min(frequency, table[indexOf(hash, row)]);
+    }
+
+    return frequency;
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] >>>= 1;
+    }
+    additions /= 2;
+  }
+
+  private int indexOf(int hash, int row) {
+    int rowHash = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+    rowHash ^= rowHash >>> 15;
+    return row * (mask + 1) + (rowHash & mask);
+  }
+
+  private static int spread(int hash) {
+    hash ^= hash >>> 17;
+    hash *= 0xed5ad4bb;
+    hash ^= hash >>> 11;
+    return hash;
+  }
+}
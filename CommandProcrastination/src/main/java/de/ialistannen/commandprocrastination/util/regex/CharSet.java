@@ -0,0 +1,64 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+/**
+ * A set of characters matched by a single regex element, e.g. {@code a}, {@code [a-z]} or {@code
+ * \d}.
+ */
+@FunctionalInterface
+interface CharSet {
+
+  CharSet ANY_BUT_LINE_TERMINATOR = c -> !isLineTerminator(c);
+  CharSet DIGIT = c -> c >= '0' && c <= '9';
+  CharSet WORD = c -> (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || DIGIT.contains(c)
+      || c == '_';
+  CharSet WHITESPACE = c -> c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f'
+      || c == '\r';
+
+  /**
+   * Returns whether the character is part of this set.
+   *
+   * @param c the character
+   * @return true if the character is part of this set
+   */
+  boolean contains(char c);
+
+  /**
+   * Returns the complement of this set.
+   *
+   * @return a set containing every character not in this one
+   */
+  default CharSet negate() {
+    return c -> !contains(c);
+  }
+
+  /**
+   * Returns a set containing a single character.
+   *
+   * @param expected the character
+   * @return the set
+   */
+  static CharSet of(char expected) {
+    return c -> c == expected;
+  }
+
+  /**
+   * Returns a set containing a range of characters.
+   *
+   * @param from the first character, inclusive
+   * @param to the last character, inclusive
+   * @return the set
+   */
+  static CharSet range(char from, char to) {
+    return c -> c >= from && c <= to;
+  }
+
+  /**
+   * Returns whether the character ends a line, as understood by {@link java.util.regex}.
+   *
+   * @param c the character
+   * @return true if the character is a line terminator
+   */
+  static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
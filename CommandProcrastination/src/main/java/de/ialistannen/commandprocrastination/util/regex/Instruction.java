@@ -0,0 +1,42 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+/**
+ * A single instruction of a program run by {@link NfaRegexMatcher}.
+ */
+final class Instruction {
+
+  /**
+   * Consumes a character from {@link #chars}.
+   */
+  static final int CHAR = 0;
+  /**
+   * Continues at {@link #first} and, with lower priority, at {@link #second}.
+   */
+  static final int SPLIT = 1;
+  /**
+   * Continues at {@link #first}.
+   */
+  static final int JUMP = 2;
+  /**
+   * Only continues at the start of the match.
+   */
+  static final int BEGIN = 3;
+  /**
+   * Only continues at the end of the input or before a final line terminator.
+   */
+  static final int END = 4;
+  /**
+   * The pattern matched.
+   */
+  static final int MATCH = 5;
+
+  final int opcode;
+  final CharSet chars;
+  int first;
+  int second;
+
+  Instruction(int opcode, CharSet chars) {
+    this.opcode = opcode;
+    this.chars = chars;
+  }
+}
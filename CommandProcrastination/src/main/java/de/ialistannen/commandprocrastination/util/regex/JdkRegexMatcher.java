@@ -0,0 +1,38 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link RegexMatcher} using {@link java.util.regex}.
+ */
+class JdkRegexMatcher implements RegexMatcher {
+
+  private final Pattern pattern;
+
+  JdkRegexMatcher(Pattern pattern) {
+    this.pattern = pattern;
+  }
+
+  @Override
+  public int matchAt(CharSequence input, int start) {
+    Matcher matcher = pattern.matcher(input);
+    matcher.region(start, input.length());
+    return matcher.lookingAt() ? matcher.end() : -1;
+  }
+
+  @Override
+  public String getPattern() {
+    return pattern.pattern();
+  }
+
+  @Override
+  public boolean isLinear() {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "JdkRegexMatcher{" + pattern + '}';
+  }
+}
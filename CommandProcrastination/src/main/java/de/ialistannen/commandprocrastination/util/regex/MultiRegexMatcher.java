@@ -0,0 +1,86 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches several patterns in a single pass over the input.
+ *
+ * <p><br>The programs of all patterns are merged into one automaton, which is simulated once. The
+ * cost therefore grows with the combined size of the patterns, but the input is read only once
+ * instead of once per pattern.</p>
+ */
+public final class MultiRegexMatcher {
+
+  private final List<RegexMatcher> matchers;
+  private final PikeVm vm;
+
+  private MultiRegexMatcher(List<RegexMatcher> matchers, PikeVm vm) {
+    this.matchers = matchers;
+    this.vm = vm;
+  }
+
+  /**
+   * Combines the given matchers.
+   *
+   * @param matchers the matchers. All must be {@link RegexMatcher#isLinear() linear} matchers
+   *     created by {@link RegexMatcher#linear(String)}
+   * @return the combined matcher
+   * @throws IllegalArgumentException if a matcher was not created by {@link
+   *     RegexMatcher#linear(String)}
+   */
+  public static MultiRegexMatcher of(List<RegexMatcher> matchers) {
+    List<Instruction> program = new ArrayList<>();
+    int[] entryPoints = new int[matchers.size()];
+
+    for (int pattern = 0; pattern < matchers.size(); pattern++) {
+      RegexMatcher matcher = matchers.get(pattern);
+      if (!(matcher instanceof NfaRegexMatcher)) {
+        throw new IllegalArgumentException("Can not combine " + matcher);
+      }
+
+      int offset = program.size();
+      entryPoints[pattern] = offset;
+      for (Instruction instruction : ((NfaRegexMatcher) matcher).getProgram()) {
+        program.add(relocate(instruction, offset, pattern));
+      }
+    }
+
+    return new MultiRegexMatcher(
+        List.copyOf(matchers),
+        new PikeVm(program.toArray(new Instruction[0]), entryPoints)
+    );
+  }
+
+  private static Instruction relocate(Instruction instruction, int offset, int pattern) {
+    Instruction copy = new Instruction(instruction.opcode, instruction.chars);
+    if (instruction.opcode == Instruction.MATCH) {
+      copy.first = pattern;
+    } else {
+      copy.first = instruction.first + offset;
+      copy.second = instruction.second + offset;
+    }
+    return copy;
+  }
+
+  /**
+   * Matches all patterns at the given position.
+   *
+   * @param input the input
+   * @param start the position the matches must start at
+   * @return the end of the match of every pattern, in the order they were given, or -1 for
+   *     patterns that did not match
+   */
+  public int[] matchAll(CharSequence input, int start) {
+    return vm.run(input, start);
+  }
+
+  /**
+   * Returns the combined matchers.
+   *
+   * @return the combined matchers
+   */
+  public List<RegexMatcher> getMatchers() {
+    return matchers;
+  }
+}
@@ -0,0 +1,49 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+/**
+ * A {@link RegexMatcher} simulating the pattern's NFA, which takes time linear in the length of
+ * the input.
+ *
+ * @see PikeVm
+ */
+class NfaRegexMatcher implements RegexMatcher {
+
+  private final String pattern;
+  private final Instruction[] program;
+  private final PikeVm vm;
+
+  NfaRegexMatcher(String pattern, Instruction[] program) {
+    this.pattern = pattern;
+    this.program = program;
+    this.vm = new PikeVm(program, new int[]{0});
+  }
+
+  @Override
+  public int matchAt(CharSequence input, int start) {
+    return vm.run(input, start)[0];
+  }
+
+  /**
+   * Returns the compiled program. Must not be modified.
+   *
+   * @return the program
+   */
+  Instruction[] getProgram() {
+    return program;
+  }
+
+  @Override
+  public String getPattern() {
+    return pattern;
+  }
+
+  @Override
+  public boolean isLinear() {
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "NfaRegexMatcher{" + pattern + '}';
+  }
+}
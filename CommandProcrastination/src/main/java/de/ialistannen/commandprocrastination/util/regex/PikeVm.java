@@ -0,0 +1,183 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import java.util.Arrays;
+
+/**
+ * Simulates an NFA program for one or more patterns at once, in time linear in the length of the
+ * input.
+ *
+ * <p><br>All possible paths through the patterns are advanced in lock step, one input character
+ * at a time, so the input is never read twice. Paths are kept in priority order and once a path
+ * of a pattern matches, all paths of the same pattern with a lower priority are dropped. This
+ * yields the match a backtracking engine would have found for every pattern, as long as no
+ * repeated group can match empty input. {@link RegexCompiler} rejects those.</p>
+ */
+final class PikeVm {
+
+  private final Instruction[] program;
+  private final int[] entryPoints;
+  private final int[] patternOf;
+
+  /**
+   * Creates a new VM.
+   *
+   * @param program the program. {@link Instruction#MATCH} instructions store the index of their
+   *     pattern in {@link Instruction#first}
+   * @param entryPoints the first instruction of every pattern
+   */
+  PikeVm(Instruction[] program, int[] entryPoints) {
+    this.program = program;
+    this.entryPoints = entryPoints;
+    this.patternOf = new int[program.length];
+
+    for (int pattern = 0; pattern < entryPoints.length; pattern++) {
+      int end = pattern + 1 < entryPoints.length ? entryPoints[pattern + 1] : program.length;
+      for (int pc = entryPoints[pattern]; pc < end; pc++) {
+        patternOf[pc] = pattern;
+      }
+    }
+  }
+
+  /**
+   * Matches all patterns at the given position.
+   *
+   * @param input the input
+   * @param start the position the matches must start at
+   * @return the end of the match of every pattern or -1 if it did not match
+   */
+  int[] run(CharSequence input, int start) {
+    int[] ends = new int[entryPoints.length];
+    Arrays.fill(ends, -1);
+
+    ThreadList current = new ThreadList(program.length);
+    ThreadList next = new ThreadList(program.length);
+    // every instruction pushes at most two successors
+    int[] stack = new int[program.length * 2 + 1];
+    // the step in which a pattern matched, after which its remaining threads are dropped
+    int[] cutIn = new int[entryPoints.length];
+    Arrays.fill(cutIn, -1);
+
+    for (int entryPoint : entryPoints) {
+      addThread(current, entryPoint, input, start, start, stack);
+    }
+
+    for (int position = start; !current.isEmpty(); position++) {
+      boolean canRead = position < input.length();
+      char c = canRead ? input.charAt(position) : 0;
+      next.clear();
+
+      for (int i = 0; i < current.size; i++) {
+        int pc = current.threads[i];
+        int pattern = patternOf[pc];
+        if (cutIn[pattern] == position) {
+          continue;
+        }
+        Instruction instruction = program[pc];
+
+        if (instruction.opcode == Instruction.MATCH) {
+          ends[pattern] = position;
+          cutIn[pattern] = position;
+          continue;
+        }
+        if (canRead && instruction.chars.contains(c)) {
+          addThread(next, pc + 1, input, start, position + 1, stack);
+        }
+      }
+
+      ThreadList swap = current;
+      current = next;
+      next = swap;
+    }
+
+    return ends;
+  }
+
+  /**
+   * Adds the thread and every thread reachable from it without consuming input, in priority
+   * order.
+   */
+  private void addThread(ThreadList list, int pc, CharSequence input, int start, int position,
+      int[] stack) {
+    int stackSize = 0;
+    stack[stackSize++] = pc;
+
+    while (stackSize > 0) {
+      int current = stack[--stackSize];
+      if (!list.mark(current)) {
+        continue;
+      }
+      Instruction instruction = program[current];
+
+      switch (instruction.opcode) {
+        case Instruction.JUMP:
+          stack[stackSize++] = instruction.first;
+          break;
+        case Instruction.SPLIT:
+          stack[stackSize++] = instruction.second;
+          stack[stackSize++] = instruction.first;
+          break;
+        case Instruction.BEGIN:
+          if (position == start) {
+            stack[stackSize++] = current + 1;
+          }
+          break;
+        case Instruction.END:
+          if (isAtEnd(input, position)) {
+            stack[stackSize++] = current + 1;
+          }
+          break;
+        default:
+          list.add(current);
+      }
+    }
+  }
+
+  private static boolean isAtEnd(CharSequence input, int position) {
+    int remaining = input.length() - position;
+    if (remaining == 0) {
+      return true;
+    }
+    if (remaining == 1) {
+      return CharSet.isLineTerminator(input.charAt(position));
+    }
+    return remaining == 2 && input.charAt(position) == '\r' && input.charAt(position + 1) == '\n';
+  }
+
+  /**
+   * An ordered set of program counters.
+   */
+  private static class ThreadList {
+
+    private final int[] threads;
+    private final int[] markedIn;
+    private int generation;
+    private int size;
+
+    ThreadList(int programLength) {
+      this.threads = new int[programLength];
+      this.markedIn = new int[programLength];
+      this.generation = 1;
+    }
+
+    boolean mark(int pc) {
+      if (markedIn[pc] == generation) {
+        return false;
+      }
+      markedIn[pc] = generation;
+      return true;
+    }
+
+    void add(int pc) {
+      threads[size++] = pc;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    void clear() {
+      size = 0;
+      generation++;
+    }
+  }
+}
@@ -0,0 +1,518 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles the regex subset supported by {@link NfaRegexMatcher} into a program for it.
+ *
+ * <p><br>The pattern is parsed into a small syntax tree by recursive descent, which is then
+ * translated using Thompson's construction. Alternatives and quantifiers become {@link
+ * Instruction#SPLIT}s whose first branch has the higher priority, which lets the matcher
+ * reproduce the choices of a backtracking engine.</p>
+ * <p><br>{@link java.util.regex} stops repeating a group once an iteration matched nothing, which
+ * a Thompson NFA can not express. Repeating a group that can match empty input is therefore
+ * rejected, so such patterns fall back to the backtracking engine.</p>
+ */
+final class RegexCompiler {
+
+  private static final int MAX_REPETITIONS = 1000;
+  private static final int MAX_PROGRAM_SIZE = 100_000;
+
+  private final String regex;
+  private int position;
+
+  private RegexCompiler(String regex) {
+    this.regex = regex;
+  }
+
+  /**
+   * Compiles a pattern.
+   *
+   * @param regex the pattern
+   * @return the program
+   * @throws PatternSyntaxException if the pattern is invalid or not supported
+   */
+  static Instruction[] compile(String regex) {
+    RegexCompiler compiler = new RegexCompiler(regex);
+    Node root = compiler.parseAlternation();
+    if (compiler.position < regex.length()) {
+      throw compiler.error("Unmatched closing ')'");
+    }
+
+    List<Instruction> program = new ArrayList<>();
+    try {
+      root.emit(program);
+    } catch (ProgramTooLargeException e) {
+      throw compiler.error("Pattern too large");
+    }
+    program.add(new Instruction(Instruction.MATCH, null));
+    if (program.size() > MAX_PROGRAM_SIZE) {
+      throw compiler.error("Pattern too large");
+    }
+    return program.toArray(new Instruction[0]);
+  }
+
+  private Node parseAlternation() {
+    List<Node> alternatives = new ArrayList<>();
+    alternatives.add(parseConcatenation());
+
+    while (position < regex.length() && regex.charAt(position) == '|') {
+      position++;
+      alternatives.add(parseConcatenation());
+    }
+
+    return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+  }
+
+  private Node parseConcatenation() {
+    List<Node> elements = new ArrayList<>();
+
+    while (position < regex.length()) {
+      char c = regex.charAt(position);
+      if (c == '|' || c == ')') {
+        break;
+      }
+      elements.add(parseQuantified());
+    }
+
+    return new Concatenation(elements);
+  }
+
+  private Node parseQuantified() {
+    Node atom = parseAtom();
+
+    while (position < regex.length()) {
+      int min;
+      int max;
+      char c = regex.charAt(position);
+
+      if (c == '*') {
+        min = 0;
+        max = -1;
+        position++;
+      } else if (c == '+') {
+        min = 1;
+        max = -1;
+        position++;
+      } else if (c == '?') {
+        min = 0;
+        max = 1;
+        position++;
+      } else if (c == '{') {
+        int[] bounds = parseBounds();
+        min = bounds[0];
+        max = bounds[1];
+      } else {
+        break;
+      }
+
+      boolean greedy = true;
+      if (position < regex.length() && regex.charAt(position) == '?') {
+        greedy = false;
+        position++;
+      } else if (position < regex.length() && regex.charAt(position) == '+') {
+        throw error("Possessive quantifiers are not supported");
+      }
+      // A single optional iteration can not be followed by an empty one
+      if (atom.isNullable() && max != min && !(min == 0 && max == 1)) {
+        throw error("Repeating a group that can match empty input is not supported");
+      }
+
+      atom = new Repetition(atom, min, max, greedy);
+    }
+
+    return atom;
+  }
+
+  private int[] parseBounds() {
+    int start = position;
+    position++;
+
+    int min = parseNumber();
+    int max = min;
+    if (position < regex.length() && regex.charAt(position) == ',') {
+      position++;
+      max = position < regex.length() && regex.charAt(position) == '}' ? -1 : parseNumber();
+    }
+    if (position >= regex.length() || regex.charAt(position) != '}') {
+      position = start;
+      throw error("Unclosed counted closure");
+    }
+    position++;
+
+    if (max != -1 && max < min) {
+      throw error("Illegal repetition range");
+    }
+    if (Math.max(min, max) > MAX_REPETITIONS) {
+      throw error("Repetition count too large");
+    }
+    return new int[]{min, max};
+  }
+
+  private int parseNumber() {
+    int start = position;
+    while (position < regex.length() && Character.isDigit(regex.charAt(position))) {
+      position++;
+    }
+    if (start == position || position - start > 6) {
+      throw error("Illegal repetition");
+    }
+    return Integer.parseInt(regex.substring(start, position));
+  }
+
+  private Node parseAtom() {
+    char c = regex.charAt(position);
+
+    switch (c) {
+      case '(':
+        return parseGroup();
+      case '[':
+        return new CharNode(parseClass());
+      case '.':
+        position++;
+        return new CharNode(CharSet.ANY_BUT_LINE_TERMINATOR);
+      case '^':
+        position++;
+        return new Assertion(Instruction.BEGIN);
+      case '$':
+        position++;
+        return new Assertion(Instruction.END);
+      case '\\':
+        return new CharNode(parseEscape());
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+        throw error("Dangling meta character '" + c + "'");
+      default:
+        position++;
+        return new CharNode(CharSet.of(c));
+    }
+  }
+
+  private Node parseGroup() {
+    position++;
+    if (regex.startsWith("?:", position)) {
+      position += 2;
+    } else if (position < regex.length() && regex.charAt(position) == '?') {
+      throw error("Lookaround, flags and named groups are not supported");
+    }
+
+    Node content = parseAlternation();
+    if (position >= regex.length() || regex.charAt(position) != ')') {
+      throw error("Unclosed group");
+    }
+    position++;
+    return content;
+  }
+
+  private CharSet parseClass() {
+    position++;
+    boolean negated = false;
+    if (position < regex.length() && regex.charAt(position) == '^') {
+      negated = true;
+      position++;
+    }
+
+    List<CharSet> members = new ArrayList<>();
+    while (true) {
+      if (position >= regex.length()) {
+        throw error("Unclosed character class");
+      }
+      char c = regex.charAt(position);
+      if (c == ']' && !members.isEmpty()) {
+        position++;
+        break;
+      }
+      if (c == '[' || regex.startsWith("&&", position)) {
+        throw error("Nested classes and intersections are not supported");
+      }
+
+      if (c == '\\') {
+        CharSet escaped = parseEscape();
+        members.add(escaped);
+        continue;
+      }
+
+      position++;
+      if (position + 1 < regex.length() && regex.charAt(position) == '-'
+          && regex.charAt(position + 1) != ']') {
+        position++;
+        char to = regex.charAt(position);
+        if (to == '\\' || to == '[') {
+          throw error("Unsupported range end");
+        }
+        position++;
+        if (to < c) {
+          throw error("Illegal character range");
+        }
+        members.add(CharSet.range(c, to));
+      } else {
+        members.add(CharSet.of(c));
+      }
+    }
+
+    CharSet[] memberArray = members.toArray(new CharSet[0]);
+    CharSet union = ch -> {
+      for (CharSet member : memberArray) {
+        if (member.contains(ch)) {
+          return true;
+        }
+      }
+      return false;
+    };
+    return negated ? union.negate() : union;
+  }
+
+  private CharSet parseEscape() {
+    position++;
+    if (position >= regex.length()) {
+      throw error("Unexpected end of pattern");
+    }
+    char c = regex.charAt(position++);
+
+    switch (c) {
+      case 'd':
+        return CharSet.DIGIT;
+      case 'D':
+        return CharSet.DIGIT.negate();
+      case 'w':
+        return CharSet.WORD;
+      case 'W':
+        return CharSet.WORD.negate();
+      case 's':
+        return CharSet.WHITESPACE;
+      case 'S':
+        return CharSet.WHITESPACE.negate();
+      case 't':
+        return CharSet.of('\t');
+      case 'n':
+        return CharSet.of('\n');
+      case 'r':
+        return CharSet.of('\r');
+      case 'f':
+        return CharSet.of('\f');
+      case 'e':
+        return CharSet.of('\u001B');
+      case 'u':
+        return CharSet.of((char) parseHex(4));
+      case 'x':
+        return CharSet.of((char) parseHex(2));
+      default:
+        if (Character.isLetterOrDigit(c)) {
+          position--;
+          throw error("Unsupported escape '\\" + c + "'");
+        }
+        return CharSet.of(c);
+    }
+  }
+
+  private int parseHex(int digits) {
+    if (position + digits > regex.length()) {
+      throw error("Illegal hexadecimal escape sequence");
+    }
+    try {
+      int value = Integer.parseInt(regex.substring(position, position + digits), 16);
+      position += digits;
+      return value;
+    } catch (NumberFormatException e) {
+      throw error("Illegal hexadecimal escape sequence");
+    }
+  }
+
+  private PatternSyntaxException error(String description) {
+    return new PatternSyntaxException(description, regex, position);
+  }
+
+  /**
+   * A node in the syntax tree.
+   */
+  private interface Node {
+
+    /**
+     * Appends the instructions for this node.
+     *
+     * @param program the program to append to
+     */
+    void emit(List<Instruction> program);
+
+    /**
+     * Returns whether this node can match without consuming input.
+     *
+     * @return true if this node can match empty input
+     */
+    boolean isNullable();
+  }
+
+  private static class CharNode implements Node {
+
+    private final CharSet chars;
+
+    CharNode(CharSet chars) {
+      this.chars = chars;
+    }
+
+    @Override
+    public void emit(List<Instruction> program) {
+      program.add(new Instruction(Instruction.CHAR, chars));
+    }
+
+    @Override
+    public boolean isNullable() {
+      return false;
+    }
+  }
+
+  private static class Assertion implements Node {
+
+    private final int opcode;
+
+    Assertion(int opcode) {
+      this.opcode = opcode;
+    }
+
+    @Override
+    public void emit(List<Instruction> program) {
+      program.add(new Instruction(opcode, null));
+    }
+
+    @Override
+    public boolean isNullable() {
+      return true;
+    }
+  }
+
+  private static class Concatenation implements Node {
+
+    private final List<Node> elements;
+
+    Concatenation(List<Node> elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public void emit(List<Instruction> program) {
+      for (Node element : elements) {
+        element.emit(program);
+      }
+    }
+
+    @Override
+    public boolean isNullable() {
+      return elements.stream().allMatch(Node::isNullable);
+    }
+  }
+
+  private static class Alternation implements Node {
+
+    private final List<Node> alternatives;
+
+    Alternation(List<Node> alternatives) {
+      this.alternatives = alternatives;
+    }
+
+    @Override
+    public void emit(List<Instruction> program) {
+      List<Instruction> jumpsToEnd = new ArrayList<>();
+
+      for (int i = 0; i < alternatives.size() - 1; i++) {
+        Instruction split = new Instruction(Instruction.SPLIT, null);
+        program.add(split);
+        split.first = program.size();
+        alternatives.get(i).emit(program);
+
+        Instruction jump = new Instruction(Instruction.JUMP, null);
+        program.add(jump);
+        jumpsToEnd.add(jump);
+        split.second = program.size();
+      }
+      alternatives.get(alternatives.size() - 1).emit(program);
+
+      for (Instruction jump : jumpsToEnd) {
+        jump.first = program.size();
+      }
+    }
+
+    @Override
+    public boolean isNullable() {
+      return alternatives.stream().anyMatch(Node::isNullable);
+    }
+  }
+
+  private static class Repetition implements Node {
+
+    private final Node body;
+    private final int min;
+    private final int max;
+    private final boolean greedy;
+
+    Repetition(Node body, int min, int max, boolean greedy) {
+      this.body = body;
+      this.min = min;
+      this.max = max;
+      this.greedy = greedy;
+    }
+
+    @Override
+    public void emit(List<Instruction> program) {
+      for (int i = 0; i < min; i++) {
+        body.emit(program);
+        checkSize(program);
+      }
+
+      if (max == -1) {
+        int loopStart = program.size();
+        Instruction split = new Instruction(Instruction.SPLIT, null);
+        program.add(split);
+        int bodyStart = program.size();
+        body.emit(program);
+        Instruction jump = new Instruction(Instruction.JUMP, null);
+        jump.first = loopStart;
+        program.add(jump);
+        setBranches(split, bodyStart, program.size());
+        return;
+      }
+
+      List<Instruction> splits = new ArrayList<>();
+      for (int i = min; i < max; i++) {
+        Instruction split = new Instruction(Instruction.SPLIT, null);
+        program.add(split);
+        splits.add(split);
+        split.first = program.size();
+        body.emit(program);
+        checkSize(program);
+      }
+      for (Instruction split : splits) {
+        setBranches(split, split.first, program.size());
+      }
+    }
+
+    @Override
+    public boolean isNullable() {
+      return min == 0 || body.isNullable();
+    }
+
+    private void setBranches(Instruction split, int repeat, int skip) {
+      split.first = greedy ? repeat : skip;
+      split.second = greedy ? skip : repeat;
+    }
+
+    private void checkSize(List<Instruction> program) {
+      if (program.size() > MAX_PROGRAM_SIZE) {
+        throw new ProgramTooLargeException();
+      }
+    }
+  }
+
+  /**
+   * Thrown while emitting, where the position in the pattern is not known anymore.
+   */
+  private static class ProgramTooLargeException extends RuntimeException {
+
+    ProgramTooLargeException() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches a regular expression at a given position of the input.
+ *
+ * <p><br>Matching is anchored: Only a match starting exactly at the given position counts, like
+ * {@link java.util.regex.Matcher#lookingAt()} on a region starting there. If several matches
+ * start there, the one a backtracking engine would find is returned.</p>
+ */
+public interface RegexMatcher {
+
+  /**
+   * Matches the pattern at the given position.
+   *
+   * @param input the input
+   * @param start the position the match must start at
+   * @return the end of the match (exclusive) or -1 if the pattern does not match
+   */
+  int matchAt(CharSequence input, int start);
+
+  /**
+   * Returns the pattern of this matcher.
+   *
+   * @return the pattern
+   */
+  String getPattern();
+
+  /**
+   * Returns whether this matcher takes time linear in the length of the input for every input.
+   *
+   * @return true if the matcher never backtracks
+   */
+  boolean isLinear();
+
+  /**
+   * Compiles a pattern for the linear time engine, which supports literals, character classes,
+   * {@code .}, the escapes {@code \d \w \s} and their negations, groups, alternation, greedy and
+   * lazy quantifiers, {@code ^} and {@code $}. Groups that can match empty input may only be
+   * made optional or repeated an exact number of times, as the engine can not mirror how {@link
+   * java.util.regex} ends a loop after an empty iteration.
+   *
+   * @param regex the pattern
+   * @return a linear time matcher
+   * @throws PatternSyntaxException if the pattern is invalid or uses unsupported features like
+   *     backreferences, lookaround or repeated groups matching empty input
+   */
+  static RegexMatcher linear(String regex) {
+    return new NfaRegexMatcher(regex, RegexCompiler.compile(regex));
+  }
+
+  /**
+   * Creates a matcher using {@link java.util.regex}, which supports every feature but backtracks.
+   *
+   * @param pattern the pattern
+   * @return a backtracking matcher
+   */
+  static RegexMatcher backtracking(Pattern pattern) {
+    return new JdkRegexMatcher(pattern);
+  }
+
+  /**
+   * Compiles a pattern using the linear time engine if it supports it and {@link
+   * java.util.regex} otherwise.
+   *
+   * @param regex the pattern
+   * @return a matcher for the pattern
+   * @throws PatternSyntaxException if the pattern is invalid
+   * @see #linear(String)
+   * @see RegexSafety#findCatastrophicConstruct(String)
+   */
+  static RegexMatcher compile(String regex) {
+    try {
+      return linear(regex);
+    } catch (PatternSyntaxException e) {
+      return backtracking(Pattern.compile(regex));
+    }
+  }
+}
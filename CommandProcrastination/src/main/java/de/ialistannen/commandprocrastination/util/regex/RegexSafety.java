@@ -0,0 +1,152 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * Finds constructs that make backtracking regex engines take exponential time on hostile input.
+ */
+public final class RegexSafety {
+
+  /**
+   * Looks for a group that is repeated without bound and itself contains a repeated element, like
+   * {@code (a+)+} or {@code (\w*\s?)*}. A backtracking engine tries every way of splitting the
+   * input between the inner and outer repetition before giving up.
+   *
+   * <p><br>This is a heuristic: It may flag harmless patterns like {@code (ab+)*}, but it catches
+   * the nested quantifiers behind most catastrophic backtracking.</p>
+   *
+   * @param regex the pattern
+   * @return a description of the first dangerous construct or empty if none was found
+   */
+  public static Optional<String> findCatastrophicConstruct(String regex) {
+    // for every open group: whether it contains a quantifier
+    Deque<Boolean> groups = new ArrayDeque<>();
+    boolean lastGroupQuantified = false;
+    int lastGroupStart = -1;
+    Deque<Integer> groupStarts = new ArrayDeque<>();
+
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+
+      if (c == '\\') {
+        i++;
+        lastGroupQuantified = false;
+        continue;
+      }
+      if (c == '[') {
+        i = skipClass(regex, i);
+        lastGroupQuantified = false;
+        continue;
+      }
+
+      switch (c) {
+        case '(':
+          groups.push(false);
+          groupStarts.push(i);
+          i = skipGroupPrefix(regex, i + 1) - 1;
+          break;
+        case ')':
+          if (groups.isEmpty()) {
+            return Optional.empty();
+          }
+          lastGroupQuantified = groups.pop();
+          lastGroupStart = groupStarts.pop();
+          if (lastGroupQuantified && !groups.isEmpty()) {
+            groups.pop();
+            groups.push(true);
+          }
+          continue;
+        case '*':
+        case '+':
+        case '{':
+          if (lastGroupQuantified && isUnbounded(regex, i)) {
+            return Optional.of(
+                "Nested quantifier in '" + regex.substring(lastGroupStart, i + 1)
+                    + "' at index " + i
+            );
+          }
+          if (!groups.isEmpty()) {
+            groups.pop();
+            groups.push(true);
+          }
+          break;
+        case '?':
+          // also marks lazy quantifiers, which does not change the result
+          if (!groups.isEmpty()) {
+            groups.pop();
+            groups.push(true);
+          }
+          break;
+        default:
+          break;
+      }
+      lastGroupQuantified = false;
+    }
+
+    return Optional.empty();
+  }
+
+  private static boolean isUnbounded(String regex, int quantifierStart) {
+    char c = regex.charAt(quantifierStart);
+    if (c != '{') {
+      return true;
+    }
+    int end = regex.indexOf('}', quantifierStart);
+    return end > 0 && regex.charAt(end - 1) == ',';
+  }
+
+  /**
+   * Skips prefixes like {@code ?:}, {@code ?<=} or {@code ?<name>}, whose question mark is no
+   * quantifier.
+   */
+  private static int skipGroupPrefix(String regex, int start) {
+    if (start >= regex.length() || regex.charAt(start) != '?') {
+      return start;
+    }
+    int i = start + 1;
+    if (i >= regex.length()) {
+      return i;
+    }
+    char c = regex.charAt(i);
+    if (c == ':' || c == '=' || c == '!' || c == '>') {
+      return i + 1;
+    }
+    if (c == '<') {
+      if (i + 1 < regex.length() && (regex.charAt(i + 1) == '=' || regex.charAt(i + 1) == '!')) {
+        return i + 2;
+      }
+      int end = regex.indexOf('>', i);
+      return end < 0 ? regex.length() : end + 1;
+    }
+    // inline flags like (?i) or (?i:...)
+    while (i < regex.length() && (Character.isLetter(regex.charAt(i)) || regex.charAt(i) == '-')) {
+      i++;
+    }
+    if (i < regex.length() && regex.charAt(i) == ':') {
+      i++;
+    }
+    return i;
+  }
+
+  private static int skipClass(String regex, int start) {
+    int i = start + 1;
+    if (i < regex.length() && regex.charAt(i) == '^') {
+      i++;
+    }
+    // a leading ']' is a literal
+    if (i < regex.length() && regex.charAt(i) == ']') {
+      i++;
+    }
+    for (; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == ']') {
+        return i;
+      }
+    }
+    return regex.length();
+  }
+}
@@ -0,0 +1,256 @@
+package de.ialistannen.commandprocrastination.autodiscovery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.CommandInterceptor;
+import de.ialistannen.commandprocrastination.command.execution.SimpleExecutor;
+import de.ialistannen.commandprocrastination.command.execution.CommandNotFoundException;
+import de.ialistannen.commandprocrastination.command.tree.CommandChain;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandModulesTest {
+
+  private static final String GREETING = "commandmodules.greeting";
+
+  @TempDir
+  Path temp;
+
+  private CommandNode<GlobalContext> root;
+  private CommandModules<GlobalContext> modules;
+  private SimpleExecutor<RequestContext> executor;
+
+  @BeforeEach
+  void setUp() {
+    root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    root.addChild(new CommandNode<>(Command.nop(), "builtin"));
+    modules = new CommandModules<>(
+        root, new InitialContextInstantiator<>(new GlobalContext(new RequestContext()))
+    );
+    executor = new SimpleExecutor<>(new CommandFinder<>(root));
+  }
+
+  @AfterEach
+  void tearDown() {
+    System.clearProperty(GREETING);
+  }
+
+  @Test
+  void loadsCommandsOfModule() throws Exception {
+    modules.load("greeter", compileModule("v1", "greet", "hello"));
+
+    executor.execute("greet", new RequestContext());
+    assertEquals("v1", System.getProperty(GREETING));
+
+    List<CommandNode<GlobalContext>> commands = modules.getCommands("greeter");
+    assertEquals(1, commands.size());
+    assertEquals(List.of("hello"), headNames(commands.get(0).getChildren()));
+    assertEquals(List.of("builtin", "greet"), headNames(root.getChildren()));
+    assertEquals(Set.of("greeter"), modules.getModuleNames());
+  }
+
+  @Test
+  void replacesPreviousVersion() throws Exception {
+    modules.load("greeter", compileModule("v1", "greet", "hello"));
+    CommandNode<GlobalContext> old = modules.getCommands("greeter").get(0);
+
+    CompletableFuture<Void> released = modules.load(
+        "greeter", compileModule("v2", "greet", "hello")
+    );
+
+    assertTrue(released.isDone());
+    CommandNode<GlobalContext> replacement = modules.getCommands("greeter").get(0);
+    assertNotSame(old.getClass(), replacement.getClass());
+    assertEquals(List.of("builtin", "greet"), headNames(root.getChildren()));
+
+    executor.execute("greet", new RequestContext());
+    assertEquals("v2", System.getProperty(GREETING));
+  }
+
+  @Test
+  void releasesOldVersionOnceRequestsDrain() throws Exception {
+    modules.load("greeter", compileModule("v1", "greet", "hello"));
+    CommandNode<GlobalContext> old = modules.getCommands("greeter").get(0);
+
+    // simulate a request that found the old command and is still running
+    RequestContext running = new RequestContext();
+    CommandChain<GlobalContext> chain = new CommandChain<>(old);
+    for (CommandInterceptor<GlobalContext> interceptor : old.getInterceptorChain()) {
+      interceptor.afterFind(chain, running);
+    }
+
+    CompletableFuture<Void> released = modules.load(
+        "greeter", compileModule("v2", "greet", "hello")
+    );
+    assertFalse(released.isDone());
+
+    for (CommandInterceptor<GlobalContext> interceptor : old.getInterceptorChain()) {
+      interceptor.afterExecute(chain, running);
+    }
+    assertTrue(released.isDone());
+  }
+
+  @Test
+  void keepsOldVersionWhileReusedContextRunsNestedCommands() throws Exception {
+    modules.load("greeter", compileModule("v1", "greet", "hello"));
+    CommandNode<GlobalContext> old = modules.getCommands("greeter").get(0);
+    CommandInterceptor<GlobalContext>[] interceptors = old.getInterceptorChain();
+
+    // the outer command runs a nested one with the same request context
+    RequestContext running = new RequestContext();
+    CommandChain<GlobalContext> outer = new CommandChain<>(old);
+    CommandChain<GlobalContext> nested = new CommandChain<>(old);
+    for (CommandInterceptor<GlobalContext> interceptor : interceptors) {
+      interceptor.afterFind(outer, running);
+      interceptor.beforeExecute(outer, running);
+      interceptor.afterFind(nested, running);
+      interceptor.beforeExecute(nested, running);
+    }
+
+    CompletableFuture<Void> released = modules.load(
+        "greeter", compileModule("v2", "greet", "hello")
+    );
+
+    for (CommandInterceptor<GlobalContext> interceptor : interceptors) {
+      interceptor.afterExecute(nested, running);
+    }
+    assertFalse(released.isDone());
+
+    for (CommandInterceptor<GlobalContext> interceptor : interceptors) {
+      interceptor.afterExecute(outer, running);
+    }
+    assertTrue(released.isDone());
+  }
+
+  @Test
+  void keepsOldVersionIfNewOneCanNotBeMounted() throws Exception {
+    modules.load("greeter", compileModule("v1", "greet", "hello"));
+    CommandNode<GlobalContext> old = modules.getCommands("greeter").get(0);
+    Path catastrophic = compileModuleWithHead(
+        "v2",
+        "new de.ialistannen.commandprocrastination.parsing.defaults.RegexParser("
+            + "de.ialistannen.commandprocrastination.util.regex.RegexMatcher.backtracking("
+            + "java.util.regex.Pattern.compile(\"(\\\\w+\\\\s?)*!\")))",
+        "hello"
+    );
+
+    assertThrows(IllegalArgumentException.class, () -> modules.load("greeter", catastrophic));
+
+    assertSame(old, modules.getCommands("greeter").get(0));
+    assertEquals(List.of("builtin", "greet"), headNames(root.getChildren()));
+
+    assertTrue(modules.unload("greeter").isDone());
+    assertEquals(List.of("builtin"), headNames(root.getChildren()));
+  }
+
+  @Test
+  void listsModulesInLoadOrder() throws Exception {
+    for (String name : List.of("zeta", "alpha", "mu", "beta")) {
+      modules.load(name, compileModule(name, name, "hello"));
+    }
+    modules.load("alpha", compileModule("alpha2", "alpha", "hello"));
+
+    assertEquals(List.of("zeta", "alpha", "mu", "beta"), List.copyOf(modules.getModuleNames()));
+  }
+
+  @Test
+  void unloadsModule() throws Exception {
+    modules.load("greeter", compileModule("v1", "greet", "hello"));
+
+    assertTrue(modules.unload("greeter").isDone());
+
+    assertEquals(List.of("builtin"), headNames(root.getChildren()));
+    assertThrows(
+        CommandNotFoundException.class,
+        () -> executor.execute("greet", new RequestContext())
+    );
+  }
+
+  private List<String> headNames(List<CommandNode<GlobalContext>> nodes) {
+    return nodes.stream()
+        .map(it -> it.getHeadParser().getName().orElse(""))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Compiles a module with a top level command and a sub command into a fresh directory.
+   */
+  private Path compileModule(String version, String name, String subName)
+      throws IOException, URISyntaxException {
+    return compileModuleWithHead(version, "\"" + name + "\"", subName);
+  }
+
+  /**
+   * Compiles a module whose top level command uses the given head, as a Java expression.
+   */
+  private Path compileModuleWithHead(String version, String head, String subName)
+      throws IOException, URISyntaxException {
+    Path source = temp.resolve(version + "-src").resolve("hotmodule");
+    Path output = Files.createDirectories(temp.resolve(version));
+    Files.createDirectories(source);
+
+    Files.writeString(source.resolve("Top.java"), String.join("\n",
+        "package hotmodule;",
+        "import de.ialistannen.commandprocrastination.autodiscovery.ActiveCommand;",
+        "import de.ialistannen.commandprocrastination.command.tree.CommandNode;",
+        "import de.ialistannen.commandprocrastination.context.GlobalContext;",
+        "@ActiveCommand(name = \"top\")",
+        "public class Top extends CommandNode<GlobalContext> {",
+        "  public Top() {",
+        "    super(context -> System.setProperty(\"" + GREETING + "\", \"" + version + "\"),",
+        "        " + head + ");",
+        "  }",
+        "}"
+    ));
+    Files.writeString(source.resolve("Sub.java"), String.join("\n",
+        "package hotmodule;",
+        "import de.ialistannen.commandprocrastination.autodiscovery.ActiveCommand;",
+        "import de.ialistannen.commandprocrastination.command.tree.CommandNode;",
+        "import de.ialistannen.commandprocrastination.context.GlobalContext;",
+        "@ActiveCommand(name = \"sub\", parent = \"top\")",
+        "public class Sub extends CommandNode<GlobalContext> {",
+        "  public Sub() {",
+        "    super(\"" + subName + "\");",
+        "  }",
+        "}"
+    ));
+
+    String classpath = Path.of(
+        CommandNode.class.getProtectionDomain().getCodeSource().getLocation().toURI()
+    ).toString();
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int result = compiler.run(
+        null, null, null,
+        "-classpath", classpath,
+        "-d", output.toString(),
+        source.resolve("Top.java").toString(),
+        source.resolve("Sub.java").toString()
+    );
+    assertEquals(0, result);
+
+    return output;
+  }
+}
@@ -0,0 +1,166 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.greedyOptionalPhrase;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.ResultCommand;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingCommandExecutorTest {
+
+  private AtomicLong now;
+  private AtomicInteger computations;
+  private CommandNode<GlobalContext> echo;
+  private SimpleExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    now = new AtomicLong();
+    computations = new AtomicInteger();
+
+    CommandNode<GlobalContext> root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    echo = new CommandNode<>(
+        ResultCommand.<GlobalContext, String>of(
+            context -> {
+              String argument = context.shift(greedyOptionalPhrase());
+              if (argument.equals("fail")) {
+                throw new IllegalStateException("Failed");
+              }
+              if (argument.equals("stale")) {
+                // The data behind the result changes while it is computed
+                executor.invalidateCachedResults();
+              }
+              if (argument.equals("usage")) {
+                throw AbnormalCommandResultException.showUsage();
+              }
+              return argument + " #" + computations.incrementAndGet();
+            },
+            (context, result) -> ((ScopedRequestContext) context.getRequestContext())
+                .delivered = result
+        ),
+        SuccessParser.wrapping(literal("echo"))
+    );
+    echo.setData(DefaultDataKey.IDEMPOTENT, true);
+    echo.setData(DefaultDataKey.RESULT_CACHE_TTL, Duration.ofSeconds(10));
+    root.addChild(echo);
+
+    executor = new SimpleExecutor(new CommandFinder<>(root), now::get);
+  }
+
+  @Test
+  void cachesResultsWithTimeToLive() throws ParseException {
+    assertEquals("hello #1", run("echo hello", "a"));
+    assertEquals("hello #1", run("echo hello", "a"));
+
+    assertEquals(1, computations.get());
+    assertEquals(1, executor.getCacheStats().getHitCount());
+  }
+
+  @Test
+  void doesNotCacheWithoutTimeToLive() throws ParseException {
+    echo.setData(DefaultDataKey.RESULT_CACHE_TTL, null);
+
+    assertEquals("hello #1", run("echo hello", "a"));
+    assertEquals("hello #2", run("echo hello", "a"));
+  }
+
+  @Test
+  void expiresResults() throws ParseException {
+    assertEquals("hello #1", run("echo hello", "a"));
+
+    now.addAndGet(Duration.ofSeconds(9).toNanos());
+    assertEquals("hello #1", run("echo hello", "a"));
+
+    now.addAndGet(Duration.ofSeconds(2).toNanos());
+    assertEquals("hello #2", run("echo hello", "a"));
+  }
+
+  @Test
+  void separatesScopes() throws ParseException {
+    assertEquals("hello #1", run("echo hello", "a"));
+    assertEquals("hello #2", run("echo hello", "b"));
+    assertEquals("hello #1", run("echo hello", "a"));
+  }
+
+  @Test
+  void normalizesArguments() throws ParseException {
+    assertEquals("hello world #1", run("echo hello world", "a"));
+    assertEquals("hello world #1", run("echo  hello \t world  ", "a"));
+    assertEquals("hello worlds #2", run("echo hello worlds", "a"));
+  }
+
+  @Test
+  void doesNotCacheFailures() throws ParseException {
+    assertThrows(IllegalStateException.class, () -> run("echo fail", "a"));
+    assertThrows(IllegalStateException.class, () -> run("echo fail", "a"));
+    assertThrows(AbnormalCommandResultException.class, () -> run("echo usage", "a"));
+    assertThrows(AbnormalCommandResultException.class, () -> run("echo usage", "a"));
+
+    assertEquals(0, executor.getCacheStats().getHitCount());
+  }
+
+  @Test
+  void invalidatesResults() throws ParseException {
+    assertEquals("hello #1", run("echo hello", "a"));
+    executor.invalidateCachedResults();
+
+    assertEquals("hello #2", run("echo hello", "a"));
+  }
+
+  @Test
+  void doesNotCacheResultsComputedDuringInvalidation() throws ParseException {
+    assertEquals("stale #1", run("echo stale", "a"));
+    assertEquals("stale #2", run("echo stale", "a"));
+
+    assertEquals(0, executor.getCacheStats().getHitCount());
+  }
+
+  private String run(String input, String scope) throws ParseException {
+    ScopedRequestContext request = new ScopedRequestContext(scope);
+    executor.execute(input, request);
+    return request.delivered;
+  }
+
+  private static class ScopedRequestContext extends RequestContext {
+
+    private final String scope;
+    private String delivered;
+
+    ScopedRequestContext(String scope) {
+      this.scope = scope;
+    }
+  }
+
+  private static class SimpleExecutor
+      extends CachingCommandExecutor<GlobalContext, ScopedRequestContext> {
+
+    SimpleExecutor(CommandFinder<GlobalContext> finder, LongSupplier ticker) {
+      super(finder, SuccessParser.wrapping(literal(" ")), 100, ticker);
+    }
+
+    @Override
+    protected GlobalContext createContext(ScopedRequestContext requestContext) {
+      return new GlobalContext(requestContext);
+    }
+
+    @Override
+    protected Object getResultScope(ScopedRequestContext requestContext) {
+      return requestContext.scope;
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.greedyOptionalPhrase;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.ResultCommand;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.util.SingleFlight.Computation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CoalescingCommandExecutorTest {
+
+  private static final int REQUESTS = 8;
+
+  private ExecutorService threads;
+  private AtomicInteger computations;
+  private CountDownLatch arrived;
+  private volatile ResultKey runningKey;
+  private SimpleExecutor executor;
+  private CommandNode<GlobalContext> leaderboard;
+
+  @BeforeEach
+  void setUp() {
+    threads = Executors.newFixedThreadPool(REQUESTS);
+    computations = new AtomicInteger();
+    arrived = new CountDownLatch(REQUESTS);
+
+    CommandNode<GlobalContext> root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    leaderboard = new CommandNode<>(
+        ResultCommand.<GlobalContext, String>of(
+            context -> {
+              computations.incrementAndGet();
+              awaitFollowers();
+              return "board " + context.shift(greedyOptionalPhrase());
+            },
+            (context, result) -> {
+              DeliveryRequestContext request = (DeliveryRequestContext) context.getRequestContext();
+              request.delivered = result;
+              request.remaining = request.getReader().peekRemaining();
+            }
+        ),
+        SuccessParser.wrapping(literal("leaderboard"))
+    );
+    root.addChild(leaderboard);
+
+    executor = new SimpleExecutor(new CommandFinder<>(root));
+  }
+
+  @AfterEach
+  void tearDown() {
+    threads.shutdownNow();
+  }
+
+  @Test
+  void sharesComputationForIdempotentNodes() throws Exception {
+    leaderboard.setData(DefaultDataKey.IDEMPOTENT, true);
+
+    List<DeliveryRequestContext> requests = runConcurrently("leaderboard weekly");
+
+    assertEquals(1, computations.get());
+    for (DeliveryRequestContext request : requests) {
+      assertEquals("board weekly", request.delivered);
+    }
+  }
+
+  @Test
+  void consumesArgumentsOfJoiningRequests() throws Exception {
+    leaderboard.setData(DefaultDataKey.IDEMPOTENT, true);
+
+    List<DeliveryRequestContext> requests = runConcurrently("leaderboard   weekly");
+
+    for (DeliveryRequestContext request : requests) {
+      assertEquals("", request.remaining);
+    }
+  }
+
+  @Test
+  void computesForEveryRequestIfNotIdempotent() throws Exception {
+    List<DeliveryRequestContext> requests = runConcurrently("leaderboard weekly");
+
+    assertEquals(REQUESTS, computations.get());
+    for (DeliveryRequestContext request : requests) {
+      assertEquals("board weekly", request.delivered);
+    }
+  }
+
+  private List<DeliveryRequestContext> runConcurrently(String input) throws Exception {
+    List<DeliveryRequestContext> requests = new ArrayList<>();
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < REQUESTS; i++) {
+      DeliveryRequestContext request = new DeliveryRequestContext();
+      requests.add(request);
+      futures.add(threads.submit(() -> {
+        executor.execute(input, request);
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    return requests;
+  }
+
+  /**
+   * Blocks the computing request until all others are waiting for its result, if they coalesce.
+   */
+  private void awaitFollowers() {
+    if (!leaderboard.hasOptionalData(DefaultDataKey.IDEMPOTENT)) {
+      return;
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    try {
+      if (!arrived.await(5, TimeUnit.SECONDS)) {
+        fail("Not all requests arrived");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    while (executor.getWaitingCount(runningKey) < REQUESTS - 1) {
+      if (System.nanoTime() - deadline > 0) {
+        fail("Not all requests joined the running computation");
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  private static class DeliveryRequestContext extends RequestContext {
+
+    private volatile String delivered;
+    private volatile String remaining;
+  }
+
+  private class SimpleExecutor
+      extends CoalescingCommandExecutor<GlobalContext, DeliveryRequestContext> {
+
+    SimpleExecutor(CommandFinder<GlobalContext> finder) {
+      super(finder, SuccessParser.wrapping(literal(" ")));
+    }
+
+    @Override
+    protected Object computeResult(ResultKey key, Computation<Object> computation)
+        throws ParseException {
+      runningKey = key;
+      arrived.countDown();
+      return super.computeResult(key, computation);
+    }
+
+    @Override
+    protected GlobalContext createContext(DeliveryRequestContext requestContext) {
+      return new GlobalContext(requestContext);
+    }
+  }
+}
@@ -3,21 +3,30 @@ package de.ialistannen.commandprocrastination.command.execution;
 import static de.ialistannen.commandprocrastination.parsing.defaults.IntegerParsers.integer;
 import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.greedyPhrase;
 import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.word;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import de.ialistannen.commandprocrastination.command.Command;
 import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
 import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
 import de.ialistannen.commandprocrastination.context.GlobalContext;
 import de.ialistannen.commandprocrastination.context.RequestContext;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
 import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentSchema;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentStore;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class CommandExecutorTest {
 
+  private static final ArgumentKey<String> NAME = ArgumentKey.named("name");
+  private static final ArgumentKey<Integer> AMOUNT = ArgumentKey.named("amount");
+
   private CommandExecutor<GlobalContext, RequestContext> executor;
 
   private String fooResult;
@@ -61,10 +70,20 @@ class CommandExecutorTest {
     root.addChild(commandException);
     root.addChild(parseException);
 
+    CommandNode<GlobalContext> give = new CommandNode<>(
+        Command.nop(), SuccessParser.wrapping(literal("give"))
+    );
+    give.setData(
+        DefaultDataKey.ARGUMENTS,
+        ArgumentSchema.builder().required(NAME, word()).required(AMOUNT, integer()).build()
+    );
+    give.setData(DefaultDataKey.PERMISSION, "give");
+    root.addChild(give);
+
     foo.addChild(fooBar);
 
     CommandFinder<GlobalContext> finder = new CommandFinder<>(root);
-    executor = new SimpleExecutor(finder, SuccessParser.wrapping(literal(" ")));
+    executor = new SimpleExecutor<>(finder);
   }
 
   @Test
@@ -131,6 +150,21 @@ class CommandExecutorTest {
     );
   }
 
+  @Test
+  public void testDeclaredArgumentFailureIsRecorded() {
+    RequestContext requestContext = new RequestContext();
+
+    assertThrows(
+        ParseException.class,
+        () -> executor.execute("give bob many", requestContext)
+    );
+
+    ArgumentStore store = requestContext.getArgumentStore();
+    assertEquals(Optional.of(AMOUNT), store.getFailedKey());
+    assertEquals(9, store.getFailureStart());
+    assertEquals(9, store.getFailureEnd());
+  }
+
   @Test
   public void testCommandNotFoundException() {
     CommandNotFoundException exception = assertThrows(
@@ -143,15 +177,39 @@ class CommandExecutorTest {
     );
   }
 
-  private static class SimpleExecutor extends CommandExecutor<GlobalContext, RequestContext> {
-
-    SimpleExecutor(CommandFinder<GlobalContext> finder, SuccessParser commandArgumentSeparator) {
-      super(finder, commandArgumentSeparator);
+  @Test
+  public void testPreparedCommandRunsRepeatedly() throws ParseException {
+    PreparedCommand<GlobalContext> command = executor.prepare("foo bar is this");
+
+    for (int i = 0; i < 3; i++) {
+      fooBarResult = null;
+      executor.execute(command, new RequestContext());
+      assertEquals(
+          "is this",
+          fooBarResult
+      );
     }
+  }
 
-    @Override
-    protected GlobalContext createContext(RequestContext requestContext) {
-      return new GlobalContext(requestContext);
-    }
+  @Test
+  public void testPreparedCommandChecksPermissions() throws ParseException {
+    PreparedCommand<GlobalContext> command = executor.prepare("give bob 5");
+
+    executor.setPermissions(requestContext -> permission -> false);
+    assertThrows(
+        CommandNotFoundException.class,
+        () -> executor.execute(command, new RequestContext())
+    );
+
+    executor.setPermissions(requestContext -> "give"::equals);
+    executor.execute(command, new RequestContext());
+  }
+
+  @Test
+  public void testPrepareThrowsCommandNotFound() {
+    assertThrows(
+        CommandNotFoundException.class,
+        () -> executor.prepare("whatever is not registered")
+    );
   }
 }
\ No newline at end of file
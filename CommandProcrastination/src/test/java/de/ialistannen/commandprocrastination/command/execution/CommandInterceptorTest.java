@@ -0,0 +1,186 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.CommandInterceptor;
+import de.ialistannen.commandprocrastination.command.tree.CommandChain;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CommandInterceptorTest {
+
+  private List<String> events;
+  private CommandNode<GlobalContext> root;
+  private CommandNode<GlobalContext> admin;
+  private CommandNode<GlobalContext> ban;
+  private SimpleExecutor<RequestContext> executor;
+
+  @BeforeEach
+  void setUp() {
+    events = new ArrayList<>();
+
+    root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    admin = new CommandNode<>(Command.nop(), SuccessParser.wrapping(literal("admin")));
+    ban = new CommandNode<>(
+        it -> events.add("execute"), SuccessParser.wrapping(literal("ban"))
+    );
+    root.addChild(admin);
+    admin.addChild(ban);
+    root.addChild(new CommandNode<>(
+        it -> {
+          throw new CommandException("Broken");
+        },
+        SuccessParser.wrapping(literal("broken"))
+    ));
+
+    executor = new SimpleExecutor<>(new CommandFinder<>(root));
+  }
+
+  @Test
+  void runsPhasesInOrder() throws ParseException {
+    executor.addInterceptor(new Recording("global"));
+    admin.addInterceptor(new Recording("admin"));
+    ban.addInterceptor(new Recording("ban"));
+
+    executor.execute("admin ban", new RequestContext());
+
+    assertEquals(
+        List.of(
+            "global beforeFind",
+            "global afterFind", "admin afterFind", "ban afterFind",
+            "global beforeExecute", "admin beforeExecute", "ban beforeExecute",
+            "execute",
+            "ban afterExecute", "admin afterExecute", "global afterExecute"
+        ),
+        events
+    );
+  }
+
+  @Test
+  void nodeInterceptorsOnlySeeTheirSubtree() throws ParseException {
+    admin.addInterceptor(new Recording("admin"));
+
+    assertThrows(CommandException.class, () -> executor.execute("broken", new RequestContext()));
+
+    assertEquals(List.of(), events);
+  }
+
+  @Test
+  void reportsFailures() {
+    executor.addInterceptor(new Recording("global"));
+    root.addInterceptor(new Recording("root"));
+
+    assertThrows(CommandException.class, () -> executor.execute("broken", new RequestContext()));
+    assertThrows(
+        CommandNotFoundException.class, () -> executor.execute("unknown", new RequestContext())
+    );
+
+    assertEquals(
+        List.of(
+            "global beforeFind",
+            "global afterFind", "root afterFind",
+            "global beforeExecute", "root beforeExecute",
+            "root onFailure CommandException", "global onFailure CommandException",
+            "global beforeFind",
+            "global onFailure CommandNotFoundException"
+        ),
+        events
+    );
+  }
+
+  @Test
+  void reportsHiddenPreparedCommands() throws ParseException {
+    ban.setData(DefaultDataKey.PERMISSION, "ban");
+    PreparedCommand<GlobalContext> command = executor.prepare("admin ban");
+    executor.setPermissions(requestContext -> permission -> false);
+    executor.addInterceptor(new Recording("global"));
+    ban.addInterceptor(new Recording("ban"));
+
+    assertThrows(
+        CommandNotFoundException.class, () -> executor.execute(command, new RequestContext())
+    );
+
+    assertEquals(List.of("global onFailure CommandNotFoundException"), events);
+  }
+
+  @Test
+  void beforeExecuteCanReject() {
+    ban.addInterceptor(new CommandInterceptor<>() {
+      @Override
+      public void beforeExecute(CommandChain<GlobalContext> chain, RequestContext requestContext) {
+        throw new CommandRejectedException("No permission");
+      }
+    });
+
+    assertThrows(
+        CommandRejectedException.class, () -> executor.execute("admin ban", new RequestContext())
+    );
+    assertEquals(List.of(), events);
+  }
+
+  @Test
+  void resolvesChainsOnce() {
+    CommandInterceptor<GlobalContext>[] empty = ban.getInterceptorChain();
+    assertEquals(0, empty.length);
+    assertSame(empty, ban.getInterceptorChain());
+
+    admin.addInterceptor(new Recording("admin"));
+    CommandInterceptor<GlobalContext>[] resolved = ban.getInterceptorChain();
+    assertNotSame(empty, resolved);
+    assertEquals(1, resolved.length);
+    assertSame(resolved, ban.getInterceptorChain());
+
+    admin.removeChild(ban);
+    assertEquals(0, ban.getInterceptorChain().length);
+  }
+
+  private class Recording implements CommandInterceptor<GlobalContext> {
+
+    private final String name;
+
+    Recording(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void beforeFind(StringReader input, RequestContext requestContext) {
+      events.add(name + " beforeFind");
+    }
+
+    @Override
+    public void afterFind(CommandChain<GlobalContext> chain, RequestContext requestContext) {
+      events.add(name + " afterFind");
+    }
+
+    @Override
+    public void beforeExecute(CommandChain<GlobalContext> chain, RequestContext requestContext) {
+      events.add(name + " beforeExecute");
+    }
+
+    @Override
+    public void afterExecute(CommandChain<GlobalContext> chain, RequestContext requestContext) {
+      events.add(name + " afterExecute");
+    }
+
+    @Override
+    public void onFailure(CommandChain<GlobalContext> chain, RequestContext requestContext,
+        Exception failure) {
+      events.add(name + " onFailure " + failure.getClass().getSimpleName());
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.word;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FairCommandSchedulerTest {
+
+  private ExecutorService workers;
+  private List<String> executionOrder;
+  private CountDownLatch blocker;
+  private CommandFinder<GlobalContext> finder;
+
+  @BeforeEach
+  void setUp() {
+    workers = Executors.newSingleThreadExecutor();
+    executionOrder = Collections.synchronizedList(new ArrayList<>());
+    blocker = new CountDownLatch(1);
+
+    CommandNode<GlobalContext> root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    root.addChild(new CommandNode<>(
+        it -> executionOrder.add(it.shift(word())),
+        SuccessParser.wrapping(literal("record"))
+    ));
+    root.addChild(new CommandNode<>(
+        it -> {
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        },
+        SuccessParser.wrapping(literal("block"))
+    ));
+
+    finder = new CommandFinder<>(root);
+  }
+
+  @AfterEach
+  void tearDown() {
+    workers.shutdownNow();
+  }
+
+  @Test
+  void wellBehavedTenantLatencyIsBoundedWhileOneTenantSaturates() {
+    FairCommandScheduler<GlobalContext, TenantRequestContext> scheduler = createScheduler();
+
+    assertMaxDelay(scheduler, 1);
+  }
+
+  @Test
+  void weightsAreRespected() {
+    FairCommandScheduler<GlobalContext, TenantRequestContext> scheduler = createScheduler();
+    scheduler.setWeight("macro", 3);
+
+    assertMaxDelay(scheduler, 3);
+  }
+
+  @Test
+  void rejectsCommandsAboveTheCap() {
+    FairCommandScheduler<GlobalContext, TenantRequestContext> scheduler = createScheduler();
+    scheduler.execute("block", new TenantRequestContext("blocker"));
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 1001; i++) {
+      futures.add(scheduler.execute("record macro", new TenantRequestContext("macro")));
+    }
+    assertEquals(1000, scheduler.getQueuedCount("macro"));
+
+    CompletableFuture<Void> rejected = futures.get(futures.size() - 1);
+    assertEquals(
+        CommandRejectedException.class,
+        rejected.handle((result, error) -> error.getClass()).join()
+    );
+
+    blocker.countDown();
+    CompletableFuture.allOf(futures.subList(0, 1000).toArray(CompletableFuture[]::new)).join();
+    assertEquals(1000, executionOrder.size());
+  }
+
+  @Test
+  void recoversAfterRejectedWorkers() {
+    AtomicBoolean reject = new AtomicBoolean(true);
+    Executor flaky = task -> {
+      if (reject.get()) {
+        throw new RejectedExecutionException("Saturated");
+      }
+      workers.execute(task);
+    };
+    FairCommandScheduler<GlobalContext, TenantRequestContext> scheduler;
+    scheduler = new FairCommandScheduler<>(
+        new SimpleExecutor<>(finder), it -> it.tenant, 1, flaky, 1
+    );
+
+    for (int i = 0; i < 3; i++) {
+      CompletableFuture<Void> rejected = scheduler.execute(
+          "record lost", new TenantRequestContext("a")
+      );
+      assertEquals(
+          RejectedExecutionException.class,
+          rejected.handle((result, error) -> error.getClass()).join()
+      );
+    }
+    assertEquals(0, scheduler.getQueuedCount("a"));
+
+    reject.set(false);
+    scheduler.execute("record kept", new TenantRequestContext("a")).join();
+
+    assertEquals(List.of("kept"), executionOrder);
+  }
+
+  @Test
+  void failsCommandsQueuedWhileTheWorkerWasRejected() {
+    AtomicReference<FairCommandScheduler<GlobalContext, TenantRequestContext>> scheduler =
+        new AtomicReference<>();
+    AtomicReference<CompletableFuture<Void>> queuedMeanwhile = new AtomicReference<>();
+    AtomicBoolean reject = new AtomicBoolean(true);
+    Executor flaky = task -> {
+      if (reject.getAndSet(false)) {
+        // Another request arrives while the first one still holds the only worker slot
+        queuedMeanwhile.set(scheduler.get().execute("record b", new TenantRequestContext("b")));
+        throw new RejectedExecutionException("Saturated");
+      }
+      workers.execute(task);
+    };
+    scheduler.set(new FairCommandScheduler<>(
+        new SimpleExecutor<>(finder), it -> it.tenant, 1, flaky, 10
+    ));
+
+    CompletableFuture<Void> rejected = scheduler.get().execute(
+        "record a", new TenantRequestContext("a")
+    );
+
+    for (CompletableFuture<Void> future : List.of(rejected, queuedMeanwhile.get())) {
+      assertEquals(
+          RejectedExecutionException.class,
+          future.handle((result, error) -> error.getClass()).join()
+      );
+    }
+    assertEquals(0, scheduler.get().getQueuedCount("b"));
+
+    scheduler.get().execute("record c", new TenantRequestContext("c")).join();
+    assertEquals(List.of("c"), executionOrder);
+  }
+
+  private FairCommandScheduler<GlobalContext, TenantRequestContext> createScheduler() {
+    return new FairCommandScheduler<>(
+        new SimpleExecutor<>(finder), it -> it.tenant, 1, workers, 1000
+    );
+  }
+
+  /**
+   * Saturates the scheduler with one tenant and checks how many of its commands ran before each
+   * command of a second, well-behaved tenant.
+   */
+  private void assertMaxDelay(FairCommandScheduler<GlobalContext, TenantRequestContext> scheduler,
+      int macroWeight) {
+    // Occupy the only worker, so everything below is queued up
+    scheduler.execute("block", new TenantRequestContext("blocker"));
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      futures.add(scheduler.execute("record macro", new TenantRequestContext("macro")));
+    }
+    for (int i = 0; i < 10; i++) {
+      futures.add(scheduler.execute("record nice", new TenantRequestContext("nice")));
+    }
+
+    blocker.countDown();
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+    int macroSinceLastNice = 0;
+    int niceSeen = 0;
+    for (String tenant : executionOrder) {
+      if (tenant.equals("nice")) {
+        niceSeen++;
+        macroSinceLastNice = 0;
+      } else if (niceSeen < 10) {
+        macroSinceLastNice++;
+        assertTrue(
+            macroSinceLastNice <= macroWeight,
+            "Nice tenant waited for " + macroSinceLastNice + " macro commands"
+        );
+      }
+    }
+    assertEquals(10, niceSeen);
+  }
+
+  private static class TenantRequestContext extends RequestContext {
+
+    private final String tenant;
+
+    TenantRequestContext(String tenant) {
+      this.tenant = tenant;
+    }
+  }
+}
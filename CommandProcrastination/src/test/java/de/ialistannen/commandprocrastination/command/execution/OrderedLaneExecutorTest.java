@@ -0,0 +1,173 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.IntegerParsers.integer;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderedLaneExecutorTest {
+
+  private ExecutorService workers;
+  private Map<String, List<Integer>> executionOrder;
+  private CountDownLatch blocker;
+  private CommandFinder<GlobalContext> finder;
+
+  @BeforeEach
+  void setUp() {
+    workers = Executors.newFixedThreadPool(4);
+    executionOrder = new ConcurrentHashMap<>();
+    blocker = new CountDownLatch(0);
+
+    CommandNode<GlobalContext> root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    root.addChild(new CommandNode<>(
+        it -> {
+          KeyedRequestContext request = (KeyedRequestContext) it.getRequestContext();
+          executionOrder.computeIfAbsent(request.key, key -> new ArrayList<>())
+              .add(it.shift(integer()));
+        },
+        SuccessParser.wrapping(literal("record"))
+    ));
+    root.addChild(new CommandNode<>(
+        it -> {
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        },
+        SuccessParser.wrapping(literal("block"))
+    ));
+
+    finder = new CommandFinder<>(root);
+  }
+
+  @AfterEach
+  void tearDown() {
+    workers.shutdownNow();
+  }
+
+  @Test
+  void keepsOrderPerKey() {
+    OrderedLaneExecutor<GlobalContext, KeyedRequestContext> executor = new OrderedLaneExecutor<>(
+        new SimpleExecutor<>(finder), it -> it.key, 8, workers
+    );
+
+    List<String> keys = List.of("a", "b", "c", "d", "e");
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      String key = keys.get(i % keys.size());
+      futures.add(executor.execute("record " + i, new KeyedRequestContext(key)));
+    }
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+    for (int i = 0; i < keys.size(); i++) {
+      int offset = i;
+      List<Integer> expected = IntStream.range(0, 100)
+          .map(it -> it * keys.size() + offset)
+          .boxed()
+          .collect(Collectors.toList());
+      assertEquals(
+          expected,
+          executionOrder.get(keys.get(i))
+      );
+    }
+  }
+
+  @Test
+  void reportsLaneDepth() throws InterruptedException {
+    OrderedLaneExecutor<GlobalContext, KeyedRequestContext> executor = new OrderedLaneExecutor<>(
+        new SimpleExecutor<>(finder), it -> it.key, 1, workers
+    );
+    blocker = new CountDownLatch(1);
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      futures.add(executor.execute("block", new KeyedRequestContext("a")));
+    }
+
+    assertArrayEquals(new int[]{3}, executor.getLaneDepths());
+    assertEquals(3, executor.getLaneDepth("anything"));
+
+    blocker.countDown();
+    CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+    workers.shutdown();
+    workers.awaitTermination(5, TimeUnit.SECONDS);
+    assertArrayEquals(new int[]{0}, executor.getLaneDepths());
+  }
+
+  @Test
+  void propagatesExceptions() {
+    OrderedLaneExecutor<GlobalContext, KeyedRequestContext> executor = new OrderedLaneExecutor<>(
+        new SimpleExecutor<>(finder), it -> it.key, 2, workers
+    );
+
+    CompletableFuture<Void> future = executor.execute("unknown", new KeyedRequestContext("a"));
+
+    assertEquals(
+        CommandNotFoundException.class,
+        future.handle((result, error) -> error.getClass()).join()
+    );
+    assertEquals(Collections.emptyMap(), executionOrder);
+  }
+
+  @Test
+  void recoversAfterRejectedDrain() {
+    AtomicBoolean reject = new AtomicBoolean(true);
+    Executor flaky = task -> {
+      if (reject.get()) {
+        throw new RejectedExecutionException("Saturated");
+      }
+      workers.execute(task);
+    };
+    OrderedLaneExecutor<GlobalContext, KeyedRequestContext> executor = new OrderedLaneExecutor<>(
+        new SimpleExecutor<>(finder), it -> it.key, 1, flaky
+    );
+
+    assertThrows(
+        RejectedExecutionException.class,
+        () -> executor.execute("record 1", new KeyedRequestContext("a"))
+    );
+    assertEquals(0, executor.getLaneDepth("a"));
+
+    reject.set(false);
+    executor.execute("record 2", new KeyedRequestContext("a")).join();
+
+    assertEquals(Map.of("a", List.of(2)), executionOrder);
+  }
+
+  private static class KeyedRequestContext extends RequestContext {
+
+    private final String key;
+
+    KeyedRequestContext(String key) {
+      this.key = key;
+    }
+  }
+}
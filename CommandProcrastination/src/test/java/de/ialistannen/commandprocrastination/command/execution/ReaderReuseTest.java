@@ -0,0 +1,111 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.greedyPhrase;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.word;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReaderReuseTest {
+
+  private List<String> echoed;
+  private List<StringReader> readers;
+  private SimpleExecutor<RequestContext> executor;
+
+  @BeforeEach
+  void setUp() {
+    echoed = new ArrayList<>();
+    readers = new ArrayList<>();
+
+    CommandNode<GlobalContext> root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    root.addChild(new CommandNode<>(
+        it -> {
+          readers.add(it.getRequestContext().getReader());
+          echoed.add(it.shift(greedyPhrase()));
+        },
+        SuccessParser.wrapping(literal("echo"))
+    ));
+    root.addChild(new CommandNode<>(
+        it -> {
+          readers.add(it.getRequestContext().getReader());
+          String first = it.shift(word());
+          executor.execute("echo nested", new RequestContext());
+          echoed.add(first + " " + it.shift(word()));
+        },
+        SuccessParser.wrapping(literal("twice"))
+    ));
+
+    executor = new SimpleExecutor<>(new CommandFinder<>(root));
+    executor.setReuseReaders(true);
+  }
+
+  @Test
+  void reusesReaderOfThread() throws ParseException {
+    RequestContext requestContext = new RequestContext();
+    executor.execute("echo hello", requestContext);
+    assertNull(requestContext.getReader());
+
+    requestContext.clear();
+    executor.execute("echo world", requestContext);
+
+    assertEquals(List.of("hello", "world"), echoed);
+    assertSame(readers.get(0), readers.get(1));
+  }
+
+  @Test
+  void nestedExecutionGetsItsOwnReader() throws ParseException {
+    executor.execute("twice a b", new RequestContext());
+
+    assertEquals(List.of("nested", "a b"), echoed);
+    assertNotSame(readers.get(0), readers.get(1));
+  }
+
+  @Test
+  void readerIsReleasedAfterFailure() throws ParseException {
+    assertThrows(
+        CommandNotFoundException.class,
+        () -> executor.execute("nope", new RequestContext())
+    );
+    executor.execute("echo again", new RequestContext());
+
+    assertEquals(List.of("again"), echoed);
+  }
+
+  @Test
+  void allocatesNewReadersIfDisabled() throws ParseException {
+    executor.setReuseReaders(false);
+    executor.execute("echo hello", new RequestContext());
+    executor.execute("echo world", new RequestContext());
+
+    assertNotSame(readers.get(0), readers.get(1));
+  }
+
+  @Test
+  void clearResetsRequestState() throws ParseException {
+    executor.setReuseReaders(false);
+    RequestContext requestContext = new RequestContext();
+    executor.execute("echo hello", requestContext);
+
+    requestContext.clear();
+
+    assertNull(requestContext.getReader());
+    assertNull(requestContext.getFinalNode());
+    assertNull(requestContext.getArguments());
+  }
+}
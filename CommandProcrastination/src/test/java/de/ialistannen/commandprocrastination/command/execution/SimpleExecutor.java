@@ -0,0 +1,31 @@
+package de.ialistannen.commandprocrastination.command.execution;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+
+/**
+ * A command executor for tests, separating command and arguments by a space and running commands
+ * with a plain {@link GlobalContext}.
+ *
+ * @param <R> the request context type
+ */
+public class SimpleExecutor<R extends RequestContext> extends CommandExecutor<GlobalContext, R> {
+
+  /**
+   * Creates a new simple executor.
+   *
+   * @param finder the command finder
+   */
+  public SimpleExecutor(CommandFinder<GlobalContext> finder) {
+    super(finder, SuccessParser.wrapping(literal(" ")));
+  }
+
+  @Override
+  protected GlobalContext createContext(R requestContext) {
+    return new GlobalContext(requestContext);
+  }
+}
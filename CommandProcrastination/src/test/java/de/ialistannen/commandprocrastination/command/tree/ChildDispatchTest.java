@@ -0,0 +1,103 @@
+package de.ialistannen.commandprocrastination.command.tree;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.regex;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder.FindResult;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.defaults.OptionParser;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ChildDispatchTest {
+
+  private CommandNode<GlobalContext> root;
+  private CommandNode<GlobalContext> id;
+  private CommandNode<GlobalContext> help;
+  private CommandNode<GlobalContext> channel;
+  private CommandNode<GlobalContext> word;
+
+  @BeforeEach
+  void setUp() {
+    root = new CommandNode<>("root");
+    id = new CommandNode<>(regex("\\d{3,}"));
+    help = new CommandNode<>("help");
+    channel = new CommandNode<>(regex("#[a-z]+"));
+    word = new CommandNode<>(regex("[a-z]+"));
+
+    root.addChild(id);
+    root.addChild(help);
+    root.addChild(channel);
+    root.addChild(word);
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should find {1}")
+  @CsvSource({
+      "12345 foo,id,' foo'",
+      "help me,help,' me'",
+      "helpme,help,me",
+      "hel,word,''",
+      "'#general now',channel,' now'",
+      "hello,word,''",
+  })
+  void findsFirstMatchingChildInDeclarationOrder(String input, String expected,
+      String remaining) {
+    StringReader reader = new StringReader(input);
+    FindResult<GlobalContext> result = new CommandFinder<>(root).find(reader);
+
+    assertEquals(nodeNamed(expected), result.getChain().getFinalNode());
+    assertEquals(remaining, reader.readRemaining());
+  }
+
+  @Test
+  void failsIfNoChildMatches() {
+    StringReader reader = new StringReader("12 !");
+    FindResult<GlobalContext> result = new CommandFinder<>(root).find(reader);
+
+    assertFalse(result.isSuccess());
+    assertEquals(0, reader.getPosition());
+  }
+
+  @Test
+  void picksUpNewChildren() {
+    CommandFinder<GlobalContext> finder = new CommandFinder<>(root);
+    finder.find(new StringReader("42"));
+
+    CommandNode<GlobalContext> shortId = new CommandNode<>(regex("\\d+"));
+    root.addChild(shortId);
+
+    assertEquals(shortId, finder.find(new StringReader("42")).getChain().getFinalNode());
+  }
+
+  @Test
+  void seesAlternativesAddedToWrappedHeads() {
+    OptionParser<Void> marks = new OptionParser<Void>().or(literal("!"));
+    CommandNode<GlobalContext> mark = new CommandNode<>(AtomicParser.named("mark", marks));
+    root.addChild(mark);
+    CommandFinder<GlobalContext> finder = new CommandFinder<>(root);
+    assertFalse(finder.find(new StringReader("?")).isSuccess());
+
+    marks.or(literal("?"));
+
+    assertEquals(mark, finder.find(new StringReader("?")).getChain().getFinalNode());
+  }
+
+  private CommandNode<GlobalContext> nodeNamed(String name) {
+    switch (name) {
+      case "id":
+        return id;
+      case "help":
+        return help;
+      case "channel":
+        return channel;
+      default:
+        return word;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package de.ialistannen.commandprocrastination.command.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.defaults.RegexParser;
+import de.ialistannen.commandprocrastination.parsing.defaults.StringParsers;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.regex.RegexMatcher;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class CommandNodeTest {
+
+  @Test
+  void rejectsCatastrophicBacktrackingHead() {
+    CommandNode<GlobalContext> root = new CommandNode<>("root");
+    CommandNode<GlobalContext> child = new CommandNode<>(
+        new RegexParser(RegexMatcher.backtracking(Pattern.compile("(\\w+\\s?)*!")))
+    );
+
+    assertThrows(IllegalArgumentException.class, () -> root.addChild(child));
+  }
+
+  @Test
+  void acceptsNestedQuantifiersOnLinearEngine() {
+    CommandNode<GlobalContext> root = new CommandNode<>("root");
+    CommandNode<GlobalContext> child = new CommandNode<>(StringParsers.regex("(\\w+\\s?)*!"));
+
+    root.addChild(child);
+
+    assertEquals(1, root.getChildren().size());
+  }
+
+  @Test
+  void childrenAreSnapshots() {
+    CommandNode<GlobalContext> root = new CommandNode<>("root");
+    CommandNode<GlobalContext> first = new CommandNode<>("first");
+    root.addChild(first);
+
+    List<CommandNode<GlobalContext>> snapshot = root.getChildren();
+    root.addChild(new CommandNode<>("second"));
+    root.removeChild(first);
+
+    assertEquals(List.of(first), snapshot);
+    assertEquals(1, root.getChildren().size());
+  }
+
+  @Test
+  void versionChangesWithDescendants() {
+    CommandNode<GlobalContext> root = new CommandNode<>("root");
+    CommandNode<GlobalContext> child = new CommandNode<>("child");
+    root.addChild(child);
+
+    long before = root.getVersion();
+    child.addChild(new CommandNode<>("grandchild"));
+
+    assertNotEquals(before, root.getVersion());
+  }
+
+  @Test
+  void findsWhileChildrenChange() throws InterruptedException {
+    CommandNode<GlobalContext> root = new CommandNode<>("root");
+    root.addChild(new CommandNode<>("stable"));
+    CommandFinder<GlobalContext> finder = new CommandFinder<>(root);
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 2_000; i++) {
+        CommandNode<GlobalContext> node = new CommandNode<>("temp" + (i % 10));
+        root.addChild(node);
+        root.removeChild(node);
+      }
+      running.set(false);
+    });
+
+    writer.start();
+    while (running.get()) {
+      assertTrue(finder.find(new StringReader("stable")).isSuccess());
+    }
+    writer.join();
+
+    assertEquals(1, root.getChildren().size());
+  }
+}
@@ -0,0 +1,160 @@
+package de.ialistannen.commandprocrastination.command.tree;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder.FindResult;
+import de.ialistannen.commandprocrastination.command.tree.data.DefaultDataKey;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PermissionViewsTest {
+
+  private CommandNode<GlobalContext> root;
+  private CommandNode<GlobalContext> help;
+  private CommandNode<GlobalContext> ban;
+  private CommandNode<GlobalContext> banList;
+  private CommandNode<GlobalContext> banAdd;
+  private PermissionViews<GlobalContext> views;
+
+  @BeforeEach
+  void setUp() {
+    root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    help = new CommandNode<>(Command.nop(), "help");
+    ban = new CommandNode<>(Command.nop(), "ban");
+    banList = new CommandNode<>(Command.nop(), "list");
+    banAdd = new CommandNode<>(Command.nop(), "add");
+
+    ban.setData(DefaultDataKey.PERMISSION, "mod");
+    banAdd.setData(DefaultDataKey.PERMISSION, "admin");
+
+    root.addChild(help);
+    root.addChild(ban);
+    ban.addChild(banList);
+    ban.addChild(banAdd);
+
+    views = new PermissionViews<>(root);
+  }
+
+  @Test
+  void prunesSubtreesWithoutPermission() {
+    CommandTreeView<GlobalContext> view = views.forPermissions(Set.of());
+
+    assertEquals(List.of(help), view.getChildren(root));
+    assertFalse(view.isVisible(ban));
+    assertFalse(view.isVisible(banList));
+    assertEquals(List.of(), view.getChildren(ban));
+  }
+
+  @Test
+  void keepsPermittedNodes() {
+    CommandTreeView<GlobalContext> mod = views.forPermissions(Set.of("mod"));
+    CommandTreeView<GlobalContext> admin = views.forPermissions(Set.of("mod", "admin"));
+
+    assertEquals(List.of(banList), mod.getChildren(ban));
+    assertEquals(List.of(banList, banAdd), admin.getChildren(ban));
+  }
+
+  @Test
+  void adminWithoutModSeesNoBan() {
+    CommandTreeView<GlobalContext> view = views.forPermissions(Set.of("admin"));
+
+    assertFalse(view.isVisible(ban));
+    assertFalse(view.isVisible(banAdd));
+  }
+
+  @Test
+  void sharesViewsBetweenEqualRelevantPermissions() {
+    CommandTreeView<GlobalContext> first = views.forPermissions(Set.of("mod"));
+    CommandTreeView<GlobalContext> second = views.forPermissions(Set.of("mod", "unrelated"));
+    CommandTreeView<GlobalContext> third = views.forPermissions(it -> it.equals("mod"));
+
+    assertSame(first, second);
+    assertSame(first, third);
+    assertEquals(1, views.getViewCount());
+  }
+
+  @Test
+  void rebuildsViewsAfterTreeChanges() {
+    CommandTreeView<GlobalContext> before = views.forPermissions(Set.of("mod"));
+
+    CommandNode<GlobalContext> unban = new CommandNode<>(Command.nop(), "unban");
+    banList.addChild(unban);
+    CommandTreeView<GlobalContext> after = views.forPermissions(Set.of("mod"));
+
+    assertNotSame(before, after);
+    assertFalse(before.isVisible(unban));
+    assertTrue(after.isVisible(unban));
+  }
+
+  @Test
+  void rebuildsViewsAfterPermissionChanges() {
+    assertTrue(views.forPermissions(Set.of()).isVisible(help));
+
+    help.setData(DefaultDataKey.PERMISSION, "user");
+
+    assertFalse(views.forPermissions(Set.of()).isVisible(help));
+    assertTrue(views.forPermissions(Set.of("user")).isVisible(help));
+  }
+
+  @Test
+  void handlesPermissionsAddedWhileBuilding() {
+    CommandNode<GlobalContext> kick = new CommandNode<>(Command.nop(), "kick");
+    kick.setData(DefaultDataKey.PERMISSION, "kick");
+
+    CommandTreeView<GlobalContext> view = views.forPermissions(permission -> {
+      // The snapshot was already taken, so "kick" has no bit in it yet
+      if (kick.getParent().isEmpty()) {
+        root.addChild(kick);
+      }
+      return true;
+    });
+
+    assertTrue(view.isVisible(kick));
+    assertTrue(view.isVisible(banAdd));
+  }
+
+  @Test
+  void findsOnlyVisibleCommands() {
+    CommandFinder<GlobalContext> finder = new CommandFinder<>(root);
+    CommandTreeView<GlobalContext> mod = views.forPermissions(Set.of("mod"));
+
+    FindResult<GlobalContext> list = finder.find(mod, new StringReader("ban list"));
+    assertTrue(list.isSuccess());
+    assertSame(banList, list.getChain().getFinalNode());
+
+    // "add" is hidden, so the search stops at "ban" and leaves "add" as an argument
+    StringReader input = new StringReader("ban add foo");
+    FindResult<GlobalContext> add = finder.find(mod, input);
+    assertSame(ban, add.getChain().getFinalNode());
+    assertEquals(" add foo", input.peekRemaining());
+
+    FindResult<GlobalContext> none = finder.find(
+        views.forPermissions(Set.of()), new StringReader("ban list")
+    );
+    assertFalse(none.isSuccess());
+  }
+
+  @Test
+  void usageOnlyListsVisibleCommands() {
+    assertEquals(
+        root.getUsage().replace("|ban [list|add]", ""),
+        views.forPermissions(Set.of()).getUsage()
+    );
+    assertEquals(
+        root.getUsage().replace("|add", ""),
+        views.forPermissions(Set.of("mod")).getUsage()
+    );
+    assertEquals(root.getUsage(), views.forPermissions(Set.of("mod", "admin")).getUsage());
+  }
+}
@@ -4,9 +4,15 @@ import static de.ialistannen.commandprocrastination.parsing.defaults.IntegerPars
 import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.phrase;
 import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.word;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentSchema;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentStore;
 import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
 class RequestContextTest {
@@ -31,5 +37,66 @@ class RequestContextTest {
     );
   }
 
+  @Test
+  public void recordsShiftedArguments() throws ParseException {
+    ArgumentKey<Integer> amount = ArgumentKey.named("amount");
+    ArgumentKey<String> target = ArgumentKey.named("target");
+    RequestContext context = new RequestContext(new StringReader("20  \"My friend\""), null);
+
+    context.shift(amount, integer());
+    context.shift(target, phrase());
+
+    ArgumentStore store = context.getArgumentStore();
+    assertEquals(20, store.get(amount));
+    assertEquals("My friend", store.get(target));
+    assertEquals(0, store.getStart(amount));
+    assertEquals(2, store.getEnd(amount));
+    assertEquals(4, store.getStart(target));
+    assertEquals(15, store.getEnd(target));
+  }
+
+  @Test
+  public void recordsFailedParses() {
+    ArgumentKey<Integer> amount = ArgumentKey.named("amount");
+    RequestContext context = new RequestContext(new StringReader("hey you"), null);
+
+    assertThrows(ParseException.class, () -> context.shift(amount, integer()));
 
+    ArgumentStore store = context.getArgumentStore();
+    assertEquals(amount, store.getFailedKey().orElseThrow());
+    assertEquals(0, store.getFailureStart());
+    assertFalse(store.contains(amount));
+  }
+
+  @Test
+  public void missingOptionalArgumentIsNoFailure() {
+    RequestContext context = new RequestContext(new StringReader("hey you"), null);
+
+    assertEquals(Optional.empty(), context.shiftOptionally(integer()));
+
+    assertFalse(context.getArgumentStore().hasFailure());
+    assertEquals(-1, context.getArgumentStore().getFailureStart());
+  }
+
+  @Test
+  public void storeContainsSchemaArguments() throws ParseException {
+    ArgumentKey<String> name = ArgumentKey.named("name");
+    ArgumentKey<Integer> amount = ArgumentKey.named("amount");
+    ArgumentSchema schema = ArgumentSchema.builder()
+        .required(name, word())
+        .optional(amount, integer())
+        .build();
+    StringReader reader = new StringReader("Peter rest");
+    RequestContext context = new RequestContext(reader, null);
+
+    context.setArguments(schema.parse(reader));
+
+    ArgumentStore store = context.getArgumentStore();
+    assertEquals("Peter", store.get(name));
+    assertEquals(5, store.getEnd(name));
+    assertEquals(-1, store.getStart(amount));
+
+    context.clear();
+    assertFalse(store.contains(name));
+  }
 }
\ No newline at end of file
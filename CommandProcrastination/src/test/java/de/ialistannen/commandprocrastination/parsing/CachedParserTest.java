@@ -0,0 +1,154 @@
+package de.ialistannen.commandprocrastination.parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.parsing.defaults.StringParsers;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import de.ialistannen.commandprocrastination.util.cache.CachePolicy;
+import de.ialistannen.commandprocrastination.util.cache.CacheStats;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachedParserTest {
+
+  private long now;
+  private AtomicInteger loads;
+  private Map<String, String> channels;
+
+  @BeforeEach
+  void setUp() {
+    now = 0;
+    loads = new AtomicInteger();
+    channels = new HashMap<>(Map.of("general", "General v1", "random", "Random v1"));
+  }
+
+  @Test
+  void resolvesEachEntityOnce() throws ParseException {
+    CachedParser<String, String> parser = createParser(CachePolicy.builder().ticker(() -> now));
+
+    assertEquals("General v1", parser.parse(new StringReader("general")));
+    assertEquals("General v1", parser.parse(new StringReader("general")));
+    assertEquals("Random v1", parser.parse(new StringReader("random")));
+
+    assertEquals(2, loads.get());
+    assertEquals(new CacheStats(1, 2, 0), parser.getStats());
+  }
+
+  @Test
+  void reloadsExpiredEntities() throws ParseException {
+    CachedParser<String, String> parser = createParser(
+        CachePolicy.builder().ticker(() -> now).timeToLive(Duration.ofMinutes(1))
+    );
+
+    parser.parse(new StringReader("general"));
+    channels.put("general", "General v2");
+    now = Duration.ofMinutes(2).toNanos();
+
+    assertEquals("General v2", parser.parse(new StringReader("general")));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void refreshesAheadOfExpiry() throws ParseException {
+    CachedParser<String, String> parser = createParser(
+        CachePolicy.builder()
+            .ticker(() -> now)
+            .timeToLive(Duration.ofMinutes(10))
+            .refreshAfter(Duration.ofMinutes(1), Runnable::run)
+    );
+
+    parser.parse(new StringReader("general"));
+    channels.put("general", "General v2");
+    now = Duration.ofMinutes(2).toNanos();
+
+    // The stale value is served while refreshing
+    assertEquals("General v1", parser.parse(new StringReader("general")));
+    assertEquals("General v2", parser.parse(new StringReader("general")));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void invalidatesEntities() throws ParseException {
+    CachedParser<String, String> parser = createParser(CachePolicy.builder().ticker(() -> now));
+
+    parser.parse(new StringReader("general"));
+    channels.put("general", "General v2");
+    parser.invalidate("general");
+
+    assertEquals("General v2", parser.parse(new StringReader("general")));
+  }
+
+  @Test
+  void doesNotCacheLoadsStartedBeforeInvalidation() throws ParseException {
+    AtomicReference<CachedParser<String, String>> parser = new AtomicReference<>();
+    parser.set(AtomicParser.cached(
+        AtomicParser.named("channel", StringParsers.word()),
+        key -> {
+          loads.incrementAndGet();
+          String value = channels.get(key);
+          // The entity changes while it is loaded
+          channels.put(key, "General v2");
+          parser.get().invalidate(key);
+          return value;
+        },
+        CachePolicy.builder().ticker(() -> now).build()
+    ));
+
+    assertEquals("General v1", parser.get().parse(new StringReader("general")));
+    assertEquals("General v2", parser.get().parse(new StringReader("general")));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void refreshesAgainAfterRejection() throws ParseException {
+    AtomicInteger attempts = new AtomicInteger();
+    CachedParser<String, String> parser = createParser(
+        CachePolicy.builder()
+            .ticker(() -> now)
+            .timeToLive(Duration.ofMinutes(10))
+            .refreshAfter(Duration.ofMinutes(1), task -> {
+              if (attempts.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("Busy");
+              }
+              task.run();
+            })
+    );
+
+    parser.parse(new StringReader("general"));
+    channels.put("general", "General v2");
+    now = Duration.ofMinutes(2).toNanos();
+
+    assertEquals("General v1", parser.parse(new StringReader("general")));
+    assertEquals("General v1", parser.parse(new StringReader("general")));
+    assertEquals("General v2", parser.parse(new StringReader("general")));
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  void failsForUnknownEntities() {
+    CachedParser<String, String> parser = createParser(CachePolicy.builder().ticker(() -> now));
+
+    ParseException exception = assertThrows(
+        ParseException.class, () -> parser.parse(new StringReader("secret"))
+    );
+    assertEquals("Unknown channel 'secret'", exception.getDetail());
+  }
+
+  private CachedParser<String, String> createParser(CachePolicy.Builder policy) {
+    return AtomicParser.cached(
+        AtomicParser.named("channel", StringParsers.word()),
+        key -> {
+          loads.incrementAndGet();
+          return channels.get(key);
+        },
+        policy.build()
+    );
+  }
+}
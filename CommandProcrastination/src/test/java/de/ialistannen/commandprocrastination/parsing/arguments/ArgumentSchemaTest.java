@@ -0,0 +1,66 @@
+package de.ialistannen.commandprocrastination.parsing.arguments;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.IntegerParsers.integer;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.phrase;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.word;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ArgumentSchemaTest {
+
+  private static final ArgumentKey<String> NAME = ArgumentKey.named("name");
+  private static final ArgumentKey<Integer> AMOUNT = ArgumentKey.named("amount");
+  private static final ArgumentKey<List<String>> TARGETS = ArgumentKey.named("targets");
+
+  private final ArgumentSchema schema = ArgumentSchema.builder()
+      .required(NAME, phrase())
+      .optional(AMOUNT, integer())
+      .repeated(TARGETS, word())
+      .build();
+
+  @Test
+  void parsesAllArguments() throws ParseException {
+    ParsedArguments arguments = schema.parse(new StringReader("\"My name\"  20 a b   c"));
+
+    assertEquals("My name", arguments.get(NAME));
+    assertEquals(20, arguments.get(AMOUNT));
+    assertEquals(List.of("a", "b", "c"), arguments.get(TARGETS));
+  }
+
+  @Test
+  void skipsMissingOptionalArguments() throws ParseException {
+    ParsedArguments arguments = schema.parse(new StringReader("name a b"));
+
+    assertEquals("name", arguments.get(NAME));
+    assertNull(arguments.get(AMOUNT));
+    assertEquals(List.of("a", "b"), arguments.get(TARGETS));
+  }
+
+  @Test
+  void rejectsMissingRequiredArguments() {
+    ArgumentSchema numbers = ArgumentSchema.builder()
+        .required(AMOUNT, integer())
+        .build();
+
+    assertThrows(ParseException.class, () -> numbers.parse(new StringReader("hello")));
+  }
+
+  @Test
+  void buildsSignature() {
+    assertEquals("<name> [amount] [targets...]", schema.getSignature());
+  }
+
+  @Test
+  void rejectsDuplicatedKeys() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ArgumentSchema.builder().required(NAME, word()).optional(NAME, word())
+    );
+  }
+}
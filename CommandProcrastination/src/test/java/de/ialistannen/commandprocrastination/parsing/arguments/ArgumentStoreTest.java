@@ -0,0 +1,66 @@
+package de.ialistannen.commandprocrastination.parsing.arguments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ArgumentStoreTest {
+
+  private static final ArgumentKey<String> NAME = ArgumentKey.named("name");
+
+  @Test
+  void replacesValuesOfTheSameKey() {
+    ArgumentStore store = new ArgumentStore();
+    store.put(NAME, "first", 0, 5);
+    store.put(NAME, "second", 6, 12);
+
+    assertEquals("second", store.get(NAME));
+    assertEquals(6, store.getStart(NAME));
+    assertEquals(List.of(NAME), store.getKeys());
+  }
+
+  @Test
+  void growsBeyondInitialCapacity() {
+    ArgumentStore store = new ArgumentStore();
+    List<ArgumentKey<Integer>> keys = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      ArgumentKey<Integer> key = ArgumentKey.named("key" + i);
+      keys.add(key);
+      store.put(key, i, i, i + 1);
+    }
+
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, store.get(keys.get(i)));
+      assertEquals(i + 1, store.getEnd(keys.get(i)));
+    }
+  }
+
+  @Test
+  void rejectsUnknownKeys() {
+    ArgumentStore store = new ArgumentStore();
+
+    assertThrows(NoSuchElementException.class, () -> store.get(NAME));
+    assertEquals(Optional.empty(), store.getOptional(NAME));
+  }
+
+  @Test
+  void clearsValuesAndFailures() {
+    ArgumentStore store = new ArgumentStore();
+    store.put(NAME, "name", 0, 4);
+    store.recordFailure(null, 5, 7);
+    assertTrue(store.hasFailure());
+
+    store.clear();
+
+    assertFalse(store.contains(NAME));
+    assertFalse(store.hasFailure());
+    assertEquals(-1, store.getFailureStart());
+  }
+}
@@ -0,0 +1,192 @@
+package de.ialistannen.commandprocrastination.parsing.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.context.RequestContext;
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.defaults.StringParsers;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataLoaderTest {
+
+  private ScheduledExecutorService scheduler;
+  private List<List<String>> batches;
+  private BatchLoader<String, String> users;
+
+  @BeforeEach
+  void setUp() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    batches = Collections.synchronizedList(new ArrayList<>());
+    users = keys -> {
+      batches.add(keys);
+      return CompletableFuture.completedFuture(
+          keys.stream()
+              .filter(it -> !it.startsWith("ghost"))
+              .collect(Collectors.toMap(Function.identity(), it -> "User " + it))
+      );
+    };
+  }
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void mentionsOfOneCommandAreFetchedTogether() throws ParseException {
+    DataLoader<String, String> loader = new DataLoader<>(
+        users, Duration.ofMillis(50), 100, scheduler
+    );
+    AsyncAtomicParser<String> user = AsyncAtomicParser.resolving(
+        StringParsers.word(), loader::load
+    );
+
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      input.append("user").append(i).append(' ');
+    }
+    GlobalContext context = createContext(input.toString());
+
+    List<CompletableFuture<String>> mentioned = new ArrayList<>();
+    while (context.getRequestContext().getReader().canRead()) {
+      mentioned.add(context.shiftAsync(user));
+    }
+    CompletableFuture.allOf(mentioned.toArray(CompletableFuture[]::new)).join();
+
+    assertEquals(1, batches.size());
+    assertEquals(20, batches.get(0).size());
+    assertEquals("User user7", mentioned.get(7).join());
+  }
+
+  @Test
+  void fullBatchesAreDispatchedRightAway() {
+    DataLoader<String, String> loader = new DataLoader<>(
+        users, Duration.ofHours(1), 3, scheduler
+    );
+
+    List<CompletableFuture<String>> loaded = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      loaded.add(loader.load("user" + i));
+    }
+    CompletableFuture.allOf(loaded.subList(0, 6).toArray(CompletableFuture[]::new)).join();
+    assertEquals(2, batches.size());
+
+    loader.dispatch();
+    assertEquals("User user6", loaded.get(6).join());
+    assertEquals(3, batches.size());
+  }
+
+  @Test
+  void duplicatedKeysAreFetchedOnce() {
+    DataLoader<String, String> loader = new DataLoader<>(
+        users, Duration.ofHours(1), 100, scheduler
+    );
+
+    CompletableFuture<String> first = loader.load("user");
+    CompletableFuture<String> second = loader.load("user");
+    loader.dispatch();
+
+    assertEquals("User user", first.join());
+    assertEquals("User user", second.join());
+    assertEquals(List.of(List.of("user")), batches);
+  }
+
+  @Test
+  void unknownEntitiesFailWithParseException() throws ParseException {
+    DataLoader<String, String> loader = new DataLoader<>(
+        users, Duration.ZERO, 100, scheduler
+    );
+    AtomicParser<String> name = AtomicParser.named("user", StringParsers.word());
+    AsyncAtomicParser<String> user = AsyncAtomicParser.resolving(name, loader::load);
+
+    CompletableFuture<String> result = user.parseAsync(new StringReader("ghost1"));
+
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    assertTrue(exception.getCause() instanceof ParseException);
+    assertEquals(
+        "Unknown user 'ghost1'", ((ParseException) exception.getCause()).getDetail()
+    );
+  }
+
+  @Test
+  void failedBatchesFailAllRequests() {
+    RuntimeException failure = new RuntimeException("API down");
+    DataLoader<String, String> loader = new DataLoader<>(
+        keys -> CompletableFuture.failedFuture(failure), Duration.ZERO, 100, scheduler
+    );
+
+    CompletionException exception = assertThrows(
+        CompletionException.class, () -> loader.load("user").join()
+    );
+    assertEquals(failure, exception.getCause());
+  }
+
+  @Test
+  void rejectedBatchesDoNotKeepRequestsWaiting() {
+    DataLoader<String, String> loader = new DataLoader<>(
+        users, Duration.ofHours(1), 100, scheduler
+    );
+    scheduler.shutdown();
+
+    for (String key : List.of("first", "second")) {
+      CompletionException exception = assertThrows(
+          CompletionException.class, () -> loader.load(key).join()
+      );
+      assertEquals(RejectedExecutionException.class, exception.getCause().getClass());
+    }
+    loader.dispatch();
+    assertEquals(List.of(), batches);
+  }
+
+  @Test
+  void missingFutureFailsAllRequests() {
+    DataLoader<String, String> loader = new DataLoader<>(keys -> null, Duration.ZERO, 2, scheduler);
+
+    assertAllFailWithNullPointer(loader.load("first"), loader.load("second"));
+  }
+
+  @Test
+  void missingMapFailsAllRequests() {
+    DataLoader<String, String> loader = new DataLoader<>(
+        keys -> CompletableFuture.completedFuture(null), Duration.ZERO, 2, scheduler
+    );
+
+    assertAllFailWithNullPointer(loader.load("first"), loader.load("second"));
+  }
+
+  @SafeVarargs
+  private void assertAllFailWithNullPointer(CompletableFuture<String>... futures) {
+    for (CompletableFuture<String> future : futures) {
+      CompletionException exception = assertThrows(
+          CompletionException.class, () -> future.orTimeout(5, TimeUnit.SECONDS).join()
+      );
+      assertEquals(NullPointerException.class, exception.getCause().getClass());
+    }
+  }
+
+  private GlobalContext createContext(String input) {
+    RequestContext requestContext = new RequestContext();
+    requestContext.setReader(new StringReader(input));
+    return new GlobalContext(requestContext);
+  }
+}
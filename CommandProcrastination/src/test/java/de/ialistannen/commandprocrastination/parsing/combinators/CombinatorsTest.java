@@ -0,0 +1,153 @@
+package de.ialistannen.commandprocrastination.parsing.combinators;
+
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.choice;
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.many;
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.memoized;
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.optional;
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.packrat;
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.separatedBy;
+import static de.ialistannen.commandprocrastination.parsing.combinators.Combinators.sequence;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+
+class CombinatorsTest {
+
+  private static final int DEPTH = 10;
+
+  @Test
+  void sequenceCollectsResults() throws ParseException {
+    StringReader input = new StringReader("a b");
+    List<String> result = sequence(token("a"), token(" "), token("b")).parse(input);
+
+    assertEquals(List.of("a", " ", "b"), result);
+    assertFalse(input.canRead());
+  }
+
+  @Test
+  void choiceBacktracks() throws ParseException {
+    AtomicParser<String> parser = choice(
+        sequence(token("ab"), token("c"), (a, b) -> a + b),
+        token("ab")
+    );
+    StringReader input = new StringReader("abd");
+
+    assertEquals("ab", parser.parse(input));
+    assertEquals(2, input.getPosition());
+  }
+
+  @Test
+  void optionalResetsOnFailure() throws ParseException {
+    StringReader input = new StringReader("b");
+
+    assertEquals(Optional.empty(), optional(token("a")).parse(input));
+    assertEquals(0, input.getPosition());
+  }
+
+  @Test
+  void manyStopsAtFirstFailure() throws ParseException {
+    StringReader input = new StringReader("aaab");
+
+    assertEquals(List.of("a", "a", "a"), many(token("a")).parse(input));
+    assertEquals("b", input.readRemaining());
+  }
+
+  @Test
+  void separatedByLeavesTrailingSeparator() throws ParseException {
+    StringReader input = new StringReader("x,x,x,");
+
+    assertEquals(List.of("x", "x", "x"), separatedBy(token("x"), token(",")).parse(input));
+    assertEquals(",", input.readRemaining());
+  }
+
+  @Test
+  void separatedByAcceptsEmptyInput() throws ParseException {
+    assertTrue(separatedBy(token("a"), token(",")).parse(new StringReader("")).isEmpty());
+  }
+
+  @Test
+  void backtrackingIsExponentialWithoutMemoization() throws ParseException {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicParser<String> grammar = nestedGrammar(countingA(calls), UnaryOperator.identity());
+
+    assertEquals("a", grammar.parse(new StringReader("a")));
+    assertEquals((int) Math.pow(3, DEPTH), calls.get());
+  }
+
+  @Test
+  void packratParsesEveryRuleOncePerPosition() throws ParseException {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicParser<String> grammar = packrat(nestedGrammar(countingA(calls), Combinators::memoized));
+
+    assertEquals("a", grammar.parse(new StringReader("a")));
+    assertEquals(1, calls.get());
+
+    // every parse gets a fresh table
+    assertEquals("a", grammar.parse(new StringReader("a")));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void packratReplaysFailures() {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicParser<String> grammar = packrat(nestedGrammar(countingA(calls), Combinators::memoized));
+
+    assertThrows(ParseException.class, () -> grammar.parse(new StringReader("b")));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void memoizedWorksOutsideOfPackrat() throws ParseException {
+    AtomicInteger calls = new AtomicInteger();
+    AtomicParser<String> rule = memoized(countingA(calls));
+
+    assertEquals("a", rule.parse(new StringReader("a")));
+    assertEquals("a", rule.parse(new StringReader("a")));
+    assertEquals(2, calls.get());
+  }
+
+  private AtomicParser<String> countingA(AtomicInteger calls) {
+    AtomicParser<String> a = token("a");
+    return input -> {
+      calls.incrementAndGet();
+      return a.parse(input);
+    };
+  }
+
+  /**
+   * Builds a grammar where every level tries the level below three times, once for each
+   * alternative: {@code rule_n = rule_(n-1) "!" | rule_(n-1) "?" | rule_(n-1)}.
+   */
+  private AtomicParser<String> nestedGrammar(AtomicParser<String> base,
+      UnaryOperator<AtomicParser<String>> wrapRule) {
+    AtomicParser<String> rule = wrapRule.apply(base);
+    for (int i = 0; i < DEPTH; i++) {
+      AtomicParser<String> below = rule;
+      rule = wrapRule.apply(choice(
+          sequence(below, token("!"), (a, b) -> a + b),
+          sequence(below, token("?"), (a, b) -> a + b),
+          below
+      ));
+    }
+    return rule;
+  }
+
+  private static AtomicParser<String> token(String text) {
+    AtomicParser<Void> literal = literal(text);
+    return input -> {
+      literal.parse(input);
+      return text;
+    };
+  }
+}
@@ -0,0 +1,96 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.arguments.ArgumentKey;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FlagParserTest {
+
+  private static final ArgumentKey<Integer> LIMIT = ArgumentKey.named("limit");
+  private static final ArgumentKey<String> SORT = ArgumentKey.named("sort");
+  private static final ArgumentKey<Boolean> VERBOSE = ArgumentKey.named("verbose");
+
+  private final FlagParser parser = FlagParser.builder()
+      .option(LIMIT, IntegerParsers.integer(), "-l", "--limit")
+      .option(
+          SORT,
+          StringParsers.oneOf(new TreeMap<>(Map.of("asc", "asc", "desc", "desc"))),
+          "--sort"
+      )
+      .flag(VERBOSE, "-v", "--verbose")
+      .build();
+
+  @ParameterizedTest(name = "\"{0}\"")
+  @CsvSource({
+      "--limit 10 --sort desc -v,10,desc,true,''",
+      "-v --sort=desc -l 10,10,desc,true,''",
+      "--limit=10 rest of input,10,,false,' rest of input'",
+      "--verbose -- --limit 10,,,true,' --limit 10'",
+      "plain input,,,false,plain input",
+      "--limit -5 -v,-5,,true,''",
+      "--limit=-5 -3,-5,,false,' -3'",
+      "-v -5,,,true,' -5'",
+      "'',,,false,''",
+  })
+  public void parseFlags(String input, Integer limit, String sort, boolean verbose,
+      String remaining) throws ParseException {
+    StringReader reader = new StringReader(input);
+    Flags flags = parser.parse(reader);
+
+    assertEquals(Optional.ofNullable(limit), flags.getOptional(LIMIT));
+    assertEquals(Optional.ofNullable(sort), flags.getOptional(SORT));
+    assertEquals(verbose, flags.get(VERBOSE));
+    assertEquals(remaining, reader.readRemaining());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should fail")
+  @CsvSource({
+      "--unknown",
+      "--limit",
+      "--limit abc",
+      "--sort random",
+      "-v -v",
+      "-v=true",
+  })
+  public void rejectInvalidFlags(String input) {
+    assertThrows(ParseException.class, () -> parser.parse(new StringReader(input)));
+  }
+
+  @Test
+  public void reportsPresence() throws ParseException {
+    Flags flags = parser.parse(new StringReader("-l 3"));
+
+    assertTrue(flags.isPresent(LIMIT));
+    assertFalse(flags.isPresent(VERBOSE));
+    assertFalse(flags.get(VERBOSE));
+  }
+
+  @Test
+  public void rejectsDuplicatedNames() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> FlagParser.builder()
+            .flag(VERBOSE, "-v")
+            .option(LIMIT, IntegerParsers.integer(), "-v")
+    );
+  }
+
+  @Test
+  public void buildsUsage() {
+    assertEquals(
+        "[-l|--limit <limit>] [--sort <asc|desc>] [-v|--verbose]",
+        parser.getUsage()
+    );
+  }
+}
@@ -0,0 +1,101 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ListParsersTest {
+
+  @ParameterizedTest(name = "\"{0}\" should be [{1}] with \"{2}\" left")
+  @CsvSource({
+      "3 6 10 12,3 6 10 12,''",
+      "3,3,''",
+      "3 6 hello,3 6,' hello'",
+      "-3 +6 1_000,-3 6 1000,''",
+      "3  6,3 6,''",
+      "1 2 3 4 5 6,1 2 3 4 5,' 6'",
+      "'3 6 ',3 6,' '",
+      "2147483647 -2147483648,2147483647 -2147483648,''",
+  })
+  public void readIntArray(String input, String expected, String remaining)
+      throws ParseException {
+    StringReader reader = new StringReader(input);
+
+    int[] result = ListParsers.intArray(1, 5).parse(reader);
+
+    assertArrayEquals(Arrays.stream(expected.split(" ")).mapToInt(Integer::parseInt).toArray(),
+        result);
+    assertEquals(remaining, reader.readRemaining());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should fail")
+  @CsvSource({
+      "''",
+      "hello",
+      "1",
+      "1 2147483648",
+      "-2147483649",
+  })
+  public void rejectIntArray(String input) {
+    assertThrows(
+        ParseException.class,
+        () -> ListParsers.intArray(2, 5).parse(new StringReader(input))
+    );
+  }
+
+  @Test
+  public void readManyLongs() throws ParseException {
+    long[] ids = new long[500];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = Long.MAX_VALUE - i;
+    }
+    String input = Arrays.stream(ids).mapToObj(Long::toString).collect(Collectors.joining(" "));
+
+    assertArrayEquals(ids, ListParsers.longArray(0, 1000).parse(new StringReader(input)));
+  }
+
+  @Test
+  public void readEmptyArray() throws ParseException {
+    assertArrayEquals(new long[0], ListParsers.longArray(0, 10).parse(new StringReader("")));
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should be [{1}] with \"{2}\" left")
+  @CsvSource({
+      "'1,2,3',1 2 3,''",
+      "'1,2,',1 2,','",
+      "'1,2,3,4',1 2 3,',4'",
+      "'1,x',1,',x'",
+  })
+  public void readListOf(String input, String expected, String remaining)
+      throws ParseException {
+    AtomicParser<List<Integer>> parser = ListParsers.listOf(
+        IntegerParsers.integer(), StringParsers.literal(","), 1, 3
+    );
+    StringReader reader = new StringReader(input);
+
+    assertEquals(
+        Arrays.stream(expected.split(" ")).map(Integer::valueOf).collect(Collectors.toList()),
+        parser.parse(reader)
+    );
+    assertEquals(remaining, reader.readRemaining());
+  }
+
+  @Test
+  public void rejectTooShortList() {
+    AtomicParser<List<Integer>> parser = ListParsers.listOf(
+        IntegerParsers.integer(), StringParsers.literal(","), 2, 3
+    );
+
+    assertThrows(ParseException.class, () -> parser.parse(new StringReader("1,x")));
+  }
+}
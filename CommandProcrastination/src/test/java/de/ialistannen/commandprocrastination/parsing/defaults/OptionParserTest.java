@@ -0,0 +1,127 @@
+package de.ialistannen.commandprocrastination.parsing.defaults;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.IntegerParsers.integer;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.word;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.parsing.AtomicParser;
+import de.ialistannen.commandprocrastination.parsing.FirstChars;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class OptionParserTest {
+
+  @ParameterizedTest(name = "\"{0}\" should be \"{1}\"")
+  @CsvSource({
+      "on,on",
+      "off,off",
+      "toggle,toggle",
+      "200,number",
+      "-5,number",
+      "ärger,word",
+      "zzz,word",
+  })
+  public void picksFirstMatchingOption(String input, String expected) throws ParseException {
+    OptionParser<String> parser = new OptionParser<String>()
+        .or(constant("on", literal("on")))
+        .or(constant("off", literal("off")))
+        .or(constant("toggle", literal("toggle")))
+        .or(constant("number", integer()))
+        .or(constant("word", word()));
+
+    assertEquals(
+        expected,
+        parser.parse(new StringReader(input))
+    );
+  }
+
+  @Test
+  public void skipsOptionsThatCanNotStartHere() throws ParseException {
+    AtomicInteger invocations = new AtomicInteger();
+    AtomicParser<String> counting = AtomicParser.named("counting", FirstChars.of("x"), input -> {
+      invocations.incrementAndGet();
+      throw new ParseException(input, "Nope");
+    });
+
+    OptionParser<String> parser = new OptionParser<String>()
+        .or(counting)
+        .or(constant("on", literal("on")));
+
+    assertEquals("on", parser.parse(new StringReader("on")));
+    assertEquals(0, invocations.get());
+
+    assertThrows(ParseException.class, () -> parser.parse(new StringReader("xy")));
+    assertEquals(1, invocations.get());
+  }
+
+  @Test
+  public void advertisesUnionOfFirstChars() {
+    OptionParser<Object> parser = new OptionParser<>()
+        .or(constant("a", literal("a")))
+        .or(constant("b", literal("b")));
+
+    assertTrue(parser.getFirstChars().contains('a'));
+    assertTrue(parser.getFirstChars().contains('b'));
+    assertFalse(parser.getFirstChars().contains('c'));
+
+    parser.or(constant("word", word()));
+    assertTrue(parser.getFirstChars().isAny());
+  }
+
+  @Test
+  public void reportsAllOptionsOnFailure() {
+    OptionParser<Object> parser = new OptionParser<>()
+        .or(constant("a", literal("a")))
+        .or(constant("b", literal("b")));
+
+    ParseException exception = assertThrows(
+        ParseException.class,
+        () -> parser.parse(new StringReader("c"))
+    );
+    assertEquals("Expected one of <a|b>", exception.getDetail());
+  }
+
+  @Test
+  public void seesOptionsAddedToNestedParsers() throws ParseException {
+    OptionParser<Object> innermost = new OptionParser<>().or(constant("a", literal("a")));
+    OptionParser<Object> inner = new OptionParser<>().or(innermost);
+    OptionParser<Object> outer = new OptionParser<>().or(inner);
+    assertThrows(ParseException.class, () -> outer.parse(new StringReader("b")));
+
+    innermost.or(constant("b", literal("b")));
+
+    assertEquals("b", outer.parse(new StringReader("b")));
+    assertTrue(outer.getFirstChars().contains('b'));
+    assertEquals(Optional.of("<<<a|b>>>"), outer.getName());
+  }
+
+  @Test
+  public void seesOptionsAddedToWrappedParsers() throws ParseException {
+    OptionParser<Object> inner = new OptionParser<>().or(constant("a", literal("a")));
+    AtomicParser<Object> named = AtomicParser.named("letters", inner);
+    OptionParser<Object> outer = new OptionParser<>().or(named);
+    assertThrows(ParseException.class, () -> outer.parse(new StringReader("b")));
+
+    inner.or(constant("b", literal("b")));
+
+    assertEquals("b", named.parse(new StringReader("b")));
+    assertEquals("b", outer.parse(new StringReader("b")));
+    assertTrue(outer.getFirstChars().contains('b'));
+  }
+
+  private static <T> AtomicParser<T> constant(T value, AtomicParser<?> parser) {
+    return AtomicParser.named(parser.getName().orElse(null), parser.getFirstChars(), input -> {
+      parser.parse(input);
+      return value;
+    });
+  }
+}
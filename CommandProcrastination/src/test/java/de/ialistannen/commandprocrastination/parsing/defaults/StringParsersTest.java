@@ -1,10 +1,15 @@
 package de.ialistannen.commandprocrastination.parsing.defaults;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import de.ialistannen.commandprocrastination.parsing.AtomicParser;
 import de.ialistannen.commandprocrastination.parsing.ParseException;
 import de.ialistannen.commandprocrastination.util.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
@@ -38,6 +43,8 @@ class StringParsersTest {
       "\"Hello my friend,Hello my friend",
       "Hello my friend\",Hello",
       "\"Hello\tmy friend\",Hello\tmy friend",
+      "\"Hello \\\"my\\\" friend\",Hello \"my\" friend",
+      "\"\",''",
   })
   public void readPhrase(String input, String expected) throws ParseException {
     AtomicParser<String> parser = StringParsers.phrase();
@@ -48,6 +55,38 @@ class StringParsersTest {
     );
   }
 
+  @ParameterizedTest(name = "\"{0}\" reads the same when tokenized")
+  @CsvSource(delimiter = '%', value = {
+      "Hello you",
+      "Hello\u2003you there",
+      "'Hello you' there",
+      "\"Hello \\\"my\\\" friend\" there",
+      "\"Hello my friend",
+      "\"\" there",
+      "\"",
+      "\"ab\"cd ef",
+      "a\"b c\" d",
+  })
+  public void readTokenizedInput(String input) throws ParseException {
+    for (AtomicParser<String> parser : List.of(StringParsers.word(), StringParsers.phrase())) {
+      StringReader plain = new StringReader(input);
+      StringReader tokenized = new StringReader(input).tokenize();
+
+      while (plain.canRead()) {
+        assertEquals(parser.parse(plain), parser.parse(tokenized));
+        assertEquals(plain.getPosition(), tokenized.getPosition());
+        plain.skipWhitespace();
+        tokenized.skipWhitespace();
+        assertEquals(plain.getPosition(), tokenized.getPosition());
+        if (plain.canRead() && plain.getPosition() == tokenized.getPosition()) {
+          // Also step into the middle of tokens, where the index can not be used
+          plain.readChar();
+          tokenized.readChar();
+        }
+      }
+    }
+  }
+
   @ParameterizedTest(name = "\"{0}\" should be \"{1}\"")
   @CsvSource({
       "'''Hello my friend''','''Hello my friend'''",
@@ -63,4 +102,75 @@ class StringParsersTest {
         parser.parse(new StringReader(input))
     );
   }
-}
\ No newline at end of file
+
+  @ParameterizedTest(name = "\"{0}\" should be \"{1}\"")
+  @CsvSource({
+      "on,ON,''",
+      "off now,OFF,' now'",
+      "OFF,OFF,''",
+      "flip,TOGGLE,''",
+      "toggle,TOGGLE,''",
+  })
+  public void readOneOf(String input, String expected, String remaining) throws ParseException {
+    AtomicParser<String> parser = StringParsers.oneOf(
+        Map.of("on", "ON", "off", "OFF", "toggle", "TOGGLE", "flip", "TOGGLE"),
+        true
+    );
+    StringReader reader = new StringReader(input);
+
+    assertEquals(expected, parser.parse(reader));
+    assertEquals(remaining, reader.readRemaining());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should not match")
+  @CsvSource({
+      "onward",
+      "o",
+      "ON",
+      "''",
+      "on\u001Cx",
+      "on\u2000x",
+  })
+  public void rejectOneOf(String input) {
+    AtomicParser<String> parser = StringParsers.oneOf(Map.of("on", "ON", "off", "OFF"));
+    StringReader reader = new StringReader(input);
+
+    assertThrows(ParseException.class, () -> parser.parse(reader));
+    assertEquals(0, reader.getPosition());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should be \"{1}\"")
+  @CsvSource({
+      "seconds,SECONDS",
+      "Minutes,MINUTES",
+      "DAYS,DAYS",
+  })
+  public void readEnumValue(String input, TimeUnit expected) throws ParseException {
+    AtomicParser<TimeUnit> parser = StringParsers.enumValue(TimeUnit.class);
+
+    assertEquals(expected, parser.parse(new StringReader(input)));
+  }
+
+  @Test
+  public void rejectAmbiguousChoices() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> StringParsers.oneOf(Map.of("on", 1, "ON", 2), true)
+    );
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should be \"{1}\"")
+  @CsvSource({
+      "\u017Fkip,SKIP",
+      "\u212Aeep,KEEP",
+      "SKIP,SKIP",
+  })
+  public void readFoldedOneOfThroughOptions(String input, String expected)
+      throws ParseException {
+    AtomicParser<String> choice = StringParsers.oneOf(Map.of("skip", "SKIP", "keep", "KEEP"), true);
+    AtomicParser<String> options = new OptionParser<String>().or(choice);
+
+    assertEquals(expected, choice.parse(new StringReader(input)));
+    assertEquals(expected, options.parse(new StringReader(input)));
+  }
+}
@@ -0,0 +1,88 @@
+package de.ialistannen.commandprocrastination.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ByteScannerTest {
+
+  private static final byte[] ALPHABET = " \t\n\r\u001F\"'\\ab".getBytes(StandardCharsets.UTF_8);
+
+  @ParameterizedTest(name = "\"{0}\" has '\"' or '\\' at {1}")
+  @CsvSource(delimiter = '%', value = {
+      "hello%-1",
+      "hello\"%5",
+      "0123456789abcd\\ef\"%14",
+      "01234567\"%8",
+      "0123456\"89\"%7",
+      "''%-1",
+  })
+  void findsEitherByte(String input, int expected) {
+    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(
+        expected,
+        ByteScanner.indexOfEither(bytes, 0, bytes.length, (byte) '"', (byte) '\\')
+    );
+  }
+
+  @ParameterizedTest(name = "\"{0}\" has text at {1}")
+  @CsvSource(delimiter = '%', value = {
+      "'hello'%0",
+      "'          hello'%10",
+      "'        \\t  \\n  x'%14",
+      "'   ä'%3",
+      "'                  '%18",
+  })
+  void findsNonWhitespace(String input, int expected) {
+    byte[] bytes = input.replace("\\t", "\t").replace("\\n", "\n").getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(expected, ByteScanner.indexOfNonWhitespace(bytes, 0, bytes.length));
+  }
+
+  @Test
+  void agreesWithScalarScan() {
+    Random random = new Random(42);
+    for (int round = 0; round < 10_000; round++) {
+      byte[] bytes = new byte[random.nextInt(40)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = random.nextInt(10) == 0
+            ? (byte) (0x80 | random.nextInt(0x80))
+            : ALPHABET[random.nextInt(ALPHABET.length)];
+      }
+      int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+      int to = from + random.nextInt(bytes.length - from + 1);
+
+      assertEquals(
+          scalarIndexOfEither(bytes, from, to, (byte) '"', (byte) '\\'),
+          ByteScanner.indexOfEither(bytes, from, to, (byte) '"', (byte) '\\')
+      );
+      assertEquals(
+          scalarIndexOfNonWhitespace(bytes, from, to),
+          ByteScanner.indexOfNonWhitespace(bytes, from, to)
+      );
+    }
+  }
+
+  private static int scalarIndexOfEither(byte[] bytes, int from, int to, byte first, byte second) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] == first || bytes[i] == second) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int scalarIndexOfNonWhitespace(byte[] bytes, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] < 0 || !Character.isWhitespace((char) bytes[i])) {
+        return i;
+      }
+    }
+    return to;
+  }
+}
@@ -0,0 +1,70 @@
+package de.ialistannen.commandprocrastination.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class TokenIndexTest {
+
+  @ParameterizedTest(name = "\"{0}\" should be {1}")
+  @CsvSource(delimiter = '%', value = {
+      "hello%[hello]",
+      "'  hello  you  '%[hello, you]",
+      "ban 'some user' \"for spam\"%[ban, 'some user', \"for spam\"]",
+      "say \"a \\\" b\" c%[say, \"a \\\" b\", c]",
+      "say \"open end%[say, \"open end]",
+      "\"ab\"cd%[\"ab\", cd]",
+      "a\"b c\"%[a\"b, c\"]",
+      "''%[]",
+  })
+  void splitsTokens(String input, String expected) {
+    TokenIndex tokens = TokenIndex.of(input);
+
+    List<String> read = new ArrayList<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      read.add(input.substring(tokens.getStart(i), tokens.getEnd(i)));
+    }
+    assertEquals(expected, read.toString());
+  }
+
+  @Test
+  void marksEscapedTokens() {
+    TokenIndex tokens = TokenIndex.of("'a b' 'a \\' b' c\\d");
+
+    assertEquals(3, tokens.size());
+    assertFalse(tokens.isEscaped(0));
+    assertTrue(tokens.isEscaped(1));
+    assertFalse(tokens.isEscaped(2));
+  }
+
+  @Test
+  void skipsGapsBetweenTokens() {
+    TokenIndex tokens = TokenIndex.of("ab   cd  ");
+
+    assertEquals(0, tokens.skipGap(0));
+    assertEquals(-1, tokens.skipGap(1));
+    assertEquals(5, tokens.skipGap(2));
+    assertEquals(5, tokens.skipGap(3));
+    assertEquals(-1, tokens.skipGap(6));
+    assertEquals(9, tokens.skipGap(7));
+    assertEquals(9, tokens.skipGap(9));
+  }
+
+  @Test
+  void findsTokensInAnyOrder() {
+    TokenIndex tokens = TokenIndex.of("a b c d e f");
+
+    assertEquals(5, tokens.getTokenStartingAt(10));
+    assertEquals(0, tokens.getTokenStartingAt(0));
+    assertEquals(3, tokens.getTokenStartingAt(6));
+    assertEquals(4, tokens.getTokenStartingAt(8));
+    assertEquals(-1, tokens.getTokenStartingAt(7));
+    assertEquals(-1, tokens.getTokenStartingAt(11));
+  }
+}
@@ -0,0 +1,156 @@
+package de.ialistannen.commandprocrastination.util;
+
+import static de.ialistannen.commandprocrastination.parsing.defaults.StringParsers.literal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.ialistannen.commandprocrastination.command.Command;
+import de.ialistannen.commandprocrastination.command.tree.CommandFinder;
+import de.ialistannen.commandprocrastination.command.tree.CommandNode;
+import de.ialistannen.commandprocrastination.context.GlobalContext;
+import de.ialistannen.commandprocrastination.parsing.ParseException;
+import de.ialistannen.commandprocrastination.parsing.SuccessParser;
+import de.ialistannen.commandprocrastination.parsing.defaults.IntegerParsers;
+import de.ialistannen.commandprocrastination.parsing.defaults.StringParsers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class Utf8ReaderTest {
+
+  @Test
+  void readsAsciiWithoutDecoding() throws ParseException {
+    Utf8Reader reader = reader("!ban 42 for spamming");
+
+    literal("!ban ").parse(reader);
+    assertEquals(42, IntegerParsers.integer().parse(reader));
+    reader.skipWhitespace();
+    assertEquals("for", StringParsers.word().parse(reader));
+
+    assertFalse(reader.isDecoded());
+  }
+
+  @Test
+  void decodesOnlyOnceNonAsciiIsReached() throws ParseException {
+    Utf8Reader reader = reader("say Grüße 😀 x");
+
+    literal("say ").parse(reader);
+    assertFalse(reader.isDecoded());
+
+    assertEquals("Grüße", StringParsers.word().parse(reader));
+    assertTrue(reader.isDecoded());
+    reader.skipWhitespace();
+    assertEquals("😀", StringParsers.word().parse(reader));
+    assertEquals(" x", reader.readRemaining());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" starts with \"{1}\": {2}")
+  @CsvSource({
+      "hello,he,true",
+      "hello,hello,true",
+      "hello,hello!,false",
+      "hello,ha,false",
+      "hé,hé,true",
+      "hé,he,false",
+      "hé,héllo,false",
+  })
+  void matchesPrefixes(String input, String prefix, boolean expected) {
+    assertEquals(expected, reader(input).startsWith(prefix));
+    assertEquals(expected, new StringReader(input).startsWith(prefix));
+  }
+
+  @Test
+  void behavesLikeStringReader() {
+    String input = "ab ü c";
+    Utf8Reader bytes = reader(input);
+    StringReader chars = new StringReader(input);
+
+    assertEquals(chars.length(), bytes.length());
+    while (chars.canRead()) {
+      assertTrue(bytes.canRead());
+      assertEquals(chars.peek(3), bytes.peek(3));
+      assertEquals(chars.readChar(), bytes.readChar());
+    }
+    assertFalse(bytes.canRead());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" should read the same from bytes")
+  @CsvSource(delimiter = '%', value = {
+      "'          \"quoted phrase\" rest'",
+      "'  \"an \\\"escaped\\\" phrase\" rest'",
+      "'  \"unterminated phrase'",
+      "'  \"Grüße\" rest'",
+      "'        \u2003 \"after unicode space\"'",
+  })
+  void scansLikeStringReader(String input) throws ParseException {
+    Utf8Reader bytes = reader(input);
+    StringReader chars = new StringReader(input);
+
+    bytes.skipWhitespace();
+    chars.skipWhitespace();
+    assertEquals(chars.getPosition(), bytes.getPosition());
+    assertEquals(StringParsers.phrase().parse(chars), StringParsers.phrase().parse(bytes));
+    assertEquals(chars.readRemaining(), bytes.readRemaining());
+  }
+
+  @Test
+  void readsByteBuffers() {
+    byte[] bytes = "xxhello".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer heap = ByteBuffer.wrap(bytes);
+    heap.position(2);
+    ByteBuffer direct = ByteBuffer.allocateDirect(5).put(bytes, 2, 5).flip();
+
+    assertEquals("hello", Utf8Reader.of(heap).readRemaining());
+    assertEquals("hello", Utf8Reader.of(direct).readRemaining());
+    assertEquals(2, heap.position());
+    assertEquals(0, direct.position());
+  }
+
+  @Test
+  void copiesKeepThePosition() {
+    Utf8Reader reader = reader("hello world");
+    reader.readChars(6);
+
+    StringReader copy = reader.copy();
+    assertEquals("world", copy.readRemaining());
+    assertEquals(6, reader.getPosition());
+  }
+
+  @Test
+  void rejectsNonCommandsWithoutDecoding() {
+    CommandNode<GlobalContext> root = new CommandNode<>(Command.nop(), SuccessParser.alwaysTrue());
+    root.addChild(new CommandNode<>(Command.nop(), SuccessParser.wrapping(literal("!ban"))));
+    root.addChild(new CommandNode<>(Command.nop(), SuccessParser.wrapping(literal("!kick"))));
+
+    Utf8Reader reader = reader("Schöne Grüße an alle!");
+    assertFalse(new CommandFinder<>(root).find(reader).isSuccess());
+    assertFalse(reader.isDecoded());
+  }
+
+  @Test
+  void canBeReused() {
+    Utf8Reader reader = reader("Grüße");
+    assertEquals("Grüße", reader.readRemaining());
+
+    byte[] next = "hello".getBytes(StandardCharsets.UTF_8);
+    reader.reset(next, 0, next.length);
+    assertFalse(reader.isDecoded());
+    assertEquals("hello", reader.readRemaining());
+
+    reader.reset("plain");
+    assertEquals("plain", reader.readRemaining());
+  }
+
+  @Test
+  void rejectsInvalidRanges() {
+    assertThrows(IndexOutOfBoundsException.class, () -> new Utf8Reader(new byte[2], 1, 2));
+  }
+
+  private static Utf8Reader reader(String input) {
+    return new Utf8Reader(input.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,89 @@
+package de.ialistannen.commandprocrastination.util.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+  private long now;
+
+  @BeforeEach
+  void setUp() {
+    now = 0;
+  }
+
+  @Test
+  void returnsCachedValue() {
+    BoundedCache<String, String> cache = new BoundedCache<>(10, () -> now);
+    cache.put("a", "value", Duration.ofMinutes(1));
+
+    assertEquals("value", cache.getIfPresent("a"));
+    assertNull(cache.getIfPresent("b"));
+    assertEquals(new CacheStats(1, 1, 0), cache.getStats());
+  }
+
+  @Test
+  void expiresEntries() {
+    BoundedCache<String, String> cache = new BoundedCache<>(10, () -> now);
+    cache.put("a", "value", Duration.ofSeconds(10));
+
+    now = Duration.ofSeconds(9).toNanos();
+    assertEquals("value", cache.getIfPresent("a"));
+
+    now = Duration.ofSeconds(10).toNanos();
+    assertNull(cache.getIfPresent("a"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void staysWithinMaximumSize() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, () -> now);
+
+    for (int i = 0; i < 10_000; i++) {
+      cache.put(i, i, Duration.ofMinutes(1));
+    }
+
+    assertTrue(cache.size() <= 100, "Cache has " + cache.size() + " entries");
+  }
+
+  @Test
+  void keepsPopularEntriesDuringScan() {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, () -> now);
+
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, i, Duration.ofMinutes(1));
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.getIfPresent(i);
+      }
+    }
+    // One-off keys, which should not push out the popular ones
+    for (int i = 1000; i < 2000; i++) {
+      cache.put(i, i, Duration.ofMinutes(1));
+    }
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i, cache.getIfPresent(i));
+    }
+  }
+
+  @Test
+  void invalidatesEntries() {
+    BoundedCache<String, String> cache = new BoundedCache<>(10, () -> now);
+    cache.put("a", "value", Duration.ofMinutes(1));
+    cache.put("b", "value", Duration.ofMinutes(1));
+
+    cache.invalidate("a");
+    assertNull(cache.getIfPresent("a"));
+    assertEquals("value", cache.getIfPresent("b"));
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,38 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class MultiRegexMatcherTest {
+
+  @Test
+  void matchesEveryPatternLikeOnItsOwn() {
+    List<String> patterns = List.of("\\d+", "[a-z]+\\d?", "a*?b", "(ab|a)(c|bcd)", "x", "");
+    MultiRegexMatcher matcher = MultiRegexMatcher.of(
+        patterns.stream().map(RegexMatcher::linear).collect(Collectors.toList())
+    );
+
+    for (String input : List.of("123abc", "abcd", "aab", "ab1", "x", "", "abcdef")) {
+      for (int start = 0; start <= input.length(); start++) {
+        int[] expected = new int[patterns.size()];
+        for (int i = 0; i < patterns.size(); i++) {
+          expected[i] = RegexMatcher.linear(patterns.get(i)).matchAt(input, start);
+        }
+        assertArrayEquals(expected, matcher.matchAll(input, start), input + " at " + start);
+      }
+    }
+  }
+
+  @Test
+  void rejectsBacktrackingMatchers() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> MultiRegexMatcher.of(List.of(RegexMatcher.backtracking(Pattern.compile("a"))))
+    );
+  }
+}
@@ -0,0 +1,126 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RegexMatcherTest {
+
+  @ParameterizedTest(name = "\"{0}\" on \"{1}\" at {2}")
+  @CsvSource(delimiter = '%', value = {
+      "abc%abcdef%0",
+      "abc%xabc%1",
+      "abc%abd%0",
+      "a*%aaab%0",
+      "a*?b%aaab%0",
+      "a+?%aaa%0",
+      "(a|ab)c%abc%0",
+      "(a|ab)(c|bcd)%abcd%0",
+      "a{2,3}%aaaa%0",
+      "a{2,}%aaaaa%0",
+      "a{2}%a%0",
+      "a{0,2}?b%aab%0",
+      "[+\\-]?(\\d|[_])+%-1_000 rest%0",
+      "[+\\-]?(\\d|[_,.])+%3.14%0",
+      "[^ ]+%hello world%6",
+      "[a-c]+[x-z]*%abcxyzq%0",
+      "\\w+\\s\\W%ab_9 !%0",
+      "\\S+%  a%0",
+      ".*%line\\nnext%0",
+      "(?:ab)+%ababa%0",
+      "^ab%xab%1",
+      "ab$%ab%0",
+      "ab$%ab\\n%0",
+      "ab$%abc%0",
+      "(x+x+)+y%xxxxxxxxxy%0",
+      "\\u0041\\x42%AB%0",
+      "a\\.b%a.b%0",
+      "[]a]%]%0",
+      "%%0",
+      "a|%%0",
+  })
+  void matchesLikeJavaRegex(String regex, String input, int start) {
+    String actualInput = input == null ? "" : input.replace("\\n", "\n");
+    String actualRegex = regex == null ? "" : regex;
+
+    assertEquals(
+        RegexMatcher.backtracking(Pattern.compile(actualRegex)).matchAt(actualInput, start),
+        RegexMatcher.linear(actualRegex).matchAt(actualInput, start)
+    );
+  }
+
+  @ParameterizedTest(name = "\"{0}\" is not supported")
+  @CsvSource(delimiter = '%', value = {
+      "(a)\\1",
+      "(?=a)",
+      "(?i)abc",
+      "a++",
+      "\\bword",
+      "[a-z&&[^b]]",
+      "\\p{Alpha}",
+      "a{1001}",
+      "(a*)*b",
+      "(?:[ab]??)*",
+      "^(.*?)*",
+      "([ab]??a*)+",
+      "(?:a?){1,3}",
+      "(?:$)+",
+  })
+  void rejectsUnsupportedFeatures(String regex) {
+    assertThrows(PatternSyntaxException.class, () -> RegexMatcher.linear(regex));
+
+    RegexMatcher fallback = RegexMatcher.compile(regex);
+    assertFalse(fallback.isLinear());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" on \"{1}\" at {2} falls back")
+  @CsvSource(delimiter = '%', value = {
+      "(?:[ab]??)*%\\nb%1",
+      "^(.*?)*%a%0",
+      "([ab]??a*)+%aaab%2",
+      "(a*)*b%aaac%0",
+  })
+  void matchesRepeatedEmptyGroupsLikeJavaRegex(String regex, String input, int start) {
+    String actualInput = input.replace("\\n", "\n");
+    RegexMatcher matcher = RegexMatcher.compile(regex);
+
+    assertFalse(matcher.isLinear());
+    assertEquals(
+        RegexMatcher.backtracking(Pattern.compile(regex)).matchAt(actualInput, start),
+        matcher.matchAt(actualInput, start)
+    );
+  }
+
+  @ParameterizedTest(name = "\"{0}\" is invalid")
+  @CsvSource(delimiter = '%', value = {
+      "(ab",
+      "ab)",
+      "*a",
+      "[ab",
+      "a{2,1}",
+      "[z-a]",
+  })
+  void rejectsInvalidPatterns(String regex) {
+    assertThrows(PatternSyntaxException.class, () -> RegexMatcher.linear(regex));
+  }
+
+  @Test
+  void staysLinearOnHostileInput() {
+    RegexMatcher matcher = RegexMatcher.linear("(a+)+b");
+    assertTrue(matcher.isLinear());
+
+    String input = "a".repeat(50_000) + "!";
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      assertEquals(-1, matcher.matchAt(input, 0));
+    });
+  }
+}
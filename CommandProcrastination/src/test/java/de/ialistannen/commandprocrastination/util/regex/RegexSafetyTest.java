@@ -0,0 +1,39 @@
+package de.ialistannen.commandprocrastination.util.regex;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RegexSafetyTest {
+
+  @ParameterizedTest(name = "\"{0}\" is catastrophic")
+  @CsvSource(delimiter = '%', value = {
+      "(a+)+",
+      "(a*)*b",
+      "(\\w+\\s?)*$",
+      "((ab)*c)+",
+      "(?:a|b+)*",
+      "(a+){2,}",
+      "(?<name>x+)+",
+  })
+  void findsNestedQuantifiers(String regex) {
+    assertTrue(RegexSafety.findCatastrophicConstruct(regex).isPresent());
+  }
+
+  @ParameterizedTest(name = "\"{0}\" is fine")
+  @CsvSource(delimiter = '%', value = {
+      "[+\\-]?(\\d|[_])+",
+      "(ab)+",
+      "(a+)?",
+      "(a+){2}",
+      "(?:ab)*",
+      "[(a+)]+",
+      "\\(a+\\)+",
+      "a+b+c*",
+  })
+  void acceptsHarmlessPatterns(String regex) {
+    assertFalse(RegexSafety.findCatastrophicConstruct(regex).isPresent());
+  }
+}